@@ -0,0 +1,265 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.athena.CfnNamedQuery;
+import software.amazon.awscdk.services.athena.CfnWorkGroup;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationLoadBalancer;
+import software.amazon.awscdk.services.glue.CfnDatabase;
+import software.amazon.awscdk.services.glue.CfnTable;
+import software.amazon.awscdk.services.s3.BlockPublicAccess;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.BucketEncryption;
+import software.amazon.awscdk.services.s3.LifecycleRule;
+import software.constructs.Construct;
+
+/**
+ * Request-level latency analytics for the web load balancer.
+ *
+ * ALB access logs land in a lifecycle-managed bucket. A Glue table with
+ * partition projection on the delivery date lets Athena prune to the days a
+ * query asks for without crawlers or MSCK REPAIR, and the workgroup caps
+ * bytes scanned per query. Saved queries cover per-path p50/p99 target
+ * processing time and error rates.
+ */
+class AccessLogAnalytics extends Construct {
+  static final String TABLE_NAME = "alb_access_logs";
+  private static final String LOG_PREFIX = "alb";
+  private static final String RESULTS_PREFIX = "athena-results";
+
+  /**
+   * Column layout of ALB access log entries, in log field order; see
+   * "Access log entries" in the Elastic Load Balancing user guide. The last
+   * column absorbs fields that AWS appends in future log versions.
+   */
+  private static final String[][] COLUMNS = {
+      {"type", "string"},
+      {"time", "string"},
+      {"elb", "string"},
+      {"client_ip", "string"},
+      {"client_port", "int"},
+      {"target_ip", "string"},
+      {"target_port", "int"},
+      {"request_processing_time", "double"},
+      {"target_processing_time", "double"},
+      {"response_processing_time", "double"},
+      {"elb_status_code", "int"},
+      {"target_status_code", "string"},
+      {"received_bytes", "bigint"},
+      {"sent_bytes", "bigint"},
+      {"request_verb", "string"},
+      {"request_url", "string"},
+      {"request_proto", "string"},
+      {"user_agent", "string"},
+      {"ssl_cipher", "string"},
+      {"ssl_protocol", "string"},
+      {"target_group_arn", "string"},
+      {"trace_id", "string"},
+      {"domain_name", "string"},
+      {"chosen_cert_arn", "string"},
+      {"matched_rule_priority", "string"},
+      {"request_creation_time", "string"},
+      {"actions_executed", "string"},
+      {"redirect_url", "string"},
+      {"lambda_error_reason", "string"},
+      {"target_port_list", "string"},
+      {"target_status_code_list", "string"},
+      {"classification", "string"},
+      {"classification_reason", "string"},
+      {"conn_trace_id", "string"},
+      {"unparsed_fields", "string"},
+  };
+
+  /** One capture group per column above. */
+  private static final String LOG_REGEX = "([^ ]*) ([^ ]*) ([^ ]*) ([^ ]*):([0-9]*) ([^ ]*)[:-]([0-9]*) "
+      + "([-.0-9]*) ([-.0-9]*) ([-.0-9]*) (|[-0-9]*) (-|[-0-9]*) ([-0-9]*) ([-0-9]*) "
+      + "\"([^ ]*) (.*) (- |[^ ]*)\" \"([^\"]*)\" ([A-Z0-9-_]+) ([A-Za-z0-9.-]*) ([^ ]*) "
+      + "\"([^\"]*)\" \"([^\"]*)\" \"([^\"]*)\" ([-.0-9]*) ([^ ]*) \"([^\"]*)\" \"([^\"]*)\" "
+      + "\"([^ ]*)\" \"([^\\s]+?)\" \"([^\\s]+)\" \"([^ ]*)\" \"([^ ]*)\" ?([^ ]*)?( .*)?";
+
+  /** Restricts a query to the last day of partitions. */
+  private static final String LAST_DAY =
+      "day >= date_format(current_date - interval '1' day, '%Y/%m/%d')";
+
+  private final Bucket bucket;
+  private final String databaseName;
+  private final CfnWorkGroup workGroup;
+
+  AccessLogAnalytics(Construct scope, String id, StackConfiguration config, ApplicationLoadBalancer loadBalancer) {
+    super(scope, id);
+
+    Stack stack = Stack.of(this);
+
+    bucket = Bucket.Builder.create(this, "Bucket")
+        .bucketName(config.getResourceName("alb-access-logs"))
+        // ALB log delivery only supports SSE-S3
+        .encryption(BucketEncryption.S3_MANAGED)
+        .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
+        .enforceSsl(true)
+        .lifecycleRules(Arrays.asList(
+            LifecycleRule.builder()
+                .id("DeleteOldLogs")
+                .enabled(true)
+                .prefix(LOG_PREFIX + "/")
+                .expiration(Duration.days(config.getAccessLogRetentionDays()))
+                .build(),
+            LifecycleRule.builder()
+                .id("DeleteOldQueryResults")
+                .enabled(true)
+                .prefix(RESULTS_PREFIX + "/")
+                .expiration(Duration.days(7))
+                .build()))
+        .build();
+
+    loadBalancer.logAccessLogs(bucket, LOG_PREFIX);
+
+    databaseName = config.getResourceName("access-logs").replace('-', '_');
+    CfnDatabase database = CfnDatabase.Builder.create(this, "Database")
+        .catalogId(stack.getAccount())
+        .databaseInput(CfnDatabase.DatabaseInputProperty.builder()
+            .name(databaseName)
+            .description("Load balancer access logs")
+            .build())
+        .build();
+
+    String logLocation = String.format("s3://%s/%s/AWSLogs/%s/elasticloadbalancing/%s",
+        bucket.getBucketName(), LOG_PREFIX, stack.getAccount(), stack.getRegion());
+
+    List<CfnTable.ColumnProperty> columns = new ArrayList<>();
+    for (String[] column : COLUMNS) {
+      columns.add(CfnTable.ColumnProperty.builder().name(column[0]).type(column[1]).build());
+    }
+
+    // Partition projection: Athena derives partitions from the day predicate
+    // instead of listing S3 or reading the Glue partition index
+    Map<String, String> tableParameters = new LinkedHashMap<>();
+    tableParameters.put("EXTERNAL", "TRUE");
+    tableParameters.put("projection.enabled", "true");
+    tableParameters.put("projection.day.type", "date");
+    tableParameters.put("projection.day.format", "yyyy/MM/dd");
+    tableParameters.put("projection.day.range", config.getAccessLogProjectionStart() + ",NOW");
+    tableParameters.put("projection.day.interval", "1");
+    tableParameters.put("projection.day.interval.unit", "DAYS");
+    tableParameters.put("storage.location.template", logLocation + "/${day}");
+
+    CfnTable table = CfnTable.Builder.create(this, "Table")
+        .catalogId(stack.getAccount())
+        .databaseName(databaseName)
+        .tableInput(CfnTable.TableInputProperty.builder()
+            .name(TABLE_NAME)
+            .tableType("EXTERNAL_TABLE")
+            .parameters(tableParameters)
+            .partitionKeys(Arrays.asList(CfnTable.ColumnProperty.builder()
+                .name("day")
+                .type("string")
+                .build()))
+            .storageDescriptor(CfnTable.StorageDescriptorProperty.builder()
+                .columns(columns)
+                .location(logLocation)
+                .inputFormat("org.apache.hadoop.mapred.TextInputFormat")
+                .outputFormat("org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat")
+                .serdeInfo(CfnTable.SerdeInfoProperty.builder()
+                    .serializationLibrary("org.apache.hadoop.hive.serde2.RegexSerDe")
+                    .parameters(Map.of(
+                        "serialization.format", "1",
+                        "input.regex", LOG_REGEX))
+                    .build())
+                .build())
+            .build())
+        .build();
+    table.addDependency(database);
+
+    workGroup = CfnWorkGroup.Builder.create(this, "WorkGroup")
+        .name(config.getResourceName("access-logs"))
+        .description("Latency analysis over load balancer access logs")
+        .recursiveDeleteOption(true)
+        .workGroupConfiguration(CfnWorkGroup.WorkGroupConfigurationProperty.builder()
+            .enforceWorkGroupConfiguration(true)
+            .publishCloudWatchMetricsEnabled(true)
+            // Hard cap so a query missing its day predicate cannot scan everything
+            .bytesScannedCutoffPerQuery(config.getAthenaBytesScannedCutoffMb() * 1024L * 1024L)
+            .resultConfiguration(CfnWorkGroup.ResultConfigurationProperty.builder()
+                .outputLocation(String.format("s3://%s/%s/", bucket.getBucketName(), RESULTS_PREFIX))
+                .encryptionConfiguration(CfnWorkGroup.EncryptionConfigurationProperty.builder()
+                    .encryptionOption("SSE_S3")
+                    .build())
+                .build())
+            .build())
+        .build();
+
+    String from = String.format("\"%s\".\"%s\"", databaseName, TABLE_NAME);
+
+    addNamedQuery("PathLatencyQuery", "per-path-latency",
+        "Per-path p50/p99 target processing time over the last day",
+        "SELECT url_extract_path(request_url) AS path,\n"
+            + "       count(*) AS requests,\n"
+            + "       approx_percentile(target_processing_time, 0.5) AS p50_target_seconds,\n"
+            + "       approx_percentile(target_processing_time, 0.99) AS p99_target_seconds,\n"
+            + "       approx_percentile(request_processing_time + target_processing_time"
+            + " + response_processing_time, 0.99) AS p99_total_seconds\n"
+            + "FROM " + from + "\n"
+            + "WHERE " + LAST_DAY + "\n"
+            // -1 marks requests that never reached a target
+            + "  AND target_processing_time >= 0\n"
+            + "GROUP BY 1\n"
+            + "ORDER BY p99_target_seconds DESC\n"
+            + "LIMIT 50;");
+
+    addNamedQuery("PathErrorRateQuery", "per-path-error-rate",
+        "Per-path load balancer and target 5xx rates over the last day",
+        "SELECT url_extract_path(request_url) AS path,\n"
+            + "       count(*) AS requests,\n"
+            + "       count_if(elb_status_code >= 500) AS elb_5xx,\n"
+            + "       count_if(target_status_code LIKE '5%') AS target_5xx,\n"
+            + "       round(100.0 * count_if(elb_status_code >= 500) / count(*), 3) AS elb_5xx_pct,\n"
+            + "       round(100.0 * count_if(elb_status_code >= 400 AND elb_status_code < 500) / count(*), 3)"
+            + " AS elb_4xx_pct\n"
+            + "FROM " + from + "\n"
+            + "WHERE " + LAST_DAY + "\n"
+            + "GROUP BY 1\n"
+            + "HAVING count(*) >= 100\n"
+            + "ORDER BY elb_5xx_pct DESC\n"
+            + "LIMIT 50;");
+
+    addNamedQuery("HourlyLatencyQuery", "hourly-latency-trend",
+        "Hourly request count and p50/p99 target processing time over the last day",
+        "SELECT date_trunc('hour', from_iso8601_timestamp(time)) AS hour,\n"
+            + "       count(*) AS requests,\n"
+            + "       approx_percentile(target_processing_time, 0.5) AS p50_target_seconds,\n"
+            + "       approx_percentile(target_processing_time, 0.99) AS p99_target_seconds\n"
+            + "FROM " + from + "\n"
+            + "WHERE " + LAST_DAY + "\n"
+            + "  AND target_processing_time >= 0\n"
+            + "GROUP BY 1\n"
+            + "ORDER BY 1;");
+  }
+
+  private void addNamedQuery(String id, String name, String description, String query) {
+    CfnNamedQuery namedQuery = CfnNamedQuery.Builder.create(this, id)
+        .name(name)
+        .description(description)
+        .database(databaseName)
+        .workGroup(workGroup.getName())
+        .queryString(query)
+        .build();
+    namedQuery.addDependency(workGroup);
+  }
+
+  Bucket getBucket() {
+    return bucket;
+  }
+
+  String getDatabaseName() {
+    return databaseName;
+  }
+
+  String getWorkGroupName() {
+    return workGroup.getName();
+  }
+}
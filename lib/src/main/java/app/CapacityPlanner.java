@@ -0,0 +1,412 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Up-front capacity model that turns a target request rate into stack sizing.
+ *
+ * The workload file gives the target RPS, latency SLO, data size and a request
+ * mix; each request class carries its share of traffic, payload sizes and
+ * per-request cost coefficients measured in benchmarks (web CPU ms, DB time
+ * and CPU ms, DB read/write IOPS, egress bytes through NAT).
+ *
+ * <ul>
+ *   <li>Utilization targets come from the SLO: with an M/M/1 approximation
+ *       the response time is {@code S / (1 - rho)}, so {@code rho <= 1 - S / SLO}.</li>
+ *   <li>The web tier runs one instance per AZ and must carry the load with one
+ *       AZ lost; more AZs are added (up to the workload's {@code maxAzs}, the
+ *       AZs the stack can build in the target region) before giving up.</li>
+ *   <li>DB connections follow Little's law (rate x time held) with headroom,
+ *       and the DB class must hold the working set in the buffer pool.</li>
+ * </ul>
+ *
+ * The result is written as a {@link StackConfiguration} override file:
+ *
+ * <pre>
+ * gradle capacityPlan --args="--workload workload.json --out capacity-overrides.json"
+ * </pre>
+ */
+public final class CapacityPlanner {
+  /** AZs an environment-agnostic synth sees; more need the account and region resolved. */
+  static final int DEFAULT_MAX_AZS = 2;
+  static final double WEB_TARGET_UTILIZATION = 0.6;
+  static final double DB_TARGET_UTILIZATION = 0.6;
+  /** Provisioned IOPS over the modelled peak. */
+  static final double IOPS_HEADROOM = 1.3;
+  /** Pool size over the Little's-law concurrency, for bursts and uneven balancing. */
+  static final double CONNECTION_HEADROOM = 1.5;
+  /** Connections kept free for administration, replication and monitoring. */
+  static final int RESERVED_CONNECTIONS = 10;
+  /** RDS MySQL sizes the InnoDB buffer pool at 3/4 of instance memory. */
+  static final double BUFFER_POOL_SHARE = 0.75;
+  /** RDS MySQL default max_connections is DBInstanceClassMemory / 12582880. */
+  static final double BYTES_PER_CONNECTION = 12582880;
+  static final double NAT_BASELINE_GBPS = 5;
+  static final double NAT_MAX_GBPS = 100;
+
+  /** Burstable web types, with sustained vCPU at the baseline credit rate. */
+  private static final List<InstanceSpec> BURSTABLE_WEB = Arrays.asList(
+      new InstanceSpec("t3.medium", 0.4, 4, 0.256),
+      new InstanceSpec("t3.large", 0.6, 8, 0.512));
+
+  /** Sizes for non-burstable families with vCPU count and baseline network Gbps. */
+  private static final List<Object[]> SIZE_LADDER = Arrays.asList(
+      new Object[] {"large", 2, 0.781},
+      new Object[] {"xlarge", 4, 1.562},
+      new Object[] {"2xlarge", 8, 3.125},
+      new Object[] {"4xlarge", 16, 6.25},
+      new Object[] {"8xlarge", 32, 12.5},
+      new Object[] {"12xlarge", 48, 18.75},
+      new Object[] {"16xlarge", 64, 25.0});
+
+  private final Workload workload;
+
+  CapacityPlanner(Workload workload) {
+    this.workload = workload;
+  }
+
+  Plan plan() {
+    Plan plan = new Plan();
+
+    double webServiceMs = workload.weighted(r -> r.webCpuMs);
+    double dbTimeMs = workload.weighted(r -> r.dbTimeMs);
+    double serviceMs = webServiceMs + dbTimeMs;
+    if (serviceMs >= workload.latencySloMs) {
+      throw new IllegalArgumentException(String.format(
+          "Latency SLO %.0f ms is not above the unloaded service time %.1f ms", workload.latencySloMs, serviceMs));
+    }
+    double sloUtilization = 1 - serviceMs / workload.latencySloMs;
+    double webUtilization = Math.min(WEB_TARGET_UTILIZATION, sloUtilization);
+    plan.addFinding("load: %.0f RPS, mean service time %.1f ms (web %.1f, db %.1f) -> utilization cap %.0f%%",
+        workload.targetRps, serviceMs, webServiceMs, dbTimeMs, webUtilization * 100);
+
+    int azs = planWeb(plan, webUtilization);
+    planDatabase(plan, Math.min(DB_TARGET_UTILIZATION, sloUtilization), azs);
+    planNat(plan, azs);
+    return plan;
+  }
+
+  private int planWeb(Plan plan, double utilization) {
+    double cpuDemand = workload.total(r -> r.webCpuMs / 1000);
+    double gbpsDemand = workload.total(r -> (r.requestBytes + r.responseBytes) * 8 / 1e9);
+
+    // Smallest fitting type per AZ count; keep the option with the fewest vCPUs in total
+    InstanceSpec best = null;
+    int bestAzs = 0;
+    for (int azs = Math.max(1, workload.azs); azs <= workload.maxAzs; azs++) {
+      // Survive the loss of one AZ (and its instance)
+      int surviving = surviving(azs);
+      double vcpuPerInstance = cpuDemand / (surviving * utilization);
+      double gbpsPerInstance = gbpsDemand / (surviving * utilization);
+      for (InstanceSpec spec : webCandidates()) {
+        if (spec.vcpu >= vcpuPerInstance && spec.networkGbps >= gbpsPerInstance) {
+          plan.addFinding("web: %.2f vCPU and %.3f Gbps per instance with %d of %d AZs up -> %d x %s",
+              vcpuPerInstance, gbpsPerInstance, surviving, azs, azs, spec.type);
+          if (best == null || spec.vcpu * azs < best.vcpu * bestAzs) {
+            best = spec;
+            bestAzs = azs;
+          }
+          break;
+        }
+      }
+    }
+    if (best == null) {
+      throw new IllegalArgumentException(String.format(
+          "Web demand of %.1f vCPU / %.2f Gbps does not fit %d instances of the largest %s type",
+          cpuDemand, gbpsDemand, workload.maxAzs, workload.webFamily));
+    }
+    plan.overrides.put("maxAzs", bestAzs);
+    plan.overrides.put("webInstanceType", best.type);
+    plan.webInstances = bestAzs;
+    return bestAzs;
+  }
+
+  private void planDatabase(Plan plan, double utilization, int azs) {
+    double cpuDemand = workload.total(r -> r.dbCpuMs / 1000);
+    double vcpuNeeded = cpuDemand / utilization;
+
+    // Little's law: connections busy at once = arrival rate x time each is held
+    double concurrency = workload.total(r -> r.dbTimeMs / 1000);
+    // Each instance's pool must cover the peak alone once an AZ is lost
+    int poolPerInstance = (int) Math.ceil(concurrency * CONNECTION_HEADROOM / surviving(azs));
+    int maxConnections = roundUp(poolPerInstance * azs + RESERVED_CONNECTIONS, 50);
+
+    double memoryNeededGib = Math.max(workload.workingSetGb / BUFFER_POOL_SHARE,
+        maxConnections * BYTES_PER_CONNECTION / (1024.0 * 1024 * 1024));
+
+    InstanceSpec chosen = null;
+    for (InstanceSpec spec : ladder(workload.dbFamily)) {
+      if (spec.vcpu >= vcpuNeeded && spec.memoryGib >= memoryNeededGib) {
+        chosen = spec;
+        break;
+      }
+    }
+    if (chosen == null) {
+      throw new IllegalArgumentException(String.format(
+          "DB demand of %.1f vCPU / %.0f GiB exceeds the largest %s class", vcpuNeeded, memoryNeededGib,
+          workload.dbFamily));
+    }
+    plan.addFinding("db: %.2f vCPU, %.1f GiB memory (working set %.1f GiB) -> %s",
+        vcpuNeeded, memoryNeededGib, workload.workingSetGb, chosen.type);
+    plan.addFinding("db: %.1f connections busy at peak -> max_connections %d, pool of %d per web instance",
+        concurrency, maxConnections, poolPerInstance);
+    plan.overrides.put("dbInstanceType", chosen.type);
+    plan.overrides.put("dbMaxConnections", maxConnections);
+    plan.connectionPoolPerInstance = poolPerInstance;
+
+    planStorage(plan);
+  }
+
+  private void planStorage(Plan plan) {
+    double iops = workload.total(r -> r.dbReadIops + r.dbWriteIops) * IOPS_HEADROOM;
+    int storage = Math.max(RightsizingReport.DB_MIN_ALLOCATED_STORAGE,
+        roundUp((int) Math.ceil(workload.dataSizeGb / RightsizingReport.DB_TARGET_USED_STORAGE_RATIO), 10));
+
+    int provisionedIops = 0;
+    if (iops > RightsizingReport.GP3_BASELINE_IOPS) {
+      int needed = roundUp((int) Math.ceil(iops), 1000);
+      if (needed > RightsizingReport.GP3_MAX_IOPS) {
+        throw new IllegalArgumentException(String.format("%.0f IOPS exceeds the gp3 maximum of %d", iops,
+            RightsizingReport.GP3_MAX_IOPS));
+      }
+      // Above the small-volume baseline only 400 GiB and up will do, and those start at 12000 IOPS
+      storage = Math.max(storage, RightsizingReport.GP3_PROVISIONED_IOPS_MIN_STORAGE);
+      provisionedIops = RightsizingReport.gp3ProvisionedIops(needed);
+      if (provisionedIops > 0) {
+        plan.addFinding("db storage: %.0f IOPS with headroom -> gp3 with %d IOPS, %d GiB", iops, provisionedIops,
+            storage);
+      } else {
+        plan.addFinding("db storage: %.0f IOPS with headroom -> gp3 at %d GiB, whose %d IOPS baseline covers it",
+            iops, storage, RightsizingReport.GP3_LARGE_VOLUME_BASELINE_IOPS);
+      }
+    } else {
+      plan.addFinding("db storage: %.0f IOPS with headroom fits the gp3 baseline -> %d GiB", iops, storage);
+    }
+
+    plan.overrides.put("dbStorageType", "gp3");
+    plan.overrides.put("dbAllocatedStorage", storage);
+    plan.overrides.put("dbMaxAllocatedStorage", storage * 2);
+    if (provisionedIops > 0) {
+      plan.overrides.put("dbIops", provisionedIops);
+    }
+  }
+
+  private void planNat(Plan plan, int azs) {
+    // The stack defaults to one gateway per AZ in use; each carries its own AZ's egress
+    double gbps = workload.total(r -> r.egressBytes * 8 / 1e9) / azs;
+    plan.natHeadroom = 1 - gbps / NAT_MAX_GBPS;
+    plan.addFinding("nat: %.3f Gbps per gateway, %.0f%% headroom to %.0f Gbps%s", gbps, plan.natHeadroom * 100,
+        NAT_MAX_GBPS, gbps > NAT_BASELINE_GBPS ? "; above the 5 Gbps the gateway starts at, expect ramp-up" : "");
+  }
+
+  private List<InstanceSpec> webCandidates() {
+    List<InstanceSpec> candidates = new ArrayList<>(BURSTABLE_WEB);
+    candidates.addAll(ladder(workload.webFamily));
+    return candidates;
+  }
+
+  /** Non-burstable sizes of {@code family}; memory per vCPU follows the family letter (c 2, m 4, r 8 GiB). */
+  static List<InstanceSpec> ladder(String family) {
+    double gibPerVcpu;
+    switch (family.charAt(0)) {
+      case 'c':
+        gibPerVcpu = 2;
+        break;
+      case 'm':
+        gibPerVcpu = 4;
+        break;
+      case 'r':
+        gibPerVcpu = 8;
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported instance family (c, m or r expected): " + family);
+    }
+    List<InstanceSpec> specs = new ArrayList<>();
+    for (Object[] size : SIZE_LADDER) {
+      int vcpu = (Integer) size[1];
+      specs.add(new InstanceSpec(family + "." + size[0], vcpu, vcpu * gibPerVcpu, (Double) size[2]));
+    }
+    return specs;
+  }
+
+  private static int surviving(int azs) {
+    return azs > 1 ? azs - 1 : 1;
+  }
+
+  private static int roundUp(int value, int step) {
+    return (value + step - 1) / step * step;
+  }
+
+  static final class InstanceSpec {
+    final String type;
+    final double vcpu;
+    final double memoryGib;
+    final double networkGbps;
+
+    InstanceSpec(String type, double vcpu, double memoryGib, double networkGbps) {
+      this.type = type;
+      this.vcpu = vcpu;
+      this.memoryGib = memoryGib;
+      this.networkGbps = networkGbps;
+    }
+  }
+
+  /** One request class: share of traffic, payloads and per-request costs. */
+  static final class RequestClass {
+    final String name;
+    final double share;
+    final double requestBytes;
+    final double responseBytes;
+    final double webCpuMs;
+    final double dbTimeMs;
+    final double dbCpuMs;
+    final double dbReadIops;
+    final double dbWriteIops;
+    final double egressBytes;
+
+    RequestClass(JsonNode node) {
+      this.name = node.path("name").asText("unnamed");
+      this.share = node.path("share").asDouble();
+      this.requestBytes = node.path("requestBytes").asDouble(0);
+      this.responseBytes = node.path("responseBytes").asDouble(0);
+      this.webCpuMs = node.path("webCpuMs").asDouble(0);
+      this.dbTimeMs = node.path("dbTimeMs").asDouble(0);
+      this.dbCpuMs = node.path("dbCpuMs").asDouble(0);
+      this.dbReadIops = node.path("dbReadIops").asDouble(0);
+      this.dbWriteIops = node.path("dbWriteIops").asDouble(0);
+      this.egressBytes = node.path("egressBytes").asDouble(0);
+      if (share <= 0 || share > 1) {
+        throw new IllegalArgumentException("Request class " + name + " share must be in (0, 1]: " + share);
+      }
+    }
+  }
+
+  /** Target load and benchmark coefficients, read from the workload JSON file. */
+  static final class Workload {
+    final double targetRps;
+    final double latencySloMs;
+    final int azs;
+    final int maxAzs;
+    final double dataSizeGb;
+    final double workingSetGb;
+    final String webFamily;
+    final String dbFamily;
+    final List<RequestClass> mix = new ArrayList<>();
+
+    Workload(JsonNode node) {
+      this.targetRps = node.path("targetRps").asDouble();
+      this.latencySloMs = node.path("latencySloMs").asDouble();
+      this.azs = node.path("azs").asInt(2);
+      this.maxAzs = node.path("maxAzs").asInt(Math.max(DEFAULT_MAX_AZS, azs));
+      this.dataSizeGb = node.path("dataSizeGb").asDouble(0);
+      this.workingSetGb = node.path("workingSetGb").asDouble(0);
+      this.webFamily = node.path("webFamily").asText("c6i");
+      this.dbFamily = node.path("dbFamily").asText("r6g");
+      for (JsonNode requestClass : node.path("requestMix")) {
+        mix.add(new RequestClass(requestClass));
+      }
+
+      if (targetRps <= 0 || latencySloMs <= 0) {
+        throw new IllegalArgumentException("targetRps and latencySloMs must be positive");
+      }
+      if (azs < 1 || maxAzs < azs) {
+        throw new IllegalArgumentException(String.format("azs (%d) must be at least 1 and not above maxAzs (%d)",
+            azs, maxAzs));
+      }
+      if (mix.isEmpty()) {
+        throw new IllegalArgumentException("requestMix must list at least one request class");
+      }
+      double shares = mix.stream().mapToDouble(r -> r.share).sum();
+      if (Math.abs(shares - 1) > 0.01) {
+        throw new IllegalArgumentException(String.format("requestMix shares must sum to 1: %.3f", shares));
+      }
+    }
+
+    static Workload fromFile(Path path) throws IOException {
+      return new Workload(new ObjectMapper().readTree(Files.readString(path)));
+    }
+
+    /** Per-second total of a per-request quantity across the mix. */
+    double total(ToDoubleFunction<RequestClass> perRequest) {
+      return mix.stream().mapToDouble(r -> targetRps * r.share * perRequest.applyAsDouble(r)).sum();
+    }
+
+    /** Traffic-weighted mean of a per-request quantity. */
+    double weighted(ToDoubleFunction<RequestClass> perRequest) {
+      return mix.stream().mapToDouble(r -> r.share * perRequest.applyAsDouble(r)).sum();
+    }
+  }
+
+  /** Configuration overrides plus the sizing facts and findings behind them. */
+  static final class Plan {
+    private final Map<String, Object> overrides = new LinkedHashMap<>();
+    private final List<String> findings = new ArrayList<>();
+    private int webInstances;
+    private int connectionPoolPerInstance;
+    private double natHeadroom;
+
+    private void addFinding(String format, Object... args) {
+      findings.add(String.format(format, args));
+    }
+
+    Map<String, Object> getOverrides() {
+      return Collections.unmodifiableMap(overrides);
+    }
+
+    List<String> getFindings() {
+      return Collections.unmodifiableList(findings);
+    }
+
+    int getWebInstances() {
+      return webInstances;
+    }
+
+    int getConnectionPoolPerInstance() {
+      return connectionPoolPerInstance;
+    }
+
+    double getNatHeadroom() {
+      return natHeadroom;
+    }
+
+    String toJson() throws IOException {
+      return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(overrides);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length % 2 != 0) {
+      throw new IllegalArgumentException("Usage: CapacityPlanner --workload FILE [--out FILE]");
+    }
+    Map<String, String> options = new LinkedHashMap<>();
+    for (int i = 0; i < args.length; i += 2) {
+      if (!Arrays.asList("--workload", "--out").contains(args[i])) {
+        throw new IllegalArgumentException("Usage: CapacityPlanner --workload FILE [--out FILE]");
+      }
+      options.put(args[i].substring(2), args[i + 1]);
+    }
+    if (!options.containsKey("workload")) {
+      throw new IllegalArgumentException("Usage: CapacityPlanner --workload FILE [--out FILE]");
+    }
+    Path overrideFile = Path.of(options.getOrDefault("out", "capacity-overrides.json"));
+
+    Plan plan = new CapacityPlanner(Workload.fromFile(Path.of(options.get("workload")))).plan();
+
+    plan.getFindings().forEach(System.out::println);
+    Files.writeString(overrideFile, plan.toJson());
+    System.out.println("Wrote " + overrideFile + "; apply with CONFIG_OVERRIDE_FILE=" + overrideFile);
+  }
+}
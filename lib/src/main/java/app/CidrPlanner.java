@@ -0,0 +1,150 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synth-time IPv4 address planner for the VPC subnet tiers.
+ *
+ * Allocates one subnet per tier per AZ in the same order and with the same
+ * alignment as the CDK VPC construct (each block starts at the next address
+ * that is a multiple of its own size), so the planned CIDRs match what will be
+ * synthesized. {@link #plan(int)} fails fast with a readable message when the
+ * tiers do not fit in the VPC block, instead of a late CloudFormation error.
+ */
+final class CidrPlanner {
+  static final int MIN_SUBNET_MASK = 16;
+  static final int MAX_SUBNET_MASK = 28;
+
+  private final String vpcCidr;
+  private final long networkAddress;
+  private final int vpcMask;
+  private final List<Tier> tiers = new ArrayList<>();
+
+  CidrPlanner(String vpcCidr) {
+    this.vpcCidr = vpcCidr;
+    String[] parts = vpcCidr.split("/");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("VPC CIDR must be in a.b.c.d/n form: " + vpcCidr);
+    }
+    this.vpcMask = Integer.parseInt(parts[1]);
+    if (vpcMask < MIN_SUBNET_MASK || vpcMask > MAX_SUBNET_MASK) {
+      throw new IllegalArgumentException("VPC CIDR mask must be between /16 and /28: " + vpcCidr);
+    }
+    long address = parseIpv4(parts[0]);
+    if ((address & (blockSize(vpcMask) - 1)) != 0) {
+      throw new IllegalArgumentException("VPC CIDR is not aligned to its mask: " + vpcCidr);
+    }
+    this.networkAddress = address;
+  }
+
+  /** Adds a tier that receives one subnet of the given mask in every AZ. */
+  CidrPlanner addTier(String name, int cidrMask) {
+    if (cidrMask < Math.max(MIN_SUBNET_MASK, vpcMask) || cidrMask > MAX_SUBNET_MASK) {
+      throw new IllegalArgumentException(String.format(
+          "Subnet mask /%d for tier '%s' must be between /%d and /%d",
+          cidrMask, name, Math.max(MIN_SUBNET_MASK, vpcMask), MAX_SUBNET_MASK));
+    }
+    tiers.add(new Tier(name, cidrMask));
+    return this;
+  }
+
+  /**
+   * Allocates every tier across {@code azCount} AZs.
+   *
+   * @throws IllegalArgumentException if the plan does not fit in the VPC block
+   */
+  List<PlannedSubnet> plan(int azCount) {
+    if (azCount < 1) {
+      throw new IllegalArgumentException("AZ count must be at least 1: " + azCount);
+    }
+
+    long end = networkAddress + blockSize(vpcMask);
+    long next = networkAddress;
+    List<PlannedSubnet> planned = new ArrayList<>();
+    for (Tier tier : tiers) {
+      long size = blockSize(tier.mask);
+      for (int az = 0; az < azCount; az++) {
+        long start = alignUp(next, size);
+        if (start + size > end) {
+          throw new IllegalArgumentException(String.format(
+              "Subnet plan does not fit in %s: tier '%s' (/%d) in AZ %d needs %s, %d of %d addresses already used",
+              vpcCidr, tier.name, tier.mask, az + 1, formatCidr(start, tier.mask),
+              start - networkAddress, blockSize(vpcMask)));
+        }
+        planned.add(new PlannedSubnet(tier.name, az, formatCidr(start, tier.mask)));
+        next = start + size;
+      }
+    }
+    return planned;
+  }
+
+  private static long blockSize(int mask) {
+    return 1L << (32 - mask);
+  }
+
+  private static long alignUp(long address, long size) {
+    return (address + size - 1) / size * size;
+  }
+
+  private static long parseIpv4(String ip) {
+    String[] octets = ip.split("\\.");
+    if (octets.length != 4) {
+      throw new IllegalArgumentException("Invalid IPv4 address: " + ip);
+    }
+    long value = 0;
+    for (String octet : octets) {
+      int v = Integer.parseInt(octet);
+      if (v < 0 || v > 255) {
+        throw new IllegalArgumentException("Invalid IPv4 address: " + ip);
+      }
+      value = (value << 8) | v;
+    }
+    return value;
+  }
+
+  private static String formatCidr(long address, int mask) {
+    return String.format("%d.%d.%d.%d/%d",
+        (address >> 24) & 0xff, (address >> 16) & 0xff, (address >> 8) & 0xff, address & 0xff, mask);
+  }
+
+  private static final class Tier {
+    private final String name;
+    private final int mask;
+
+    private Tier(String name, int mask) {
+      this.name = name;
+      this.mask = mask;
+    }
+  }
+
+  /** One planned subnet: tier name, zero-based AZ index and CIDR. */
+  static final class PlannedSubnet {
+    private final String tier;
+    private final int azIndex;
+    private final String cidr;
+
+    PlannedSubnet(String tier, int azIndex, String cidr) {
+      this.tier = tier;
+      this.azIndex = azIndex;
+      this.cidr = cidr;
+    }
+
+    String getTier() {
+      return tier;
+    }
+
+    int getAzIndex() {
+      return azIndex;
+    }
+
+    String getCidr() {
+      return cidr;
+    }
+
+    @Override
+    public String toString() {
+      return tier + "[" + azIndex + "]=" + cidr;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package app;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.Metric;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataQuery;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataResult;
+import software.amazon.awssdk.services.cloudwatch.model.MetricStat;
+import software.amazon.awssdk.services.cloudwatch.model.ScanBy;
+
+/**
+ * {@link MetricSource} backed by CloudWatch GetMetricData, fetching up to
+ * {@value #MAX_QUERIES_PER_REQUEST} series per request instead of one
+ * GetMetricStatistics call per metric.
+ */
+final class CloudWatchMetricSource implements MetricSource {
+  static final int MAX_QUERIES_PER_REQUEST = 500;
+
+  private final CloudWatchClient cloudWatch;
+
+  CloudWatchMetricSource(CloudWatchClient cloudWatch) {
+    this.cloudWatch = cloudWatch;
+  }
+
+  @Override
+  public Map<String, List<Double>> fetch(List<Query> queries, Instant start, Instant end) {
+    Map<String, List<Double>> values = new LinkedHashMap<>();
+    for (Query query : queries) {
+      values.put(query.getId(), new ArrayList<>());
+    }
+
+    for (int from = 0; from < queries.size(); from += MAX_QUERIES_PER_REQUEST) {
+      List<MetricDataQuery> batch = new ArrayList<>();
+      for (Query query : queries.subList(from, Math.min(from + MAX_QUERIES_PER_REQUEST, queries.size()))) {
+        batch.add(toMetricDataQuery(query));
+      }
+
+      GetMetricDataRequest request = GetMetricDataRequest.builder()
+          .metricDataQueries(batch)
+          .startTime(start)
+          .endTime(end)
+          .scanBy(ScanBy.TIMESTAMP_ASCENDING)
+          .build();
+      // The paginator follows NextToken when a series exceeds one response
+      for (GetMetricDataResponse response : cloudWatch.getMetricDataPaginator(request)) {
+        for (MetricDataResult result : response.metricDataResults()) {
+          values.get(result.id()).addAll(result.values());
+        }
+      }
+    }
+    return values;
+  }
+
+  private static MetricDataQuery toMetricDataQuery(Query query) {
+    return MetricDataQuery.builder()
+        .id(query.getId())
+        .returnData(true)
+        .metricStat(MetricStat.builder()
+            .metric(Metric.builder()
+                .namespace(query.getNamespace())
+                .metricName(query.getMetricName())
+                .dimensions(Dimension.builder()
+                    .name(query.getDimensionName())
+                    .value(query.getDimensionValue())
+                    .build())
+                .build())
+            .stat(query.getStatistic())
+            .period(query.getPeriodSeconds())
+            .build())
+        .build();
+  }
+}
@@ -0,0 +1,222 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.cloudwatch.IAlarm;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.SubnetType;
+import software.amazon.awscdk.services.rds.Credentials;
+import software.amazon.awscdk.services.rds.DatabaseInstance;
+import software.amazon.awscdk.services.rds.DatabaseInstanceEngine;
+import software.amazon.awscdk.services.rds.IInstanceEngine;
+import software.amazon.awscdk.services.rds.MySqlInstanceEngineProps;
+import software.amazon.awscdk.services.rds.MysqlEngineVersion;
+import software.amazon.awscdk.services.rds.NetworkType;
+import software.amazon.awscdk.services.rds.ParameterGroup;
+import software.amazon.awscdk.services.rds.StorageType;
+import software.amazon.awscdk.services.rds.SubnetGroup;
+
+/**
+ * Data tier: the multi-AZ MySQL instance, its fast-detection alarms and the
+ * optional session store. Depends only on the {@link NetworkTier}; like it,
+ * resources are created directly in the given stack.
+ */
+class DataTier {
+  private final Stack scope;
+  private final StackConfiguration config;
+  private final NetworkTier network;
+  private final Map<String, Object> manifestSections = new LinkedHashMap<>();
+  private final DatabaseInstance database;
+  private final List<IAlarm> alarms = new ArrayList<>();
+  private final List<String> alarmNames = new ArrayList<>();
+
+  DataTier(Stack scope, StackConfiguration config, NetworkTier network, KmsKeys kmsKeys) {
+    this.scope = scope;
+    this.config = config;
+    this.network = network;
+
+    // Create RDS instance with multi-AZ and encryption
+    this.database = createRdsInstance(kmsKeys);
+
+    if (config.isFastDetection()) {
+      alarms.add(FastDetectionAlarms.forStack(scope, config, network.getAlertTopic()).addDataTier(database));
+      alarmNames.add(FastDetectionAlarms.tierAlarmName(config, "data"));
+    }
+
+    // Optional DynamoDB session store to keep session reads off MySQL
+    if (config.isSessionStoreEnabled()) {
+      createSessionStore(kmsKeys);
+    }
+  }
+
+  DatabaseInstance getDatabase() {
+    return database;
+  }
+
+  /** The tier's alerting alarms; only the fast detection mode alarms on the database. */
+  List<IAlarm> getAlarms() {
+    return alarms;
+  }
+
+  /** Names of {@link #getAlarms()}, for ARNs built without importing from this tier's stack. */
+  List<String> getAlarmNames() {
+    return alarmNames;
+  }
+
+  /** The RDS instance identifier, known before deploy. */
+  String getDatabaseIdentifier() {
+    return getResourceName("mysql-db-2");
+  }
+
+  /** Optional endpoint manifest sections contributed by this tier, keyed by section name. */
+  Map<String, Object> getManifestSections() {
+    return manifestSections;
+  }
+
+  private DatabaseInstance createRdsInstance(KmsKeys kmsKeys) {
+    // Fail synth early if the class or version cannot run Optimized Reads/Writes
+    RdsOptimizations.validate(config.getDbInstanceType(), config.getDbEngineVersion(),
+        config.isDbOptimizedReads(), config.isDbOptimizedWrites());
+    IInstanceEngine engine = DatabaseInstanceEngine.mysql(MySqlInstanceEngineProps.builder()
+        .version("8.0".equals(config.getDbEngineVersion())
+            ? MysqlEngineVersion.VER_8_0
+            : MysqlEngineVersion.of(config.getDbEngineVersion(), "8.0"))
+        .build());
+
+    // Create subnet group for RDS
+    SubnetGroup subnetGroup = SubnetGroup.Builder.create(scope, getResourceName("rds-subnet-group"))
+        .subnetGroupName(getResourceName("rds-subnets"))
+        .description("Subnet group for RDS instances")
+        .vpc(network.getVpc())
+        .vpcSubnets(config.getDatabaseSubnetMask() > 0
+            ? SubnetSelection.builder()
+                .subnetGroupName(getResourceName("database-subnet"))
+                .build()
+            : SubnetSelection.builder()
+                .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+                .build())
+        .build();
+
+    Map<String, String> parameters = RdsOptimizations.parameters(config.isDbOptimizedWrites());
+    if (config.getDbMaxConnections() > 0) {
+      parameters.put("max_connections", String.valueOf(config.getDbMaxConnections()));
+    }
+
+    // Create parameter group
+    ParameterGroup parameterGroup = ParameterGroup.Builder.create(scope, getResourceName("rds-params"))
+        .engine(engine)
+        .description("Custom parameter group for MySQL")
+        .parameters(parameters)
+        .build();
+
+    // Create RDS instance
+    return DatabaseInstance.Builder.create(scope, getResourceName("rds-instance"))
+        .instanceIdentifier(getDatabaseIdentifier())
+        .engine(engine)
+        .instanceType(new InstanceType(config.getDbInstanceType()))
+        .vpc(network.getVpc())
+        .subnetGroup(subnetGroup)
+        .securityGroups(Arrays.asList(network.getRdsSecurityGroup()))
+        .networkType(config.isIpv6Enabled() ? NetworkType.DUAL : null)
+        .multiAz(true) // Multi-AZ deployment
+        .storageEncrypted(true) // Encrypted storage
+        .storageEncryptionKey(kmsKeys.forService("data", "rds"))
+        .parameterGroup(parameterGroup)
+        .allocatedStorage(config.getDbAllocatedStorage())
+        .maxAllocatedStorage(config.getDbMaxAllocatedStorage() > 0 ? config.getDbMaxAllocatedStorage() : null)
+        .storageType(StorageType.valueOf(config.getDbStorageType().toUpperCase()))
+        .iops(config.getDbIops() > 0 ? config.getDbIops() : null)
+        .backupRetention(Duration.days(7))
+        // Snapshot I/O freezes and patching stay out of peak hours
+        .preferredBackupWindow(config.getDbBackupWindow())
+        .preferredMaintenanceWindow(config.getDbMaintenanceWindow())
+        .deletionProtection(true)
+        .databaseName("webapp")
+        .credentials(Credentials.fromGeneratedSecret("admin"))
+        // Enhanced Monitoring at its finest granularity in fast detection mode
+        .monitoringInterval(config.isFastDetection() ? Duration.seconds(1) : Duration.minutes(1))
+        // Remove Performance Insights as it's not supported on t3.micro
+        .build();
+  }
+
+  private void createSessionStore(KmsKeys kmsKeys) {
+    SessionStore sessionStore = new SessionStore(scope, getResourceName("session-store"), config,
+        network.getVpc(), network.getWebSecurityGroup(), kmsKeys.forService("data", "dynamodb"),
+        network.ec2RoleFor(scope));
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("tableName", sessionStore.getTable().getTableName());
+    section.put("partitionKey", SessionStore.PARTITION_KEY);
+    section.put("ttlAttribute", SessionStore.TTL_ATTRIBUTE);
+
+    CfnOutput.Builder.create(scope, "SessionTableName")
+        .description("DynamoDB session table name")
+        .value(sessionStore.getTable().getTableName())
+        .exportName(getResourceName("session-table-name"))
+        .build();
+
+    if (sessionStore.getDaxEndpoint() != null) {
+      section.put("daxEndpoint", sessionStore.getDaxEndpoint());
+
+      CfnOutput.Builder.create(scope, "SessionDaxEndpoint")
+          .description("DAX discovery endpoint for the session table")
+          .value(sessionStore.getDaxEndpoint())
+          .exportName(getResourceName("session-dax-endpoint"))
+          .build();
+    }
+
+    manifestSections.put("sessionStore", section);
+  }
+
+  void addOutputs() {
+    // RDS outputs
+    CfnOutput.Builder.create(scope, "RdsInstanceId")
+        .description("RDS instance identifier")
+        .value(database.getInstanceIdentifier())
+        .exportName(getResourceName("rds-instance-id"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "RdsEndpoint")
+        .description("RDS instance endpoint")
+        .value(database.getInstanceEndpoint().getHostname())
+        .exportName(getResourceName("rds-endpoint"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "RdsPort")
+        .description("RDS instance port")
+        .value(database.getInstanceEndpoint().getPort().toString())
+        .exportName(getResourceName("rds-port"))
+        .build();
+
+    // Current sizing, read back by RightsizingReport
+    CfnOutput.Builder.create(scope, "DbInstanceType")
+        .description("RDS instance type (without the db. prefix)")
+        .value(config.getDbInstanceType())
+        .exportName(getResourceName("db-instance-type"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "DbAllocatedStorage")
+        .description("RDS allocated storage in GiB")
+        .value(String.valueOf(config.getDbAllocatedStorage()))
+        .exportName(getResourceName("db-allocated-storage"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "DbStorageType")
+        .description("RDS storage type")
+        .value(config.getDbStorageType())
+        .exportName(getResourceName("db-storage-type"))
+        .build();
+  }
+
+  private String getResourceName(String resource) {
+    return config.getResourceName(resource);
+  }
+}
@@ -0,0 +1,236 @@
+package app;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+
+/**
+ * Reads the endpoint manifest published by {@link TapStack} to SSM Parameter
+ * Store and caches it for a configurable TTL. The split layout publishes one
+ * parameter per tier under the manifest path; {@link #fromSsmPath} merges them
+ * back into the single-layout document.
+ *
+ * App nodes fetch the whole manifest in one call at startup instead of
+ * resolving each CloudFormation export separately. After the TTL expires the
+ * next {@link #get()} refreshes it; if the refresh fails, the last good copy
+ * is served until a later refresh succeeds.
+ */
+public final class EndpointManifestReader {
+  /** Manifest schema version written by the stack and accepted by this reader. */
+  public static final int SCHEMA_VERSION = 1;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Supplier<String> source;
+  private final Duration ttl;
+  private final Clock clock;
+
+  private EndpointManifest cached;
+  private Instant nextRefresh = Instant.MIN;
+
+  EndpointManifestReader(Supplier<String> source, Duration ttl, Clock clock) {
+    this.source = Objects.requireNonNull(source, "source");
+    this.ttl = Objects.requireNonNull(ttl, "ttl");
+    this.clock = Objects.requireNonNull(clock, "clock");
+  }
+
+  /**
+   * Creates a reader backed by an SSM parameter.
+   *
+   * @param ssm           client used for {@code GetParameter}
+   * @param parameterName manifest parameter name (see the
+   *                      {@code EndpointManifestParameter} stack output)
+   * @param ttl           how long a fetched manifest is considered fresh
+   */
+  public static EndpointManifestReader fromSsm(SsmClient ssm, String parameterName, Duration ttl) {
+    Objects.requireNonNull(ssm, "ssm");
+    Objects.requireNonNull(parameterName, "parameterName");
+    return new EndpointManifestReader(
+        () -> ssm.getParameter(r -> r.name(parameterName)).parameter().value(),
+        ttl,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Creates a reader backed by the per-tier parameters of the split layout.
+   *
+   * @param ssm  client used for {@code GetParametersByPath}
+   * @param path manifest path (see the {@code EndpointManifestPath} stack
+   *             output); every parameter directly below it is merged
+   * @param ttl  how long a fetched manifest is considered fresh
+   */
+  public static EndpointManifestReader fromSsmPath(SsmClient ssm, String path, Duration ttl) {
+    Objects.requireNonNull(ssm, "ssm");
+    Objects.requireNonNull(path, "path");
+    return new EndpointManifestReader(
+        () -> merge(ssm.getParametersByPathPaginator(r -> r.path(path)).parameters().stream()
+            .map(Parameter::value)
+            .collect(Collectors.toList())),
+        ttl,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Returns the cached manifest, refreshing it first if the TTL has expired.
+   *
+   * @throws IllegalStateException if no manifest has ever been loaded and the
+   *                               fetch fails
+   */
+  public synchronized EndpointManifest get() {
+    Instant now = clock.instant();
+    if (cached != null && now.isBefore(nextRefresh)) {
+      return cached;
+    }
+
+    try {
+      cached = parse(source.get());
+    } catch (RuntimeException e) {
+      if (cached == null) {
+        throw new IllegalStateException("Failed to load endpoint manifest", e);
+      }
+      // Keep serving the last good manifest; try again after another TTL
+    }
+    nextRefresh = now.plus(ttl);
+    return cached;
+  }
+
+  /** Forces the next {@link #get()} to fetch a fresh copy. */
+  public synchronized void invalidate() {
+    nextRefresh = Instant.MIN;
+  }
+
+  static EndpointManifest parse(String json) {
+    JsonNode root;
+    try {
+      root = MAPPER.readTree(json);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Endpoint manifest is not valid JSON", e);
+    }
+    if (root == null || !root.isObject()) {
+      throw new IllegalArgumentException("Endpoint manifest must be a JSON object");
+    }
+
+    int version = root.path("schemaVersion").asInt(-1);
+    if (version != SCHEMA_VERSION) {
+      throw new IllegalArgumentException("Unsupported endpoint manifest schemaVersion: " + version);
+    }
+    return new EndpointManifest(root);
+  }
+
+  /**
+   * Merges per-tier manifest documents into one. Objects present in several
+   * tiers, such as {@code kmsKeyArns}, are merged field by field.
+   */
+  static String merge(List<String> parts) {
+    if (parts.isEmpty()) {
+      throw new IllegalArgumentException("No endpoint manifest parameters found");
+    }
+    ObjectNode merged = MAPPER.createObjectNode();
+    for (String part : parts) {
+      JsonNode node;
+      try {
+        node = MAPPER.readTree(part);
+      } catch (Exception e) {
+        throw new IllegalArgumentException("Endpoint manifest is not valid JSON", e);
+      }
+      if (node == null || !node.isObject()) {
+        throw new IllegalArgumentException("Endpoint manifest must be a JSON object");
+      }
+      mergeInto(merged, (ObjectNode) node);
+    }
+    return merged.toString();
+  }
+
+  private static void mergeInto(ObjectNode target, ObjectNode source) {
+    Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode existing = target.get(field.getKey());
+      if (existing != null && existing.isObject() && field.getValue().isObject()) {
+        mergeInto((ObjectNode) existing, (ObjectNode) field.getValue());
+      } else {
+        target.set(field.getKey(), field.getValue());
+      }
+    }
+  }
+
+  /** Typed view over the manifest JSON. */
+  public static final class EndpointManifest {
+    private final JsonNode root;
+
+    private EndpointManifest(JsonNode root) {
+      this.root = root;
+    }
+
+    public int getSchemaVersion() {
+      return root.path("schemaVersion").asInt();
+    }
+
+    public String getRegion() {
+      return root.path("region").asText(null);
+    }
+
+    public String getVpcId() {
+      return root.path("network").path("vpcId").asText(null);
+    }
+
+    public List<String> getPrivateSubnetIds() {
+      return textList(root.path("network").path("privateSubnetIds"));
+    }
+
+    public List<String> getWebInstanceIds() {
+      List<String> ids = new ArrayList<>();
+      for (JsonNode instance : root.path("web").path("instances")) {
+        ids.add(instance.path("id").asText());
+      }
+      return ids;
+    }
+
+    public List<String> getWebInstancePrivateIps() {
+      List<String> ips = new ArrayList<>();
+      for (JsonNode instance : root.path("web").path("instances")) {
+        ips.add(instance.path("privateIp").asText());
+      }
+      return ips;
+    }
+
+    public String getDatabaseEndpoint() {
+      return root.path("database").path("endpoint").asText(null);
+    }
+
+    public int getDatabasePort() {
+      return root.path("database").path("port").asInt();
+    }
+
+    public String getAlertTopicArn() {
+      return root.path("alertTopicArn").asText(null);
+    }
+
+    /** Raw JSON for fields without a typed accessor. */
+    public JsonNode getRaw() {
+      return root;
+    }
+
+    private static List<String> textList(JsonNode node) {
+      List<String> values = new ArrayList<>();
+      for (JsonNode item : node) {
+        values.add(item.asText());
+      }
+      return values;
+    }
+  }
+}
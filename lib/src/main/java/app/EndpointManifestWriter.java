@@ -0,0 +1,200 @@
+package app;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.amazon.awscdk.Fn;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.Token;
+import software.amazon.awscdk.services.ec2.ISubnet;
+import software.amazon.awscdk.services.ec2.Instance;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.rds.DatabaseInstance;
+import software.amazon.awscdk.services.ssm.ParameterTier;
+import software.amazon.awscdk.services.ssm.StringParameter;
+
+/**
+ * Publishes the versioned JSON endpoint manifest read by
+ * {@link EndpointManifestReader}. The single layout writes one parameter. In
+ * the split layout each tier stack writes its own sections under the manifest
+ * path, so no stack imports another tier's instance IDs or endpoints and
+ * replacing an instance never trips an export that is still in use.
+ *
+ * Standard-tier parameters hold 4 KB. Most values are only known at deploy
+ * time, so the size is estimated at synth with each of them at
+ * {@link #UNRESOLVED_VALUE_LENGTH} characters, and a manifest that may not fit
+ * goes to the Advanced tier (8 KB) instead of failing the deployment.
+ */
+final class EndpointManifestWriter {
+  static final int STANDARD_TIER_MAX_BYTES = 4096;
+
+  /** Upper bound for a deploy-time value: IDs, ARNs, names and endpoints. */
+  static final int UNRESOLVED_VALUE_LENGTH = 128;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private EndpointManifestWriter() {
+  }
+
+  static StringParameter publish(Stack scope, StackConfiguration config, NetworkTier network, WebTier web,
+      DataTier data, List<KmsKeys> kmsKeys) {
+    Map<String, Object> manifest = header(scope, config);
+    manifest.put("network", networkSection(config, network.getVpc()));
+    manifest.put("web", webSection(web));
+    manifest.put("database", databaseSection(data));
+    manifest.putAll(web.getManifestSections());
+    manifest.putAll(data.getManifestSections());
+    manifest.put("alertTopicArn", network.getAlertTopic().getTopicArn());
+    manifest.put("kmsKeyArn", network.getKmsKey().getKeyArn());
+    putKeyArns(manifest, kmsKeys);
+
+    return parameter(scope, config.getResourceName("endpoint-manifest"), config.getEndpointManifestParameterName(),
+        "Versioned JSON manifest of stack endpoints for app nodes", manifest);
+  }
+
+  /** Network sections, the alert topic and the shared key, in the network stack. */
+  static StringParameter publishNetwork(Stack scope, StackConfiguration config, NetworkTier network) {
+    Map<String, Object> manifest = header(scope, config);
+    manifest.put("network", networkSection(config, network.getVpc()));
+    manifest.put("alertTopicArn", network.getAlertTopic().getTopicArn());
+    manifest.put("kmsKeyArn", network.getKmsKey().getKeyArn());
+    putKeyArns(manifest, List.of(network.getKmsKeys()));
+    return tierParameter(scope, config, "network", manifest);
+  }
+
+  /** Web instances and the web tier's feature sections, in the web stack. */
+  static StringParameter publishWeb(Stack scope, StackConfiguration config, WebTier web, KmsKeys webKeys) {
+    Map<String, Object> manifest = header(scope, config);
+    manifest.put("web", webSection(web));
+    manifest.putAll(web.getManifestSections());
+    putKeyArns(manifest, List.of(webKeys));
+    return tierParameter(scope, config, "web", manifest);
+  }
+
+  /** Database endpoint and the data tier's feature sections, in the data stack. */
+  static StringParameter publishData(Stack scope, StackConfiguration config, DataTier data, KmsKeys dataKeys) {
+    Map<String, Object> manifest = header(scope, config);
+    manifest.put("database", databaseSection(data));
+    manifest.putAll(data.getManifestSections());
+    putKeyArns(manifest, List.of(dataKeys));
+    return tierParameter(scope, config, "data", manifest);
+  }
+
+  private static StringParameter tierParameter(Stack scope, StackConfiguration config, String tier,
+      Map<String, Object> manifest) {
+    return parameter(scope, config.getResourceName("endpoint-manifest-" + tier),
+        config.getEndpointManifestParameterName() + "/" + tier,
+        "Versioned JSON manifest of " + tier + " tier endpoints for app nodes", manifest);
+  }
+
+  private static StringParameter parameter(Stack scope, String id, String name, String description,
+      Map<String, Object> manifest) {
+    return StringParameter.Builder.create(scope, id)
+        .parameterName(name)
+        .description(description)
+        .stringValue(scope.toJsonString(manifest))
+        .tier(estimatedSize(manifest) > STANDARD_TIER_MAX_BYTES ? ParameterTier.ADVANCED : null)
+        .build();
+  }
+
+  /** Rendered length of the manifest with every unresolved value at its upper bound. */
+  static int estimatedSize(Map<String, Object> manifest) {
+    try {
+      return MAPPER.writeValueAsString(withPlaceholders(manifest)).length();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Object withPlaceholders(Object value) {
+    if (value instanceof String && Token.isUnresolved((String) value)) {
+      return "x".repeat(UNRESOLVED_VALUE_LENGTH);
+    }
+    if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, withPlaceholders(v)));
+      return copy;
+    }
+    if (value instanceof List) {
+      return ((List<?>) value).stream().map(EndpointManifestWriter::withPlaceholders).collect(Collectors.toList());
+    }
+    return value;
+  }
+
+  private static Map<String, Object> header(Stack scope, StackConfiguration config) {
+    Map<String, Object> manifest = new LinkedHashMap<>();
+    manifest.put("schemaVersion", EndpointManifestReader.SCHEMA_VERSION);
+    manifest.put("project", config.getProjectName());
+    manifest.put("environment", config.getEnvironment());
+    manifest.put("region", scope.getRegion());
+    return manifest;
+  }
+
+  private static Map<String, Object> networkSection(StackConfiguration config, Vpc vpc) {
+    Map<String, Object> networkSection = new LinkedHashMap<>();
+    networkSection.put("vpcId", vpc.getVpcId());
+    networkSection.put("vpcCidr", vpc.getVpcCidrBlock());
+    if (config.isIpv6Enabled()) {
+      networkSection.put("vpcIpv6Cidr", Fn.select(0, vpc.getVpcIpv6CidrBlocks()));
+    }
+    networkSection.put("privateSubnetIds", vpc.getPrivateSubnets().stream()
+        .map(ISubnet::getSubnetId)
+        .collect(Collectors.toList()));
+    networkSection.put("publicSubnetIds", vpc.getPublicSubnets().stream()
+        .map(ISubnet::getSubnetId)
+        .collect(Collectors.toList()));
+    if (config.getDatabaseSubnetMask() > 0) {
+      networkSection.put("databaseSubnetIds", vpc.selectSubnets(SubnetSelection.builder()
+          .subnetGroupName(config.getResourceName("database-subnet"))
+          .build()).getSubnetIds());
+    }
+    if (config.getCacheSubnetMask() > 0) {
+      networkSection.put("cacheSubnetIds", vpc.selectSubnets(SubnetSelection.builder()
+          .subnetGroupName(config.getResourceName("cache-subnet"))
+          .build()).getSubnetIds());
+    }
+    return networkSection;
+  }
+
+  private static Map<String, Object> webSection(WebTier web) {
+    List<Map<String, Object>> instances = new ArrayList<>();
+    for (Instance instance : web.getInstances()) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("id", instance.getInstanceId());
+      entry.put("privateIp", instance.getInstancePrivateIp());
+      entry.put("availabilityZone", instance.getInstanceAvailabilityZone());
+      instances.add(entry);
+    }
+    return Map.of("instances", instances);
+  }
+
+  private static Map<String, Object> databaseSection(DataTier data) {
+    DatabaseInstance rdsInstance = data.getDatabase();
+    Map<String, Object> database = new LinkedHashMap<>();
+    database.put("instanceId", rdsInstance.getInstanceIdentifier());
+    database.put("endpoint", rdsInstance.getInstanceEndpoint().getHostname());
+    database.put("port", rdsInstance.getDbInstanceEndpointPort());
+    return database;
+  }
+
+  private static void putKeyArns(Map<String, Object> manifest, List<KmsKeys> kmsKeys) {
+    Map<String, Object> keyArns = new LinkedHashMap<>();
+    for (KmsKeys keys : kmsKeys) {
+      for (Map.Entry<String, Key> key : keys.getSeparatedKeys().entrySet()) {
+        keyArns.put(key.getKey(), key.getValue().getKeyArn());
+      }
+    }
+    if (!keyArns.isEmpty()) {
+      manifest.put("kmsKeyArns", keyArns);
+    }
+  }
+}
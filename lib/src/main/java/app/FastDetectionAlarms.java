@@ -0,0 +1,178 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.AlarmRule;
+import software.amazon.awscdk.services.cloudwatch.AlarmState;
+import software.amazon.awscdk.services.cloudwatch.CfnAlarm;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.CompositeAlarm;
+import software.amazon.awscdk.services.cloudwatch.IAlarm;
+import software.amazon.awscdk.services.cloudwatch.IAlarmRule;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
+import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
+import software.amazon.awscdk.services.ec2.Instance;
+import software.amazon.awscdk.services.ecs.FargateService;
+import software.amazon.awscdk.services.rds.DatabaseInstance;
+import software.amazon.awscdk.services.sns.Topic;
+import software.constructs.Construct;
+import software.constructs.IConstruct;
+
+/**
+ * Alarms for the "fast" detection mode.
+ *
+ * Signals are evaluated on 1-minute datapoints (the finest resolution EC2,
+ * RDS and ALB publish) against anomaly-detection bands rather than static
+ * thresholds, and need 3 of 3 breaching minutes, so paging starts about three
+ * minutes into an incident. Gaps are treated as missing, not breaching.
+ * Per-signal alarms have no actions; one composite alarm per tier pages the
+ * alert topic, so an incident that trips several signals produces one page.
+ */
+class FastDetectionAlarms extends Construct {
+  static final int PERIOD_SECONDS = 60;
+  static final int EVALUATION_PERIODS = 3;
+
+  private final StackConfiguration config;
+  private final SnsAction alertAction;
+
+  FastDetectionAlarms(Construct scope, String id, StackConfiguration config, Topic alertTopic) {
+    super(scope, id);
+    this.config = config;
+    this.alertAction = new SnsAction(alertTopic);
+  }
+
+  /** The stack's fast-detection alarms, created on first use so tiers sharing a stack share one construct. */
+  static FastDetectionAlarms forStack(Stack stack, StackConfiguration config, Topic alertTopic) {
+    String id = config.getResourceName("fast-detection");
+    IConstruct existing = stack.getNode().tryFindChild(id);
+    return existing != null ? (FastDetectionAlarms) existing : new FastDetectionAlarms(stack, id, config, alertTopic);
+  }
+
+  /**
+   * Web tier: per-instance or Fargate service CPU bands, plus latency and unhealthy hosts when fronted by the ALB.
+   *
+   * @param service the Fargate web service, or null in EC2 compute mode
+   * @return the tier's composite alarm
+   */
+  IAlarm addWebTier(List<Instance> instances, FargateService service, WebLoadBalancer loadBalancer) {
+    List<IAlarm> signals = new ArrayList<>();
+    for (int i = 0; i < instances.size(); i++) {
+      signals.add(anomalyAlarm("WebCpu" + (i + 1), "web-cpu-anomaly-" + (i + 1),
+          "CPU utilization above its expected band for " + instances.get(i).getInstanceId(),
+          "AWS/EC2", "CPUUtilization", Map.of("InstanceId", instances.get(i).getInstanceId()), "Average"));
+    }
+    if (service != null) {
+      signals.add(anomalyAlarm("WebServiceCpu", "web-service-cpu-anomaly",
+          "Web service CPU utilization above its expected band",
+          "AWS/ECS", "CPUUtilization", Map.of("ClusterName", service.getCluster().getClusterName(),
+              "ServiceName", service.getServiceName()), "Average"));
+    }
+
+    if (loadBalancer != null) {
+      signals.add(anomalyAlarm("WebLatency", "web-p99-latency-anomaly",
+          "p99 target response time above its expected band",
+          "AWS/ApplicationELB", "TargetResponseTime",
+          Map.of("LoadBalancer", loadBalancer.getLoadBalancer().getLoadBalancerFullName()), "p99"));
+
+      Alarm unhealthyHosts = Alarm.Builder.create(this, "WebUnhealthyHosts")
+          .alarmName(config.getResourceName("web-unhealthy-hosts"))
+          .alarmDescription("Load balancer reports unhealthy web targets")
+          .metric(loadBalancer.getTargetGroup().getMetrics().unhealthyHostCount(MetricOptions.builder()
+              .statistic("Maximum")
+              .period(Duration.seconds(PERIOD_SECONDS))
+              .build()))
+          .threshold(0)
+          .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+          .evaluationPeriods(EVALUATION_PERIODS)
+          .datapointsToAlarm(EVALUATION_PERIODS)
+          .treatMissingData(TreatMissingData.MISSING)
+          .build();
+      signals.add(unhealthyHosts);
+    }
+
+    return tierAlarm("web", signals);
+  }
+
+  /**
+   * Data tier: RDS CPU and connection-count bands.
+   *
+   * @return the tier's composite alarm
+   */
+  IAlarm addDataTier(DatabaseInstance database) {
+    Map<String, String> dimensions = Map.of("DBInstanceIdentifier", database.getInstanceIdentifier());
+    return tierAlarm("data", Arrays.asList(
+        anomalyAlarm("DbCpu", "db-cpu-anomaly", "RDS CPU utilization above its expected band",
+            "AWS/RDS", "CPUUtilization", dimensions, "Average"),
+        anomalyAlarm("DbConnections", "db-connections-anomaly", "RDS connection count above its expected band",
+            "AWS/RDS", "DatabaseConnections", dimensions, "Maximum")));
+  }
+
+  /** Name of the composite alarm that pages for {@code tier} ("web" or "data"). */
+  static String tierAlarmName(StackConfiguration config, String tier) {
+    return config.getResourceName(tier + "-tier");
+  }
+
+  private IAlarm tierAlarm(String tier, List<IAlarm> signals) {
+    IAlarmRule[] rules = signals.stream()
+        .map(alarm -> AlarmRule.fromAlarm(alarm, AlarmState.ALARM))
+        .toArray(IAlarmRule[]::new);
+    CompositeAlarm alarm = CompositeAlarm.Builder.create(this, "Tier-" + tier)
+        .compositeAlarmName(tierAlarmName(config, tier))
+        .alarmDescription("One or more " + tier + " tier signals are outside their expected range")
+        .alarmRule(AlarmRule.anyOf(rules))
+        .build();
+    alarm.addAlarmAction(alertAction);
+    return alarm;
+  }
+
+  /**
+   * Upper-band anomaly alarm on a single 1-minute metric. Written as a
+   * CfnAlarm because the L2 Alarm cannot target a threshold metric.
+   */
+  private IAlarm anomalyAlarm(String id, String name, String description, String namespace, String metricName,
+      Map<String, String> dimensions, String statistic) {
+    CfnAlarm alarm = CfnAlarm.Builder.create(this, id)
+        .alarmName(config.getResourceName(name))
+        .alarmDescription(description)
+        .comparisonOperator("GreaterThanUpperThreshold")
+        .evaluationPeriods(EVALUATION_PERIODS)
+        .datapointsToAlarm(EVALUATION_PERIODS)
+        .thresholdMetricId("band")
+        .treatMissingData("missing")
+        .metrics(Arrays.asList(
+            CfnAlarm.MetricDataQueryProperty.builder()
+                .id("m1")
+                .returnData(true)
+                .metricStat(CfnAlarm.MetricStatProperty.builder()
+                    .metric(CfnAlarm.MetricProperty.builder()
+                        .namespace(namespace)
+                        .metricName(metricName)
+                        .dimensions(dimensions.entrySet().stream()
+                            .map(d -> CfnAlarm.DimensionProperty.builder()
+                                .name(d.getKey())
+                                .value(d.getValue())
+                                .build())
+                            .collect(Collectors.toList()))
+                        .build())
+                    .period(PERIOD_SECONDS)
+                    .stat(statistic)
+                    .build())
+                .build(),
+            CfnAlarm.MetricDataQueryProperty.builder()
+                .id("band")
+                .expression("ANOMALY_DETECTION_BAND(m1, " + config.getAnomalyBandWidth() + ")")
+                .label(metricName + " expected band")
+                .returnData(true)
+                .build()))
+        .build();
+    return Alarm.fromAlarmArn(this, id + "Ref", alarm.getAttrArn());
+  }
+}
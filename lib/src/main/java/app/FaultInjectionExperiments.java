@@ -0,0 +1,228 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import software.amazon.awscdk.ArnComponents;
+import software.amazon.awscdk.ArnFormat;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.ec2.ISubnet;
+import software.amazon.awscdk.services.fis.CfnExperimentTemplate;
+import software.amazon.awscdk.services.iam.ManagedPolicy;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.constructs.Construct;
+
+/**
+ * Fault Injection Service experiment templates for performance-under-failure
+ * drills. Templates are inert until started, e.g.
+ * {@code aws fis start-experiment --experiment-template-id <id>}.
+ *
+ * <ul>
+ *   <li>{@code db-failover}: reboots the Multi-AZ instance with forced failover</li>
+ *   <li>{@code web-latency} / {@code web-packet-loss}: tc netem on every web instance via SSM</li>
+ *   <li>{@code az-impairment}: disrupts connectivity through a network ACL on the first AZ's
+ *       private subnet, cutting off the web instance (or Fargate tasks) in it; the AZ's other
+ *       subnets, including its NAT gateway's public subnet, are untouched</li>
+ *   <li>{@code web-cpu-stress}: stress-ng at a fixed load on every web instance</li>
+ * </ul>
+ *
+ * With the Fargate web tier there are no instances to target, so only
+ * {@code db-failover} and {@code az-impairment} are created.
+ *
+ * Every experiment stops as soon as the fast detection composite alarm of a
+ * tier it affects goes into ALARM, so a drill never turns into an outage.
+ * Fault injection therefore requires {@code detectionMode=fast}.
+ *
+ * Web instances are selected by tag and the database and alarms by their
+ * known names, so in the split layout the templates import nothing from the
+ * web or data stacks and replacing an instance never hits an export in use.
+ */
+class FaultInjectionExperiments extends Construct {
+  private final StackConfiguration config;
+  private final Role role;
+  private final Map<String, CfnExperimentTemplate> templates = new LinkedHashMap<>();
+
+  FaultInjectionExperiments(Construct scope, String id, StackConfiguration config, NetworkTier network, WebTier web,
+      DataTier data) {
+    super(scope, id);
+    this.config = config;
+
+    role = Role.Builder.create(this, "Role")
+        .assumedBy(new ServicePrincipal("fis.amazonaws.com"))
+        .managedPolicies(Arrays.asList(
+            ManagedPolicy.fromAwsManagedPolicyName("service-role/AWSFaultInjectionSimulatorRDSAccess"),
+            ManagedPolicy.fromAwsManagedPolicyName("service-role/AWSFaultInjectionSimulatorSSMAccess"),
+            ManagedPolicy.fromAwsManagedPolicyName("service-role/AWSFaultInjectionSimulatorNetworkAccess")))
+        .build();
+
+    Stack stack = Stack.of(this);
+    String duration = "PT" + config.getFisDurationMinutes() + "M";
+    String durationSeconds = String.valueOf(config.getFisDurationMinutes() * 60);
+
+    List<String> webAlarms = alarmArns(stack, web.getAlarmNames());
+    List<String> allAlarms = new ArrayList<>(webAlarms);
+    allAlarms.addAll(alarmArns(stack, data.getAlarmNames()));
+    // Orders the templates after the alarms and database, or their stacks after those tiers
+    getNode().addDependency(data.getDatabase());
+    web.getAlarms().forEach(getNode()::addDependency);
+    data.getAlarms().forEach(getNode()::addDependency);
+
+    Map<String, String> webTags = new LinkedHashMap<>();
+    webTags.put("Project", config.getProjectName());
+    webTags.put("Environment", config.getEnvironment());
+    webTags.put(WebTier.TIER_TAG, "web");
+    CfnExperimentTemplate.ExperimentTemplateTargetProperty webInstances =
+        CfnExperimentTemplate.ExperimentTemplateTargetProperty.builder()
+            .resourceType("aws:ec2:instance")
+            .resourceTags(webTags)
+            .filters(Arrays.asList(CfnExperimentTemplate.ExperimentTemplateTargetFilterProperty.builder()
+                .path("State.Name")
+                .values(Arrays.asList("running"))
+                .build()))
+            .selectionMode("ALL")
+            .build();
+
+    addTemplate("DbFailover", "db-failover",
+        "Reboot the RDS instance with forced failover to the standby",
+        "Database", target("aws:rds:db",
+            Arrays.asList(arn(stack, "rds", "db", data.getDatabaseIdentifier(), ArnFormat.COLON_RESOURCE_NAME))),
+        CfnExperimentTemplate.ExperimentTemplateActionProperty.builder()
+            .actionId("aws:rds:reboot-db-instances")
+            .parameters(Map.of("forceFailover", "true"))
+            .targets(Map.of("DBInstances", "Database"))
+            .build(),
+        allAlarms);
+
+    // SSM-based drills need EC2 instances; Fargate tasks only get the RDS and subnet drills
+    boolean hasInstances = !web.getInstances().isEmpty();
+    if (hasInstances) {
+      Map<String, String> latency = new LinkedHashMap<>();
+      latency.put("DurationSeconds", durationSeconds);
+      latency.put("DelayMilliseconds", String.valueOf(config.getFisLatencyMs()));
+      latency.put("Interface", "eth0");
+      latency.put("InstallDependencies", "True");
+      addTemplate("WebLatency", "web-latency",
+          "Add " + config.getFisLatencyMs() + " ms of network latency on every web instance",
+          "WebInstances", webInstances, sendCommand(stack, "AWSFIS-Run-Network-Latency", latency, duration),
+          webAlarms);
+
+      Map<String, String> packetLoss = new LinkedHashMap<>();
+      packetLoss.put("DurationSeconds", durationSeconds);
+      packetLoss.put("LossPercent", String.valueOf(config.getFisPacketLossPercent()));
+      packetLoss.put("Interface", "eth0");
+      packetLoss.put("InstallDependencies", "True");
+      addTemplate("WebPacketLoss", "web-packet-loss",
+          "Drop " + config.getFisPacketLossPercent() + "% of packets on every web instance",
+          "WebInstances", webInstances, sendCommand(stack, "AWSFIS-Run-Network-Packet-Loss", packetLoss, duration),
+          webAlarms);
+    }
+
+    ISubnet impairedSubnet = network.getVpc().getPrivateSubnets().get(0);
+    addTemplate("AzImpairment", "az-impairment",
+        "Block all traffic in and out of the private subnet in " + impairedSubnet.getAvailabilityZone(),
+        "Subnet", target("aws:ec2:subnet",
+            Arrays.asList(arn(stack, "ec2", "subnet", impairedSubnet.getSubnetId(), ArnFormat.SLASH_RESOURCE_NAME))),
+        CfnExperimentTemplate.ExperimentTemplateActionProperty.builder()
+            .actionId("aws:network:disrupt-connectivity")
+            .parameters(Map.of("duration", duration, "scope", "all"))
+            .targets(Map.of("Subnets", "Subnet"))
+            .build(),
+        allAlarms);
+
+    if (hasInstances) {
+      Map<String, String> cpuStress = new LinkedHashMap<>();
+      cpuStress.put("DurationSeconds", durationSeconds);
+      cpuStress.put("CPU", "0"); // all cores
+      cpuStress.put("LoadPercent", String.valueOf(config.getFisCpuLoadPercent()));
+      cpuStress.put("InstallDependencies", "True");
+      addTemplate("WebCpuStress", "web-cpu-stress",
+          "Load every web instance's CPUs to " + config.getFisCpuLoadPercent() + "%",
+          "WebInstances", webInstances, sendCommand(stack, "AWSFIS-Run-CPU-Stress", cpuStress, duration),
+          webAlarms);
+    }
+  }
+
+  private void addTemplate(String id, String name, String description, String targetName,
+      CfnExperimentTemplate.ExperimentTemplateTargetProperty target,
+      CfnExperimentTemplate.ExperimentTemplateActionProperty action, List<String> stopAlarmArns) {
+    List<CfnExperimentTemplate.ExperimentTemplateStopConditionProperty> stopConditions = stopAlarmArns.stream()
+        .map(alarmArn -> CfnExperimentTemplate.ExperimentTemplateStopConditionProperty.builder()
+            .source("aws:cloudwatch:alarm")
+            .value(alarmArn)
+            .build())
+        .collect(Collectors.toList());
+
+    CfnExperimentTemplate template = CfnExperimentTemplate.Builder.create(this, id)
+        .description(description)
+        .roleArn(role.getRoleArn())
+        .targets(Map.of(targetName, target))
+        .actions(Map.of(id, action))
+        .stopConditions(stopConditions)
+        .tags(Map.of("Name", config.getResourceName(name)))
+        .build();
+    templates.put(name, template);
+
+    CfnOutput.Builder.create(Stack.of(this), "FisTemplate" + id + "Id")
+        .description("FIS experiment template " + name)
+        .value(template.getAttrId())
+        .exportName(config.getResourceName("fis-" + name + "-template-id"))
+        .build();
+  }
+
+  private static CfnExperimentTemplate.ExperimentTemplateTargetProperty target(String resourceType,
+      List<String> resourceArns) {
+    return CfnExperimentTemplate.ExperimentTemplateTargetProperty.builder()
+        .resourceType(resourceType)
+        .resourceArns(resourceArns)
+        .selectionMode("ALL")
+        .build();
+  }
+
+  private static CfnExperimentTemplate.ExperimentTemplateActionProperty sendCommand(Stack stack, String document,
+      Map<String, String> documentParameters, String duration) {
+    // Document parameters are passed as one JSON string
+    String json = documentParameters.entrySet().stream()
+        .map(p -> "\"" + p.getKey() + "\":\"" + p.getValue() + "\"")
+        .collect(Collectors.joining(",", "{", "}"));
+    return CfnExperimentTemplate.ExperimentTemplateActionProperty.builder()
+        .actionId("aws:ssm:send-command")
+        .parameters(Map.of(
+            "documentArn", stack.formatArn(ArnComponents.builder()
+                .service("ssm")
+                .account("")
+                .resource("document")
+                .resourceName(document)
+                .arnFormat(ArnFormat.SLASH_RESOURCE_NAME)
+                .build()),
+            "documentParameters", json,
+            "duration", duration))
+        .targets(Map.of("Instances", "WebInstances"))
+        .build();
+  }
+
+  private static List<String> alarmArns(Stack stack, List<String> alarmNames) {
+    return alarmNames.stream()
+        .map(name -> arn(stack, "cloudwatch", "alarm", name, ArnFormat.COLON_RESOURCE_NAME))
+        .collect(Collectors.toList());
+  }
+
+  private static String arn(Stack stack, String service, String resource, String resourceName, ArnFormat format) {
+    return stack.formatArn(ArnComponents.builder()
+        .service(service)
+        .resource(resource)
+        .resourceName(resourceName)
+        .arnFormat(format)
+        .build());
+  }
+
+  /** Experiment templates keyed by scenario name. */
+  Map<String, CfnExperimentTemplate> getTemplates() {
+    return templates;
+  }
+}
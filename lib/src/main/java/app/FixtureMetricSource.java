@@ -0,0 +1,40 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link MetricSource} that replays recorded series from a JSON file of the
+ * form {@code {"<query id>": [v1, v2, ...]}}. The time range is ignored.
+ */
+final class FixtureMetricSource implements MetricSource {
+  private final Map<String, List<Double>> recorded;
+
+  FixtureMetricSource(Map<String, List<Double>> recorded) {
+    this.recorded = recorded;
+  }
+
+  static FixtureMetricSource fromFile(Path path) throws IOException {
+    return new FixtureMetricSource(new ObjectMapper().readValue(Files.readString(path),
+        new TypeReference<Map<String, List<Double>>>() {
+        }));
+  }
+
+  @Override
+  public Map<String, List<Double>> fetch(List<Query> queries, Instant start, Instant end) {
+    Map<String, List<Double>> values = new LinkedHashMap<>();
+    for (Query query : queries) {
+      values.put(query.getId(), new ArrayList<>(recorded.getOrDefault(query.getId(), List.of())));
+    }
+    return values;
+  }
+}
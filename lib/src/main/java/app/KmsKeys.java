@@ -0,0 +1,51 @@
+package app;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.kms.Key;
+
+/**
+ * Resolves the key a storage consumer should encrypt with. "shared" mode uses
+ * the stack key everywhere; "per-tier" and "per-service" create one key per
+ * tier or per tier/service pair so usage can be attributed and alarmed on
+ * separately. Separated keys are created in the stack this resolver was built
+ * for: the one stack in the single layout, or each tier's own stack in the
+ * split layout.
+ */
+class KmsKeys {
+  private final Stack scope;
+  private final StackConfiguration config;
+  private final Key sharedKey;
+  private final Map<String, Key> separatedKeys = new LinkedHashMap<>();
+
+  KmsKeys(Stack scope, StackConfiguration config, Key sharedKey) {
+    this.scope = scope;
+    this.config = config;
+    this.sharedKey = sharedKey;
+  }
+
+  Key forService(String tier, String service) {
+    String name;
+    switch (config.getKmsKeyMode()) {
+      case "per-tier":
+        name = tier;
+        break;
+      case "per-service":
+        name = tier + "-" + service;
+        break;
+      default:
+        return sharedKey;
+    }
+    return separatedKeys.computeIfAbsent(name, n -> Key.Builder.create(scope,
+            config.getResourceName("kms-key-" + n))
+        .description("KMS key for encrypting " + n + " resources")
+        .enableKeyRotation(true)
+        .build());
+  }
+
+  Map<String, Key> getSeparatedKeys() {
+    return separatedKeys;
+  }
+}
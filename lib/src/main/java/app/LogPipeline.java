@@ -0,0 +1,334 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awscdk.ArnComponents;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.ec2.UserData;
+import software.amazon.awscdk.services.glue.CfnDatabase;
+import software.amazon.awscdk.services.glue.CfnTable;
+import software.amazon.awscdk.services.iam.Effect;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.kinesisfirehose.CfnDeliveryStream;
+import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.logs.CfnLogGroup;
+import software.amazon.awscdk.services.logs.CfnSubscriptionFilter;
+import software.amazon.awscdk.services.logs.ILogGroup;
+import software.amazon.awscdk.services.logs.LogGroup;
+import software.amazon.awscdk.services.s3.BlockPublicAccess;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.BucketEncryption;
+import software.amazon.awscdk.services.s3.LifecycleRule;
+import software.amazon.awscdk.services.s3.StorageClass;
+import software.amazon.awscdk.services.s3.Transition;
+import software.constructs.Construct;
+
+/**
+ * Streams the web tier's CloudWatch Logs to Parquet in S3.
+ *
+ * The CloudWatch agent on each web instance ships application and system logs
+ * to two log groups with short retention. Subscription filters forward every
+ * event to a Firehose delivery stream, which decompresses the gzipped
+ * CloudWatch Logs batches, buffers them, converts them to Snappy-compressed
+ * Parquet using the Glue table schema and writes one prefix per UTC day to a
+ * KMS-encrypted bucket that tiers objects to cheaper storage as they age. The
+ * Glue table uses partition projection on that day prefix, so Athena queries
+ * stay cheap without crawlers.
+ */
+class LogPipeline extends Construct {
+  static final String TABLE_NAME = "web_logs";
+  static final String APPLICATION_LOG_PATH = "/var/log/webapp/*.log";
+  static final String SYSTEM_LOG_PATH = "/var/log/messages";
+  /** Retention values CloudWatch Logs accepts. */
+  static final List<Integer> LOG_GROUP_RETENTION_DAYS = Arrays.asList(
+      1, 3, 5, 7, 14, 30, 60, 90, 120, 150, 180, 365, 400, 545, 731, 1096, 1827, 2192, 2557, 2922, 3288, 3653);
+  /** Firehose needs at least 64 MiB buffers when converting record formats. */
+  static final int MIN_BUFFER_SIZE_MB = 64;
+  private static final String LOG_PREFIX = "logs";
+  private static final String ERROR_PREFIX = "errors";
+
+  /**
+   * Columns of a decompressed CloudWatch Logs subscription batch; the OpenX
+   * JSON deserializer matches keys case-insensitively.
+   */
+  private static final String[][] COLUMNS = {
+      {"messagetype", "string"},
+      {"owner", "string"},
+      {"loggroup", "string"},
+      {"logstream", "string"},
+      {"subscriptionfilters", "array<string>"},
+      {"logevents", "array<struct<id:string,timestamp:bigint,message:string>>"},
+  };
+
+  private final Bucket bucket;
+  private final CfnDeliveryStream deliveryStream;
+  private final String databaseName;
+  private final Map<String, String> logGroupNames = new LinkedHashMap<>();
+  private final Map<String, CfnLogGroup> logGroups = new LinkedHashMap<>();
+
+  LogPipeline(Construct scope, String id, StackConfiguration config, Key key) {
+    super(scope, id);
+
+    Stack stack = Stack.of(this);
+
+    bucket = Bucket.Builder.create(this, "Bucket")
+        .bucketName(config.getResourceName("web-log-archive"))
+        .encryption(BucketEncryption.KMS)
+        .encryptionKey(key)
+        .bucketKeyEnabled(true) // S3 reuses a bucket-level data key instead of calling KMS per object
+        .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
+        .enforceSsl(true)
+        .lifecycleRules(Arrays.asList(
+            LifecycleRule.builder()
+                .id("TierAndExpireLogs")
+                .enabled(true)
+                .prefix(LOG_PREFIX + "/")
+                .transitions(transitions(config.getLogArchiveRetentionDays()))
+                .expiration(Duration.days(config.getLogArchiveRetentionDays()))
+                .build(),
+            LifecycleRule.builder()
+                .id("DeleteFailedRecords")
+                .enabled(true)
+                .prefix(ERROR_PREFIX + "/")
+                .expiration(Duration.days(14))
+                .build()))
+        .build();
+
+    databaseName = config.getResourceName("web-logs").replace('-', '_');
+    CfnDatabase database = CfnDatabase.Builder.create(this, "Database")
+        .catalogId(stack.getAccount())
+        .databaseInput(CfnDatabase.DatabaseInputProperty.builder()
+            .name(databaseName)
+            .description("Web tier application and system logs")
+            .build())
+        .build();
+
+    String logLocation = String.format("s3://%s/%s", bucket.getBucketName(), LOG_PREFIX);
+
+    List<CfnTable.ColumnProperty> columns = new ArrayList<>();
+    for (String[] column : COLUMNS) {
+      columns.add(CfnTable.ColumnProperty.builder().name(column[0]).type(column[1]).build());
+    }
+
+    // Partition projection over the day prefixes Firehose writes
+    Map<String, String> tableParameters = new LinkedHashMap<>();
+    tableParameters.put("EXTERNAL", "TRUE");
+    tableParameters.put("classification", "parquet");
+    tableParameters.put("projection.enabled", "true");
+    tableParameters.put("projection.day.type", "date");
+    tableParameters.put("projection.day.format", "yyyy/MM/dd");
+    tableParameters.put("projection.day.range", "NOW-" + config.getLogArchiveRetentionDays() + "DAYS,NOW");
+    tableParameters.put("projection.day.interval", "1");
+    tableParameters.put("projection.day.interval.unit", "DAYS");
+    tableParameters.put("storage.location.template", logLocation + "/${day}");
+
+    CfnTable table = CfnTable.Builder.create(this, "Table")
+        .catalogId(stack.getAccount())
+        .databaseName(databaseName)
+        .tableInput(CfnTable.TableInputProperty.builder()
+            .name(TABLE_NAME)
+            .tableType("EXTERNAL_TABLE")
+            .parameters(tableParameters)
+            .partitionKeys(Arrays.asList(CfnTable.ColumnProperty.builder()
+                .name("day")
+                .type("string")
+                .build()))
+            .storageDescriptor(CfnTable.StorageDescriptorProperty.builder()
+                .columns(columns)
+                .location(logLocation)
+                .inputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat")
+                .outputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat")
+                .serdeInfo(CfnTable.SerdeInfoProperty.builder()
+                    .serializationLibrary("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
+                    .build())
+                .build())
+            .build())
+        .build();
+    table.addDependency(database);
+
+    Role firehoseRole = Role.Builder.create(this, "DeliveryRole")
+        .assumedBy(new ServicePrincipal("firehose.amazonaws.com"))
+        .build();
+    bucket.grantWrite(firehoseRole);
+    firehoseRole.addToPolicy(PolicyStatement.Builder.create()
+        .effect(Effect.ALLOW)
+        .actions(Arrays.asList("glue:GetTable", "glue:GetTableVersion", "glue:GetTableVersions"))
+        .resources(Arrays.asList(
+            glueArn(stack, "catalog"),
+            glueArn(stack, "database/" + databaseName),
+            glueArn(stack, "table/" + databaseName + "/" + TABLE_NAME)))
+        .build());
+
+    deliveryStream = CfnDeliveryStream.Builder.create(this, "DeliveryStream")
+        .deliveryStreamName(config.getResourceName("web-logs"))
+        .deliveryStreamType("DirectPut")
+        .extendedS3DestinationConfiguration(CfnDeliveryStream.ExtendedS3DestinationConfigurationProperty.builder()
+            .bucketArn(bucket.getBucketArn())
+            .roleArn(firehoseRole.getRoleArn())
+            .prefix(LOG_PREFIX + "/!{timestamp:yyyy/MM/dd}/")
+            .errorOutputPrefix(ERROR_PREFIX + "/!{firehose:error-output-type}/!{timestamp:yyyy/MM/dd}/")
+            // Larger, less frequent objects: fewer S3 PUTs and better Parquet row groups
+            .bufferingHints(CfnDeliveryStream.BufferingHintsProperty.builder()
+                .intervalInSeconds(config.getLogBufferIntervalSeconds())
+                .sizeInMBs(config.getLogBufferSizeMb())
+                .build())
+            // Parquet applies its own compression
+            .compressionFormat("UNCOMPRESSED")
+            .encryptionConfiguration(CfnDeliveryStream.EncryptionConfigurationProperty.builder()
+                .kmsEncryptionConfig(CfnDeliveryStream.KMSEncryptionConfigProperty.builder()
+                    .awskmsKeyArn(key.getKeyArn())
+                    .build())
+                .build())
+            // CloudWatch Logs delivers gzipped batches
+            .processingConfiguration(CfnDeliveryStream.ProcessingConfigurationProperty.builder()
+                .enabled(true)
+                .processors(Arrays.asList(CfnDeliveryStream.ProcessorProperty.builder()
+                    .type("Decompression")
+                    .parameters(Arrays.asList(CfnDeliveryStream.ProcessorParameterProperty.builder()
+                        .parameterName("CompressionFormat")
+                        .parameterValue("GZIP")
+                        .build()))
+                    .build()))
+                .build())
+            .dataFormatConversionConfiguration(CfnDeliveryStream.DataFormatConversionConfigurationProperty.builder()
+                .enabled(true)
+                .inputFormatConfiguration(CfnDeliveryStream.InputFormatConfigurationProperty.builder()
+                    .deserializer(CfnDeliveryStream.DeserializerProperty.builder()
+                        .openXJsonSerDe(CfnDeliveryStream.OpenXJsonSerDeProperty.builder().build())
+                        .build())
+                    .build())
+                .outputFormatConfiguration(CfnDeliveryStream.OutputFormatConfigurationProperty.builder()
+                    .serializer(CfnDeliveryStream.SerializerProperty.builder()
+                        .parquetSerDe(CfnDeliveryStream.ParquetSerDeProperty.builder()
+                            .compression("SNAPPY")
+                            .build())
+                        .build())
+                    .build())
+                .schemaConfiguration(CfnDeliveryStream.SchemaConfigurationProperty.builder()
+                    .catalogId(stack.getAccount())
+                    .databaseName(databaseName)
+                    .tableName(TABLE_NAME)
+                    .region(stack.getRegion())
+                    .roleArn(firehoseRole.getRoleArn())
+                    .versionId("LATEST")
+                    .build())
+                .build())
+            .build())
+        .build();
+    // Firehose checks its role's permissions when the stream is created
+    deliveryStream.getNode().addDependency(firehoseRole);
+    deliveryStream.addDependency(table);
+
+    Role subscriptionRole = Role.Builder.create(this, "SubscriptionRole")
+        .assumedBy(new ServicePrincipal("logs.amazonaws.com"))
+        .build();
+    subscriptionRole.addToPolicy(PolicyStatement.Builder.create()
+        .effect(Effect.ALLOW)
+        .actions(Arrays.asList("firehose:PutRecord", "firehose:PutRecordBatch"))
+        .resources(Arrays.asList(deliveryStream.getAttrArn()))
+        .build());
+
+    addLogGroup("Application", "application", config, subscriptionRole);
+    addLogGroup("System", "system", config, subscriptionRole);
+  }
+
+  private void addLogGroup(String id, String name, StackConfiguration config, Role subscriptionRole) {
+    String logGroupName = "/" + config.getResourceName("web") + "/" + name;
+    CfnLogGroup logGroup = CfnLogGroup.Builder.create(this, id + "LogGroup")
+        .logGroupName(logGroupName)
+        // Short: the Parquet archive in S3 is the long-term copy
+        .retentionInDays(config.getLogGroupRetentionDays())
+        .build();
+    logGroupNames.put(id, logGroupName);
+    logGroups.put(id, logGroup);
+
+    CfnSubscriptionFilter filter = CfnSubscriptionFilter.Builder.create(this, id + "Subscription")
+        .logGroupName(logGroup.getRef())
+        .filterPattern("") // every event
+        .destinationArn(deliveryStream.getAttrArn())
+        .roleArn(subscriptionRole.getRoleArn())
+        .build();
+    // CloudWatch Logs tests delivery with the role when the filter is created
+    filter.getNode().addDependency(subscriptionRole);
+  }
+
+  /** Infrequent Access after 30 days and Glacier Instant Retrieval after 90, where the archive lives that long. */
+  private static List<Transition> transitions(int retentionDays) {
+    List<Transition> transitions = new ArrayList<>();
+    if (retentionDays > 30) {
+      transitions.add(Transition.builder()
+          .storageClass(StorageClass.INFREQUENT_ACCESS)
+          .transitionAfter(Duration.days(30))
+          .build());
+    }
+    if (retentionDays > 90) {
+      transitions.add(Transition.builder()
+          .storageClass(StorageClass.GLACIER_INSTANT_RETRIEVAL)
+          .transitionAfter(Duration.days(90))
+          .build());
+    }
+    return transitions;
+  }
+
+  private static String glueArn(Stack stack, String resource) {
+    return stack.formatArn(ArnComponents.builder()
+        .service("glue")
+        .resource(resource)
+        .build());
+  }
+
+  /**
+   * Appends log collection to the CloudWatch agent config on instance user
+   * data. The web tier installs the agent and its memory metrics first, so
+   * this only adds the logs section.
+   */
+  void addAgentConfig(UserData userData) {
+    String config = "{\"logs\":{\"logs_collected\":{\"files\":{\"collect_list\":["
+        + collectEntry(APPLICATION_LOG_PATH, logGroupNames.get("Application")) + ","
+        + collectEntry(SYSTEM_LOG_PATH, logGroupNames.get("System"))
+        + "]}}}}";
+    userData.addCommands(
+        "mkdir -p /var/log/webapp",
+        "cat > /opt/aws/amazon-cloudwatch-agent/etc/log-pipeline.json <<'EOF'",
+        config,
+        "EOF",
+        "/opt/aws/amazon-cloudwatch-agent/bin/amazon-cloudwatch-agent-ctl -a append-config -m ec2 -s"
+            + " -c file:/opt/aws/amazon-cloudwatch-agent/etc/log-pipeline.json");
+  }
+
+  private static String collectEntry(String path, String logGroupName) {
+    return "{\"file_path\":\"" + path + "\",\"log_group_name\":\"" + logGroupName
+        + "\",\"log_stream_name\":\"{instance_id}\"}";
+  }
+
+  Bucket getBucket() {
+    return bucket;
+  }
+
+  String getDeliveryStreamName() {
+    return deliveryStream.getRef();
+  }
+
+  String getDatabaseName() {
+    return databaseName;
+  }
+
+  /** The application log group, for containers logging through the awslogs driver. */
+  ILogGroup getApplicationLogGroup() {
+    // Ref keeps consumers ordered after the log group
+    return LogGroup.fromLogGroupName(this, "ApplicationLogGroupRef", logGroups.get("Application").getRef());
+  }
+
+  /** Log group names keyed by "Application" and "System". */
+  Map<String, String> getLogGroupNames() {
+    return Collections.unmodifiableMap(logGroupNames);
+  }
+}
@@ -1,486 +1,113 @@
 package app;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import software.amazon.awscdk.App;
+import software.amazon.awscdk.Aspects;
 import software.amazon.awscdk.CfnOutput;
-import software.amazon.awscdk.Duration;
 import software.amazon.awscdk.Environment;
 import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.StackProps;
 import software.amazon.awscdk.Tags;
-import software.amazon.awscdk.services.cloudtrail.Trail;
-import software.amazon.awscdk.services.cloudwatch.Alarm;
-import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
-import software.amazon.awscdk.services.cloudwatch.Metric;
-import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
-import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
-import software.amazon.awscdk.services.ec2.ISubnet;
-import software.amazon.awscdk.services.ec2.Instance;
-import software.amazon.awscdk.services.ec2.InstanceClass;
-import software.amazon.awscdk.services.ec2.InstanceSize;
-import software.amazon.awscdk.services.ec2.IpAddresses;
-import software.amazon.awscdk.services.ec2.MachineImage;
-import software.amazon.awscdk.services.ec2.Peer;
-import software.amazon.awscdk.services.ec2.Port;
-import software.amazon.awscdk.services.ec2.SecurityGroup;
-import software.amazon.awscdk.services.ec2.SubnetConfiguration;
-import software.amazon.awscdk.services.ec2.SubnetSelection;
-import software.amazon.awscdk.services.ec2.SubnetType;
-import software.amazon.awscdk.services.ec2.UserData;
-import software.amazon.awscdk.services.ec2.Vpc;
-import software.amazon.awscdk.services.iam.Effect;
-import software.amazon.awscdk.services.iam.ManagedPolicy;
-import software.amazon.awscdk.services.iam.PolicyDocument;
-import software.amazon.awscdk.services.iam.PolicyStatement;
-import software.amazon.awscdk.services.iam.Role;
-import software.amazon.awscdk.services.iam.ServicePrincipal;
-import software.amazon.awscdk.services.kms.Key;
-import software.amazon.awscdk.services.rds.Credentials;
-import software.amazon.awscdk.services.rds.DatabaseInstance;
-import software.amazon.awscdk.services.rds.DatabaseInstanceEngine;
-import software.amazon.awscdk.services.rds.MySqlInstanceEngineProps;
-import software.amazon.awscdk.services.rds.MysqlEngineVersion;
-import software.amazon.awscdk.services.rds.ParameterGroup;
-import software.amazon.awscdk.services.rds.StorageType;
-import software.amazon.awscdk.services.rds.SubnetGroup;
-import software.amazon.awscdk.services.s3.BlockPublicAccess;
-import software.amazon.awscdk.services.s3.Bucket;
-import software.amazon.awscdk.services.s3.BucketEncryption;
-import software.amazon.awscdk.services.s3.LifecycleRule;
-import software.amazon.awscdk.services.sns.Topic;
-import software.amazon.awscdk.services.sns.subscriptions.EmailSubscription;
+import software.amazon.awscdk.services.ssm.StringParameter;
 
 public class Main {
   public static void main(final String[] args) {
     App app = new App();
 
     StackConfiguration config = StackConfiguration.from(app);
-
-    new TapStack(app, "TapStack" + config.getEnvironmentSuffix(), StackProps.builder()
+    // The account lets CDK look up the region's AZs; environment-agnostic stacks only ever see two
+    StackProps props = StackProps.builder()
         .env(Environment.builder()
+            .account(System.getenv("CDK_DEFAULT_ACCOUNT"))
             .region(config.getRegion())
             .build())
-        .build());
+        .build();
+
+    if (config.isSplitStackLayout()) {
+      new TierStacks(app, "TapStack" + config.getEnvironmentSuffix(), props);
+    } else {
+      new TapStack(app, "TapStack" + config.getEnvironmentSuffix(), props);
+    }
 
     app.synth();
   }
 }
 
+/**
+ * Single-stack layout: the network, web and data tiers and the endpoint
+ * manifest in one CloudFormation stack. See {@link TierStacks} for the split
+ * layout.
+ */
 class TapStack extends Stack {
   private final StackConfiguration config;
 
   public TapStack(final App scope, final String id, final StackProps props) {
     super(scope, id, props);
-    this.config = StackConfiguration.from((App) this.getNode().getApp());
+    this.config = StackConfiguration.from(scope);
 
-    // Apply consistent tags to all resources
-    Tags.of(this).add("Project", config.getProjectName());
-    Tags.of(this).add("Environment", config.getEnvironment());
-    Tags.of(this).add("ManagedBy", "CDK");
-    Tags.of(this).add("Owner", config.getOwner());
-    Tags.of(this).add("CostCenter", config.getCostCenter());
-
-    // Get CloudTrail flag from context, default to false (disabled)
-    Boolean enableCloudTrail = (Boolean) this.getNode().tryGetContext("enableCloudTrail");
-    if (enableCloudTrail == null) {
-      enableCloudTrail = false;
-    }
+    applyDefaults(this, config);
 
-    // Create KMS key for encryption
-    Key kmsKey = createKmsKey();
+    // KMS, VPC, security groups, CloudTrail, alert topic and the web role
+    NetworkTier network = new NetworkTier(this, config);
 
-    // Create VPC with public and private subnets
-    Vpc vpc = createVpc();
+    // Web instances, optional ALB, tracing and work queue
+    WebTier web = new WebTier(this, config, network, network.getKmsKeys());
 
-    // Create Security Groups
-    SecurityGroup webSecurityGroup = createWebSecurityGroup(vpc);
-    SecurityGroup rdsSecurityGroup = createRdsSecurityGroup(vpc, webSecurityGroup);
+    // RDS instance with multi-AZ and encryption, optional session store
+    DataTier data = new DataTier(this, config, network, network.getKmsKeys());
 
-    // Create S3 bucket for CloudTrail logs (only if CloudTrail is enabled)
-    Bucket cloudTrailBucket = null;
-    if (enableCloudTrail) {
-      cloudTrailBucket = createCloudTrailBucket(kmsKey);
+    // Publish a single endpoint manifest that app nodes can fetch in one call
+    StringParameter endpointManifest = EndpointManifestWriter.publish(this, config, network, web, data,
+        Arrays.asList(network.getKmsKeys()));
 
-      // Set up CloudTrail
-      createCloudTrail(cloudTrailBucket, kmsKey);
+    // Optional FIS templates for failover, latency, AZ and CPU drills
+    if (config.isFaultInjectionEnabled()) {
+      new FaultInjectionExperiments(this, config.getResourceName("fault-injection"), config, network, web, data);
     }
 
-    // Create SNS topic for alerts
-    Topic alertTopic = createAlertTopic();
-
-    // Create IAM roles
-    Role ec2Role = createEc2Role();
-
-    // Launch EC2 instances in private subnets
-    List<Instance> ec2Instances = createEc2Instances(vpc, webSecurityGroup, ec2Role);
-
-    // Create CloudWatch alarms for EC2 CPU monitoring
-    createCpuAlarms(ec2Instances, alertTopic);
-
-    // Create RDS instance with multi-AZ and encryption
-    DatabaseInstance rdsInstance = createRdsInstance(vpc, rdsSecurityGroup, kmsKey);
-
     // Create outputs for testing and integration
-    createOutputs(vpc, cloudTrailBucket, alertTopic, ec2Instances, rdsInstance, kmsKey, enableCloudTrail);
-  }
-
-  private Key createKmsKey() {
-    return Key.Builder.create(this, getResourceName("kms-key"))
-        .description("KMS key for encrypting resources")
-        .enableKeyRotation(true)
-        .build();
-  }
-
-  private Vpc createVpc() {
-    return Vpc.Builder.create(this, getResourceName("vpc"))
-        .ipAddresses(IpAddresses.cidr("10.0.0.0/16"))
-        .maxAzs(2)
-        .subnetConfiguration(Arrays.asList(
-            SubnetConfiguration.builder()
-                .name(getResourceName("public-subnet"))
-                .subnetType(SubnetType.PUBLIC)
-                .cidrMask(24)
-                .build(),
-            SubnetConfiguration.builder()
-                .name(getResourceName("private-subnet"))
-                .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
-                .cidrMask(24)
-                .build()))
-        .natGateways(2) // One NAT gateway per public subnet
-        .build();
-  }
-
-  private SecurityGroup createWebSecurityGroup(Vpc vpc) {
-    SecurityGroup sg = SecurityGroup.Builder.create(this, getResourceName("web-sg"))
-        .vpc(vpc)
-        .description("Security group for web servers")
-        .allowAllOutbound(false)
-        .build();
-
-    sg.addEgressRule(Peer.anyIpv4(), Port.tcp(443), "Allow HTTPS egress");
-    sg.addEgressRule(Peer.anyIpv4(), Port.tcp(80), "Allow HTTP egress");
-
-    for (Integer port : config.getExtraEgressPorts()) {
-      sg.addEgressRule(Peer.anyIpv4(), Port.tcp(port), "Additional egress port " + port);
-    }
-
-    // Allow HTTP from office CIDR
-    sg.addIngressRule(
-        Peer.ipv4(config.getOfficeCidr()),
-        Port.tcp(80),
-        "Allow HTTP from office");
-
-    // Allow HTTPS from office CIDR
-    sg.addIngressRule(
-        Peer.ipv4(config.getOfficeCidr()),
-        Port.tcp(443),
-        "Allow HTTPS from office");
-
-    return sg;
-  }
-
-  private SecurityGroup createRdsSecurityGroup(Vpc vpc, SecurityGroup webSg) {
-    SecurityGroup sg = SecurityGroup.Builder.create(this, getResourceName("rds-sg"))
-        .vpc(vpc)
-        .description("Security group for RDS instances")
-        .allowAllOutbound(false)
-        .build();
-
-    // Allow MySQL/Aurora access from web security group
-    sg.addIngressRule(
-        Peer.securityGroupId(webSg.getSecurityGroupId()),
-        Port.tcp(3306),
-        "Allow MySQL access from web servers");
-
-    return sg;
-  }
-
-  private Bucket createCloudTrailBucket(Key kmsKey) {
-    return Bucket.Builder.create(this, getResourceName("cloudtrail-bucket"))
-        .bucketName(getResourceName("cloudtrail-logs-2"))
-        .encryption(BucketEncryption.KMS)
-        .encryptionKey(kmsKey)
-        .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
-        .versioned(true)
-        .lifecycleRules(Arrays.asList(
-            LifecycleRule.builder()
-                .id("DeleteOldLogs")
-                .enabled(true)
-                .expiration(Duration.days(90))
-                .build()))
-        .build();
-  }
-
-  private void createCloudTrail(Bucket bucket, Key kmsKey) {
-    Trail.Builder.create(this, getResourceName("cloudtrail"))
-        .trailName(getResourceName("audit-trail"))
-        .bucket(bucket)
-        .includeGlobalServiceEvents(true)
-        .isMultiRegionTrail(true)
-        .enableFileValidation(true)
-        .build();
-  }
-
-  private Topic createAlertTopic() {
-    Topic topic = Topic.Builder.create(this, getResourceName("alert-topic"))
-        .topicName(getResourceName("devops-alerts"))
-        .displayName("DevOps Team Alerts")
-        .build();
-
-    // Add email subscription (override via ALERT_EMAIL env or alertEmail context)
-    topic.addSubscription(EmailSubscription.Builder.create(config.getAlertEmail()).build());
-
-    return topic;
-  }
-
-  private Role createEc2Role() {
-    return Role.Builder.create(this, getResourceName("ec2-role"))
-        .roleName(getResourceName("ec2-instance-role"))
-        .assumedBy(new ServicePrincipal("ec2.amazonaws.com"))
-        .managedPolicies(Arrays.asList(
-            ManagedPolicy.fromAwsManagedPolicyName("CloudWatchAgentServerPolicy"),
-            ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore")))
-        .inlinePolicies(Map.of(
-            "S3AccessPolicy", PolicyDocument.Builder.create()
-                .statements(Arrays.asList(
-                    PolicyStatement.Builder.create()
-                        .effect(Effect.ALLOW)
-                        .actions(Arrays.asList("s3:GetObject", "s3:PutObject"))
-                        .resources(Arrays.asList(config.getArtifactBucketArn()))
-                        .build()))
-                .build()))
-        .build();
-  }
-
-  private List<Instance> createEc2Instances(Vpc vpc, SecurityGroup sg, Role role) {
-    List<Instance> instances = new ArrayList<>();
-
-    // Get private subnets
-    List<ISubnet> privateSubnets = vpc.getPrivateSubnets();
-
-    for (int i = 0; i < privateSubnets.size(); i++) {
-      Instance instance = Instance.Builder.create(this, getResourceName("web-instance-" + (i + 1)))
-          .instanceName(getResourceName("web-server-" + (i + 1)))
-          .instanceType(software.amazon.awscdk.services.ec2.InstanceType.of(InstanceClass.T3, InstanceSize.MEDIUM))
-          .machineImage(MachineImage.latestAmazonLinux2())
-          .vpc(vpc)
-          .vpcSubnets(SubnetSelection.builder()
-              .subnets(Arrays.asList(privateSubnets.get(i)))
-              .build())
-          .securityGroup(sg)
-          .role(role)
-          .userData(UserData.forLinux())
-          .build();
-
-      instances.add(instance);
-    }
-
-    return instances;
-  }
-
-  private void createCpuAlarms(List<Instance> instances, Topic alertTopic) {
-    for (int i = 0; i < instances.size(); i++) {
-      Instance instance = instances.get(i);
-
-      Alarm.Builder.create(this, getResourceName("cpu-alarm-" + (i + 1)))
-          .alarmName(getResourceName("high-cpu-" + (i + 1)))
-          .alarmDescription("CPU utilization exceeds 80% for " + instance.getInstanceId())
-          .metric(Metric.Builder.create()
-              .namespace("AWS/EC2")
-              .metricName("CPUUtilization")
-              .dimensionsMap(Map.of("InstanceId", instance.getInstanceId()))
-              .statistic("Average")
-              .period(Duration.minutes(5))
-              .build())
-          .threshold(80.0)
-          .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
-          .evaluationPeriods(2)
-          .treatMissingData(TreatMissingData.BREACHING)
-          .build()
-          .addAlarmAction(new SnsAction(alertTopic));
-    }
-  }
-
-  private DatabaseInstance createRdsInstance(Vpc vpc, SecurityGroup sg, Key kmsKey) {
-    // Create subnet group for RDS
-    SubnetGroup subnetGroup = SubnetGroup.Builder.create(this, getResourceName("rds-subnet-group"))
-        .subnetGroupName(getResourceName("rds-subnets"))
-        .description("Subnet group for RDS instances")
-        .vpc(vpc)
-        .vpcSubnets(SubnetSelection.builder()
-            .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
-            .build())
+    network.addOutputs();
+    web.addOutputs();
+    data.addOutputs();
+
+    CfnOutput.Builder.create(this, "EndpointManifestParameter")
+        .description("SSM parameter holding the JSON endpoint manifest")
+        .value(endpointManifest.getParameterName())
+        .exportName(config.getResourceName("endpoint-manifest-parameter"))
         .build();
-
-    // Create parameter group
-    ParameterGroup parameterGroup = ParameterGroup.Builder.create(this, getResourceName("rds-params"))
-        .engine(DatabaseInstanceEngine.mysql(MySqlInstanceEngineProps.builder()
-            .version(MysqlEngineVersion.VER_8_0)
-            .build()))
-        .description("Custom parameter group for MySQL")
-        .build();
-
-    // Create RDS instance
-    DatabaseInstance dbInstance = DatabaseInstance.Builder.create(this, getResourceName("rds-instance"))
-        .instanceIdentifier(getResourceName("mysql-db-2"))
-        .engine(DatabaseInstanceEngine.mysql(MySqlInstanceEngineProps.builder()
-            .version(MysqlEngineVersion.VER_8_0)
-            .build()))
-        .instanceType(software.amazon.awscdk.services.ec2.InstanceType.of(InstanceClass.BURSTABLE3, InstanceSize.MICRO))
-        .vpc(vpc)
-        .subnetGroup(subnetGroup)
-        .securityGroups(Arrays.asList(sg))
-        .multiAz(true) // Multi-AZ deployment
-        .storageEncrypted(true) // Encrypted storage
-        .storageEncryptionKey(kmsKey)
-        .parameterGroup(parameterGroup)
-        .allocatedStorage(20)
-        .maxAllocatedStorage(100)
-        .storageType(StorageType.GP2)
-        .backupRetention(Duration.days(7))
-        .deletionProtection(true)
-        .databaseName("webapp")
-        .credentials(Credentials.fromGeneratedSecret("admin"))
-        .monitoringInterval(Duration.minutes(1))
-        // Remove Performance Insights as it's not supported on t3.micro
-        .build();
-
-    return dbInstance;
   }
 
-  private String getResourceName(String resource) {
-    return String.format("%s-%s-%s", config.getProjectName(), config.getEnvironment(), resource);
-  }
-
-  private void createOutputs(Vpc vpc, Bucket cloudTrailBucket, Topic alertTopic,
-      List<Instance> ec2Instances, DatabaseInstance rdsInstance, Key kmsKey, Boolean enableCloudTrail) {
-    // VPC outputs
-    CfnOutput.Builder.create(this, "VpcId")
-        .description("VPC ID for the infrastructure")
-        .value(vpc.getVpcId())
-        .exportName(getResourceName("vpc-id"))
-        .build();
-
-    CfnOutput.Builder.create(this, "VpcCidr")
-        .description("VPC CIDR block")
-        .value(vpc.getVpcCidrBlock())
-        .exportName(getResourceName("vpc-cidr"))
-        .build();
-
-    // Private subnet IDs for testing
-    List<ISubnet> privateSubnets = vpc.getPrivateSubnets();
-    for (int i = 0; i < privateSubnets.size(); i++) {
-      CfnOutput.Builder.create(this, "PrivateSubnet" + (i + 1))
-          .description("Private subnet " + (i + 1) + " ID")
-          .value(privateSubnets.get(i).getSubnetId())
-          .exportName(getResourceName("private-subnet-" + (i + 1)))
-          .build();
-    }
-
-    // Public subnet IDs for testing
-    List<ISubnet> publicSubnets = vpc.getPublicSubnets();
-    for (int i = 0; i < publicSubnets.size(); i++) {
-      CfnOutput.Builder.create(this, "PublicSubnet" + (i + 1))
-          .description("Public subnet " + (i + 1) + " ID")
-          .value(publicSubnets.get(i).getSubnetId())
-          .exportName(getResourceName("public-subnet-" + (i + 1)))
-          .build();
-    }
-
-    // EC2 instance outputs
-    for (int i = 0; i < ec2Instances.size(); i++) {
-      Instance instance = ec2Instances.get(i);
-      CfnOutput.Builder.create(this, "Ec2Instance" + (i + 1) + "Id")
-          .description("EC2 instance " + (i + 1) + " ID")
-          .value(instance.getInstanceId())
-          .exportName(getResourceName("ec2-instance-" + (i + 1) + "-id"))
-          .build();
-
-      CfnOutput.Builder.create(this, "Ec2Instance" + (i + 1) + "PrivateIp")
-          .description("EC2 instance " + (i + 1) + " private IP")
-          .value(instance.getInstancePrivateIp())
-          .exportName(getResourceName("ec2-instance-" + (i + 1) + "-private-ip"))
-          .build();
-    }
-
-    // RDS outputs
-    CfnOutput.Builder.create(this, "RdsInstanceId")
-        .description("RDS instance identifier")
-        .value(rdsInstance.getInstanceIdentifier())
-        .exportName(getResourceName("rds-instance-id"))
-        .build();
-
-    CfnOutput.Builder.create(this, "RdsEndpoint")
-        .description("RDS instance endpoint")
-        .value(rdsInstance.getInstanceEndpoint().getHostname())
-        .exportName(getResourceName("rds-endpoint"))
-        .build();
-
-    CfnOutput.Builder.create(this, "RdsPort")
-        .description("RDS instance port")
-        .value(rdsInstance.getInstanceEndpoint().getPort().toString())
-        .exportName(getResourceName("rds-port"))
-        .build();
-
-    // S3 CloudTrail bucket output (only if CloudTrail is enabled)
-    if (enableCloudTrail && cloudTrailBucket != null) {
-      CfnOutput.Builder.create(this, "CloudTrailBucketName")
-          .description("CloudTrail S3 bucket name")
-          .value(cloudTrailBucket.getBucketName())
-          .exportName(getResourceName("cloudtrail-bucket"))
-          .build();
+  /** Tags and synth-time guardrails shared by every stack of either layout. */
+  static void applyDefaults(Stack stack, StackConfiguration config) {
+    // Apply consistent tags to all resources
+    Tags.of(stack).add("Project", config.getProjectName());
+    Tags.of(stack).add("Environment", config.getEnvironment());
+    Tags.of(stack).add("ManagedBy", "CDK");
+    Tags.of(stack).add("Owner", config.getOwner());
+    Tags.of(stack).add("CostCenter", config.getCostCenter());
+
+    // Flag slow or risky choices (gp2, burstable prod DBs, single NAT...) at synth time
+    if (!"off".equals(config.getGuardrailMode())) {
+      Aspects.of(stack).add(new PerformanceGuardrails(config));
     }
-
-    // SNS topic output
-    CfnOutput.Builder.create(this, "AlertTopicArn")
-        .description("SNS topic ARN for alerts")
-        .value(alertTopic.getTopicArn())
-        .exportName(getResourceName("alert-topic-arn"))
-        .build();
-
-    // KMS key output
-    CfnOutput.Builder.create(this, "KmsKeyId")
-        .description("KMS key ID for encryption")
-        .value(kmsKey.getKeyId())
-        .exportName(getResourceName("kms-key-id"))
-        .build();
-
-    CfnOutput.Builder.create(this, "KmsKeyArn")
-        .description("KMS key ARN for encryption")
-        .value(kmsKey.getKeyArn())
-        .exportName(getResourceName("kms-key-arn"))
-        .build();
-
-    // CloudTrail status output
-    CfnOutput.Builder.create(this, "CloudTrailEnabled")
-        .description("Whether CloudTrail is enabled")
-        .value(enableCloudTrail.toString())
-        .exportName(getResourceName("cloudtrail-enabled"))
-        .build();
-
-    // Region and account information
-    CfnOutput.Builder.create(this, "Region")
-        .description("AWS region where resources are deployed")
-        .value(this.getRegion())
-        .exportName(getResourceName("region"))
-        .build();
-
-    CfnOutput.Builder.create(this, "Account")
-        .description("AWS account ID")
-        .value(this.getAccount())
-        .exportName(getResourceName("account"))
-        .build();
   }
 }
 
 class StackConfiguration {
+  /** Parsed override files, read once per app. */
+  private static final Map<App, Map<String, Object>> OVERRIDES = new WeakHashMap<>();
+
   private final String projectName;
   private final String environment;
   private final String environmentSuffix;
@@ -491,10 +118,92 @@ class StackConfiguration {
   private final String costCenter;
   private final String artifactBucketName;
   private final List<Integer> extraEgressPorts;
-
-  private StackConfiguration(String projectName, String environment, String environmentSuffix, String officeCidr,
-      String alertEmail, String region, String owner, String costCenter, String artifactBucketName,
-      List<Integer> extraEgressPorts) {
+  private final boolean ipv6Enabled;
+  private final String officeIpv6Cidr;
+  private final String vpcCidr;
+  private final int maxAzs;
+  private final int natGateways;
+  private final int publicSubnetMask;
+  private final int privateSubnetMask;
+  private final int databaseSubnetMask;
+  private final int cacheSubnetMask;
+  private final String kmsKeyMode;
+  private final int kmsQuotaAlarmPercent;
+  private final boolean sessionStoreEnabled;
+  private final boolean daxEnabled;
+  private final String daxNodeType;
+  private final int daxNodes;
+  private final boolean workQueueEnabled;
+  private final String workerInstanceType;
+  private final int workerMinCapacity;
+  private final int workerMaxCapacity;
+  private final int workQueueVisibilityTimeoutSeconds;
+  private final int workQueueMaxReceiveCount;
+  private final int workQueueBacklogPerWorker;
+  private final int workQueueMaxAgeSeconds;
+  private final boolean loadBalancerEnabled;
+  private final String healthCheckPath;
+  private final boolean accessLogAnalyticsEnabled;
+  private final int accessLogRetentionDays;
+  private final String accessLogProjectionStart;
+  private final int athenaBytesScannedCutoffMb;
+  private final boolean logPipelineEnabled;
+  private final boolean faultInjectionEnabled;
+  private final int fisDurationMinutes;
+  private final int fisLatencyMs;
+  private final int fisPacketLossPercent;
+  private final int fisCpuLoadPercent;
+  private final int logGroupRetentionDays;
+  private final int logArchiveRetentionDays;
+  private final int logBufferIntervalSeconds;
+  private final int logBufferSizeMb;
+  private final boolean tracingEnabled;
+  private final String tracingSamplingRules;
+  private final String webInstanceType;
+  private final String webRootVolumeType;
+  private final String webComputeMode;
+  private final String webContainerImage;
+  private final int webTaskCpu;
+  private final int webTaskMemoryMib;
+  private final int webMinTasks;
+  private final int webMaxTasks;
+  private final int webCpuTargetPercent;
+  private final int webRequestsPerTarget;
+  private final int fargateBaseTasks;
+  private final int fargateWeight;
+  private final int fargateSpotWeight;
+  private final String dbInstanceType;
+  private final int dbAllocatedStorage;
+  private final int dbMaxAllocatedStorage;
+  private final String dbStorageType;
+  private final int dbIops;
+  private final int dbMaxConnections;
+  private final String dbEngineVersion;
+  private final boolean dbOptimizedReads;
+  private final boolean dbOptimizedWrites;
+  private final List<String> peakHoursUtc;
+  private final String maintenanceDay;
+  private final String dbBackupWindow;
+  private final String dbMaintenanceWindow;
+  private final String detectionMode;
+  private final int anomalyBandWidth;
+  private final String guardrailMode;
+  private final List<String> guardrailStorageTypes;
+  private final List<String> guardrailStrictEnvironments;
+  private final List<String> guardrailDbDisallowedFamilies;
+  private final int guardrailMinAzs;
+  private final List<String> guardrailSuppressions;
+  private final String stackLayout;
+  private final boolean globalAcceleratorEnabled;
+  private final List<Integer> acceleratorEndpointWeights;
+  private final int acceleratorTrafficDialPercent;
+  private final int acceleratorHealthCheckIntervalSeconds;
+  private final int acceleratorHealthCheckThreshold;
+  private final boolean acceleratorPreserveClientIp;
+
+  private StackConfiguration(App app, String projectName, String environment, String environmentSuffix,
+      String officeCidr, String alertEmail, String region, String owner, String costCenter,
+      String artifactBucketName, List<Integer> extraEgressPorts) {
     this.projectName = projectName;
     this.environment = environment;
     this.environmentSuffix = environmentSuffix;
@@ -505,10 +214,265 @@ class StackConfiguration {
     this.costCenter = costCenter;
     this.artifactBucketName = artifactBucketName;
     this.extraEgressPorts = extraEgressPorts;
+
+    // Feature settings resolved directly from env vars / context
+    this.ipv6Enabled = flag(app, "ENABLE_IPV6", "enableIpv6", false);
+    this.officeIpv6Cidr = setting(app, "OFFICE_IPV6_CIDR", "officeIpv6Cidr", null);
+    this.vpcCidr = setting(app, "VPC_CIDR", "vpcCidr", "10.0.0.0/16");
+    this.maxAzs = intSetting(app, "MAX_AZS", "maxAzs", 2);
+    // 0 (default) is one NAT gateway per AZ the VPC actually uses; set to 1 for a single shared gateway
+    this.natGateways = intSetting(app, "NAT_GATEWAYS", "natGateways", 0);
+    if (natGateways < 0) {
+      throw new IllegalArgumentException("natGateways must not be negative: " + natGateways);
+    }
+    this.publicSubnetMask = intSetting(app, "PUBLIC_SUBNET_MASK", "publicSubnetMask", 24);
+    this.privateSubnetMask = intSetting(app, "PRIVATE_SUBNET_MASK", "privateSubnetMask", 24);
+    // Optional isolated tiers; 0 disables the tier
+    this.databaseSubnetMask = intSetting(app, "DATABASE_SUBNET_MASK", "databaseSubnetMask", 0);
+    this.cacheSubnetMask = intSetting(app, "CACHE_SUBNET_MASK", "cacheSubnetMask", 0);
+    this.kmsKeyMode = setting(app, "KMS_KEY_MODE", "kmsKeyMode", "shared");
+    if (!Arrays.asList("shared", "per-tier", "per-service").contains(kmsKeyMode)) {
+      throw new IllegalArgumentException("kmsKeyMode must be shared, per-tier or per-service: " + kmsKeyMode);
+    }
+    this.kmsQuotaAlarmPercent = intSetting(app, "KMS_QUOTA_ALARM_PERCENT", "kmsQuotaAlarmPercent", 80);
+    this.sessionStoreEnabled = flag(app, "ENABLE_SESSION_STORE", "enableSessionStore", false);
+    this.daxEnabled = flag(app, "ENABLE_DAX", "enableDax", false);
+    this.daxNodeType = setting(app, "DAX_NODE_TYPE", "daxNodeType", "dax.t3.small");
+    this.daxNodes = intSetting(app, "DAX_NODES", "daxNodes", maxAzs);
+    this.workQueueEnabled = flag(app, "ENABLE_WORK_QUEUE", "enableWorkQueue", false);
+    this.workerInstanceType = setting(app, "WORKER_INSTANCE_TYPE", "workerInstanceType", "t3.medium");
+    this.workerMinCapacity = intSetting(app, "WORKER_MIN_CAPACITY", "workerMinCapacity", 1);
+    this.workerMaxCapacity = intSetting(app, "WORKER_MAX_CAPACITY", "workerMaxCapacity", 4);
+    this.workQueueVisibilityTimeoutSeconds = intSetting(app, "WORK_QUEUE_VISIBILITY_TIMEOUT_SECONDS",
+        "workQueueVisibilityTimeoutSeconds", 300);
+    this.workQueueMaxReceiveCount = intSetting(app, "WORK_QUEUE_MAX_RECEIVE_COUNT", "workQueueMaxReceiveCount", 5);
+    this.workQueueBacklogPerWorker = intSetting(app, "WORK_QUEUE_BACKLOG_PER_WORKER",
+        "workQueueBacklogPerWorker", 100);
+    this.workQueueMaxAgeSeconds = intSetting(app, "WORK_QUEUE_MAX_AGE_SECONDS", "workQueueMaxAgeSeconds", 300);
+    this.loadBalancerEnabled = flag(app, "ENABLE_LOAD_BALANCER", "enableLoadBalancer", false);
+    this.healthCheckPath = setting(app, "HEALTH_CHECK_PATH", "healthCheckPath", "/");
+    this.accessLogAnalyticsEnabled = flag(app, "ENABLE_ACCESS_LOG_ANALYTICS", "enableAccessLogAnalytics", false);
+    if (accessLogAnalyticsEnabled && !loadBalancerEnabled) {
+      throw new IllegalArgumentException("enableAccessLogAnalytics requires enableLoadBalancer");
+    }
+    this.accessLogRetentionDays = intSetting(app, "ACCESS_LOG_RETENTION_DAYS", "accessLogRetentionDays", 90);
+    // First day Athena partition projection will consider, yyyy/MM/dd
+    this.accessLogProjectionStart = setting(app, "ACCESS_LOG_PROJECTION_START", "accessLogProjectionStart",
+        "2024/01/01");
+    this.athenaBytesScannedCutoffMb = intSetting(app, "ATHENA_BYTES_SCANNED_CUTOFF_MB",
+        "athenaBytesScannedCutoffMb", 10240);
+    this.faultInjectionEnabled = flag(app, "ENABLE_FAULT_INJECTION", "enableFaultInjection", false);
+    this.fisDurationMinutes = intSetting(app, "FIS_DURATION_MINUTES", "fisDurationMinutes", 5);
+    if (fisDurationMinutes < 1 || fisDurationMinutes > 720) {
+      throw new IllegalArgumentException("fisDurationMinutes must be between 1 and 720: " + fisDurationMinutes);
+    }
+    this.fisLatencyMs = intSetting(app, "FIS_LATENCY_MS", "fisLatencyMs", 200);
+    if (fisLatencyMs < 1) {
+      throw new IllegalArgumentException("fisLatencyMs must be positive: " + fisLatencyMs);
+    }
+    this.fisPacketLossPercent = intSetting(app, "FIS_PACKET_LOSS_PERCENT", "fisPacketLossPercent", 10);
+    if (fisPacketLossPercent < 1 || fisPacketLossPercent > 100) {
+      throw new IllegalArgumentException("fisPacketLossPercent must be between 1 and 100: " + fisPacketLossPercent);
+    }
+    // Below the 80% CPU alarm, so only real load on top of the stress stops the drill
+    this.fisCpuLoadPercent = intSetting(app, "FIS_CPU_LOAD_PERCENT", "fisCpuLoadPercent", 60);
+    if (fisCpuLoadPercent < 1 || fisCpuLoadPercent > 100) {
+      throw new IllegalArgumentException("fisCpuLoadPercent must be between 1 and 100: " + fisCpuLoadPercent);
+    }
+    this.logPipelineEnabled = flag(app, "ENABLE_LOG_PIPELINE", "enableLogPipeline", false);
+    // CloudWatch Logs keeps only recent events; the Parquet archive keeps the rest
+    this.logGroupRetentionDays = intSetting(app, "LOG_GROUP_RETENTION_DAYS", "logGroupRetentionDays", 7);
+    if (!LogPipeline.LOG_GROUP_RETENTION_DAYS.contains(logGroupRetentionDays)) {
+      throw new IllegalArgumentException("logGroupRetentionDays must be one of " + LogPipeline.LOG_GROUP_RETENTION_DAYS
+          + ": " + logGroupRetentionDays);
+    }
+    this.logArchiveRetentionDays = intSetting(app, "LOG_ARCHIVE_RETENTION_DAYS", "logArchiveRetentionDays", 365);
+    if (logArchiveRetentionDays < 1) {
+      throw new IllegalArgumentException("logArchiveRetentionDays must be positive: " + logArchiveRetentionDays);
+    }
+    this.logBufferIntervalSeconds = intSetting(app, "LOG_BUFFER_INTERVAL_SECONDS", "logBufferIntervalSeconds", 300);
+    if (logBufferIntervalSeconds < 0 || logBufferIntervalSeconds > 900) {
+      throw new IllegalArgumentException("logBufferIntervalSeconds must be between 0 and 900: "
+          + logBufferIntervalSeconds);
+    }
+    this.logBufferSizeMb = intSetting(app, "LOG_BUFFER_SIZE_MB", "logBufferSizeMb", 128);
+    if (logBufferSizeMb < LogPipeline.MIN_BUFFER_SIZE_MB || logBufferSizeMb > 128) {
+      throw new IllegalArgumentException("logBufferSizeMb must be between 64 and 128 for Parquet conversion: "
+          + logBufferSizeMb);
+    }
+    this.tracingEnabled = flag(app, "ENABLE_TRACING", "enableTracing", false);
+    // urlPath:reservoir:rate, first match wins; health checks are not traced by default
+    this.tracingSamplingRules = setting(app, "TRACING_SAMPLING_RULES", "tracingSamplingRules",
+        "/health*:0:0,*:1:0.05");
+    if (tracingEnabled) {
+      XRayTracing.parseRules(tracingSamplingRules);
+    }
+    // Sizing; RightsizingReport writes recommended values for these keys
+    this.webInstanceType = setting(app, "WEB_INSTANCE_TYPE", "webInstanceType", "t3.medium");
+    // Unset keeps the AMI's root volume; setting it replaces the web instances
+    String rootVolumeType = setting(app, "WEB_ROOT_VOLUME_TYPE", "webRootVolumeType", null);
+    this.webRootVolumeType = rootVolumeType == null ? null : rootVolumeType.toLowerCase();
+    if (webRootVolumeType != null && !Arrays.asList("gp2", "gp3").contains(webRootVolumeType)) {
+      throw new IllegalArgumentException("webRootVolumeType must be gp2 or gp3: " + webRootVolumeType);
+    }
+    this.dbInstanceType = setting(app, "DB_INSTANCE_TYPE", "dbInstanceType", "t3.micro");
+    this.dbAllocatedStorage = intSetting(app, "DB_ALLOCATED_STORAGE", "dbAllocatedStorage", 20);
+    this.dbMaxAllocatedStorage = intSetting(app, "DB_MAX_ALLOCATED_STORAGE", "dbMaxAllocatedStorage", 100);
+    // 0 turns storage autoscaling off; RDS for MySQL volumes stop at 64 TiB
+    if (dbMaxAllocatedStorage > 65536) {
+      throw new IllegalArgumentException("dbMaxAllocatedStorage must not exceed 65536 GiB: " + dbMaxAllocatedStorage);
+    }
+    if (dbMaxAllocatedStorage != 0 && dbMaxAllocatedStorage < dbAllocatedStorage) {
+      throw new IllegalArgumentException(String.format(
+          "dbMaxAllocatedStorage (%d) must not be below dbAllocatedStorage (%d)",
+          dbMaxAllocatedStorage, dbAllocatedStorage));
+    }
+    this.dbStorageType = setting(app, "DB_STORAGE_TYPE", "dbStorageType", "gp2").toLowerCase();
+    if (!Arrays.asList("gp2", "gp3", "io1", "io2").contains(dbStorageType)) {
+      throw new IllegalArgumentException("dbStorageType must be gp2, gp3, io1 or io2: " + dbStorageType);
+    }
+    // 0 keeps the storage type's baseline IOPS
+    this.dbIops = intSetting(app, "DB_IOPS", "dbIops", 0);
+    // RDS MySQL takes gp3 IOPS only from 400 GiB, where the baseline is already 12000
+    if ("gp3".equals(dbStorageType) && dbIops > 0
+        && (dbAllocatedStorage < RightsizingReport.GP3_PROVISIONED_IOPS_MIN_STORAGE
+            || dbIops < RightsizingReport.GP3_LARGE_VOLUME_BASELINE_IOPS || dbIops > RightsizingReport.GP3_MAX_IOPS)) {
+      throw new IllegalArgumentException(String.format(
+          "dbIops on gp3 needs dbAllocatedStorage of at least 400 GiB and 12000 to 64000 IOPS: %d IOPS, %d GiB",
+          dbIops, dbAllocatedStorage));
+    }
+    // 0 keeps the engine default (instance memory / 12 MiB); CapacityPlanner sizes this
+    this.dbMaxConnections = intSetting(app, "DB_MAX_CONNECTIONS", "dbMaxConnections", 0);
+    if (dbMaxConnections < 0) {
+      throw new IllegalArgumentException("dbMaxConnections must not be negative: " + dbMaxConnections);
+    }
+    // 8.0 tracks the latest 8.0 minor; pin e.g. 8.0.36 for Optimized Reads/Writes
+    this.dbEngineVersion = setting(app, "DB_ENGINE_VERSION", "dbEngineVersion", "8.0");
+    if (!dbEngineVersion.matches("8\\.0(\\.\\d+)?")) {
+      throw new IllegalArgumentException("dbEngineVersion must be 8.0 or 8.0.<minor>: " + dbEngineVersion);
+    }
+    this.dbOptimizedReads = flag(app, "DB_OPTIMIZED_READS", "dbOptimizedReads", false);
+    this.dbOptimizedWrites = flag(app, "DB_OPTIMIZED_WRITES", "dbOptimizedWrites", false);
+    // Backup and maintenance windows default into the longest gap between peak hours (UTC);
+    // with neither peaks nor explicit windows RDS picks random slots
+    this.peakHoursUtc = parseList(setting(app, "PEAK_HOURS_UTC", "peakHoursUtc", null));
+    List<MaintenanceWindowPlanner.Window> peaks = MaintenanceWindowPlanner.parsePeakHours(peakHoursUtc);
+    this.maintenanceDay = setting(app, "MAINTENANCE_DAY", "maintenanceDay", "sun").toLowerCase();
+    MaintenanceWindowPlanner.dayIndex(maintenanceDay);
+    this.dbBackupWindow = setting(app, "DB_BACKUP_WINDOW", "dbBackupWindow",
+        peaks.isEmpty() ? null : MaintenanceWindowPlanner.backupWindow(peaks));
+    this.dbMaintenanceWindow = setting(app, "DB_MAINTENANCE_WINDOW", "dbMaintenanceWindow",
+        peaks.isEmpty() ? null : MaintenanceWindowPlanner.maintenanceWindow(peaks, maintenanceDay));
+    MaintenanceWindowPlanner.validate(dbBackupWindow, dbMaintenanceWindow, peaks);
+    this.detectionMode = setting(app, "DETECTION_MODE", "detectionMode", "standard");
+    if (!Arrays.asList("standard", "fast").contains(detectionMode)) {
+      throw new IllegalArgumentException("detectionMode must be standard or fast: " + detectionMode);
+    }
+    // Standard mode has no data tier alarm and only per-instance CPU alarms for the web tier,
+    // so a failover or latency drill could run to the end while users see errors
+    if (faultInjectionEnabled && !"fast".equals(detectionMode)) {
+      throw new IllegalArgumentException("enableFaultInjection requires detectionMode=fast, whose web-tier and"
+          + " data-tier composite alarms stop the experiments");
+    }
+    // Anomaly band width in standard deviations; wider bands page less often
+    this.anomalyBandWidth = intSetting(app, "ANOMALY_BAND_WIDTH", "anomalyBandWidth", 2);
+    // Performance policy checked by the PerformanceGuardrails aspect
+    this.guardrailMode = setting(app, "GUARDRAIL_MODE", "guardrailMode", "warn");
+    if (!Arrays.asList("off", "warn", "error").contains(guardrailMode)) {
+      throw new IllegalArgumentException("guardrailMode must be off, warn or error: " + guardrailMode);
+    }
+    this.guardrailStorageTypes = parseList(setting(app, "GUARDRAIL_STORAGE_TYPES", "guardrailStorageTypes",
+        "gp3,io1,io2"));
+    this.guardrailStrictEnvironments = parseList(setting(app, "GUARDRAIL_STRICT_ENVIRONMENTS",
+        "guardrailStrictEnvironments", "prod"));
+    this.guardrailDbDisallowedFamilies = parseList(setting(app, "GUARDRAIL_DB_DISALLOWED_FAMILIES",
+        "guardrailDbDisallowedFamilies", "t2,t3,t3a,t4g"));
+    this.guardrailMinAzs = intSetting(app, "GUARDRAIL_MIN_AZS", "guardrailMinAzs", 2);
+    // rule or rule:constructPathPrefix
+    this.guardrailSuppressions = parseList(setting(app, "GUARDRAIL_SUPPRESSIONS", "guardrailSuppressions", null));
+    // single keeps one TapStack; split deploys network, data and web tiers as separate stacks
+    this.stackLayout = setting(app, "STACK_LAYOUT", "stackLayout", "single");
+    if (!Arrays.asList("single", "split").contains(stackLayout)) {
+      throw new IllegalArgumentException("stackLayout must be single or split: " + stackLayout);
+    }
+    // Static anycast entry point in front of the ALB (or the instances without one)
+    this.globalAcceleratorEnabled = flag(app, "ENABLE_GLOBAL_ACCELERATOR", "enableGlobalAccelerator", false);
+    // One weight per endpoint in order (ALB, or instance 1, 2, ...); missing entries get 128
+    this.acceleratorEndpointWeights = parseList(setting(app, "ACCELERATOR_ENDPOINT_WEIGHTS",
+        "acceleratorEndpointWeights", null)).stream()
+        .map(Integer::valueOf)
+        .collect(Collectors.toList());
+    for (Integer weight : acceleratorEndpointWeights) {
+      if (weight < 0 || weight > 255) {
+        throw new IllegalArgumentException("acceleratorEndpointWeights must be between 0 and 255: " + weight);
+      }
+    }
+    this.acceleratorTrafficDialPercent = intSetting(app, "ACCELERATOR_TRAFFIC_DIAL_PERCENT",
+        "acceleratorTrafficDialPercent", 100);
+    if (acceleratorTrafficDialPercent < 0 || acceleratorTrafficDialPercent > 100) {
+      throw new IllegalArgumentException(
+          "acceleratorTrafficDialPercent must be between 0 and 100: " + acceleratorTrafficDialPercent);
+    }
+    this.acceleratorHealthCheckIntervalSeconds = intSetting(app, "ACCELERATOR_HEALTH_CHECK_INTERVAL_SECONDS",
+        "acceleratorHealthCheckIntervalSeconds", 10);
+    if (acceleratorHealthCheckIntervalSeconds != 10 && acceleratorHealthCheckIntervalSeconds != 30) {
+      throw new IllegalArgumentException(
+          "acceleratorHealthCheckIntervalSeconds must be 10 or 30: " + acceleratorHealthCheckIntervalSeconds);
+    }
+    this.acceleratorHealthCheckThreshold = intSetting(app, "ACCELERATOR_HEALTH_CHECK_THRESHOLD",
+        "acceleratorHealthCheckThreshold", 3);
+    if (acceleratorHealthCheckThreshold < 1 || acceleratorHealthCheckThreshold > 10) {
+      throw new IllegalArgumentException(
+          "acceleratorHealthCheckThreshold must be between 1 and 10: " + acceleratorHealthCheckThreshold);
+    }
+    this.acceleratorPreserveClientIp = flag(app, "ACCELERATOR_PRESERVE_CLIENT_IP", "acceleratorPreserveClientIp",
+        true);
+    // ec2 runs one instance per AZ; fargate runs an auto-scaled ECS service in the same subnets and SG
+    this.webComputeMode = setting(app, "WEB_COMPUTE_MODE", "webComputeMode", "ec2");
+    if (!Arrays.asList("ec2", "fargate").contains(webComputeMode)) {
+      throw new IllegalArgumentException("webComputeMode must be ec2 or fargate: " + webComputeMode);
+    }
+    // Registry image, or ecr:<repository>[:<tag>] for a repository in the deployment account
+    this.webContainerImage = setting(app, "WEB_CONTAINER_IMAGE", "webContainerImage",
+        "public.ecr.aws/nginx/nginx:stable");
+    this.webTaskCpu = intSetting(app, "WEB_TASK_CPU", "webTaskCpu", 512);
+    this.webTaskMemoryMib = intSetting(app, "WEB_TASK_MEMORY_MIB", "webTaskMemoryMib", 1024);
+    this.webMinTasks = intSetting(app, "WEB_MIN_TASKS", "webMinTasks", maxAzs);
+    this.webMaxTasks = intSetting(app, "WEB_MAX_TASKS", "webMaxTasks", 10);
+    this.webCpuTargetPercent = intSetting(app, "WEB_CPU_TARGET_PERCENT", "webCpuTargetPercent", 60);
+    this.webRequestsPerTarget = intSetting(app, "WEB_REQUESTS_PER_TARGET", "webRequestsPerTarget", 1000);
+    this.fargateBaseTasks = intSetting(app, "FARGATE_BASE_TASKS", "fargateBaseTasks", 1);
+    this.fargateWeight = intSetting(app, "FARGATE_WEIGHT", "fargateWeight", 1);
+    this.fargateSpotWeight = intSetting(app, "FARGATE_SPOT_WEIGHT", "fargateSpotWeight", 1);
+    if (isFargateWeb()) {
+      WebFargateService.validateTaskSize(webTaskCpu, webTaskMemoryMib);
+      if (webMinTasks < 1 || webMaxTasks < webMinTasks) {
+        throw new IllegalArgumentException(String.format(
+            "webMinTasks (%d) must be at least 1 and not above webMaxTasks (%d)", webMinTasks, webMaxTasks));
+      }
+      if (webCpuTargetPercent < 10 || webCpuTargetPercent > 90) {
+        throw new IllegalArgumentException("webCpuTargetPercent must be between 10 and 90: " + webCpuTargetPercent);
+      }
+      if (fargateBaseTasks < 0 || fargateWeight < 0 || fargateSpotWeight < 0
+          || fargateWeight + fargateSpotWeight == 0) {
+        throw new IllegalArgumentException("fargateBaseTasks and weights must not be negative, and one weight must"
+            + " be positive");
+      }
+      // The X-Ray daemon is installed on the instances; tasks would need it as a sidecar
+      if (tracingEnabled) {
+        throw new IllegalArgumentException("enableTracing requires webComputeMode=ec2");
+      }
+      // Without the ALB tasks only get office ingress, request-count scaling has no target
+      // group and the accelerator has no endpoint
+      if (!loadBalancerEnabled) {
+        throw new IllegalArgumentException("webComputeMode=fargate requires enableLoadBalancer");
+      }
+    }
   }
 
   public static StackConfiguration from(App app) {
     return new StackConfiguration(
+        app,
         coalesce(
             System.getenv("PROJECT_NAME"),
             getContextString(app, "projectName"),
@@ -570,6 +534,20 @@ class StackConfiguration {
     return null;
   }
 
+  private static String setting(App app, String envVar, String contextKey, String defaultValue) {
+    return coalesce(System.getenv(envVar), getContextString(app, contextKey), defaultValue);
+  }
+
+  private static boolean flag(App app, String envVar, String contextKey, boolean defaultValue) {
+    String value = setting(app, envVar, contextKey, null);
+    return value != null ? Boolean.parseBoolean(value) : defaultValue;
+  }
+
+  private static int intSetting(App app, String envVar, String contextKey, int defaultValue) {
+    String value = setting(app, envVar, contextKey, null);
+    return value != null ? Integer.parseInt(value) : defaultValue;
+  }
+
   private static List<Integer> parsePorts(String value) {
     if (value == null || value.isBlank()) {
       return List.of();
@@ -581,11 +559,52 @@ class StackConfiguration {
         .collect(Collectors.toList());
   }
 
+  private static List<String> parseList(String value) {
+    if (value == null || value.isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(v -> !v.isEmpty())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Context lookup; values from the optional JSON override file
+   * ({@code CONFIG_OVERRIDE_FILE} / {@code configOverrideFile}) take precedence
+   * over CDK context, environment variables still win over both.
+   */
   private static String getContextString(App app, String key) {
+    Object override = overrides(app).get(key);
+    if (override != null) {
+      return String.valueOf(override);
+    }
     Object value = app.getNode().tryGetContext(key);
     return value != null ? String.valueOf(value) : null;
   }
 
+  private static Map<String, Object> overrides(App app) {
+    synchronized (OVERRIDES) {
+      return OVERRIDES.computeIfAbsent(app, StackConfiguration::readOverrides);
+    }
+  }
+
+  private static Map<String, Object> readOverrides(App app) {
+    Object contextPath = app.getNode().tryGetContext("configOverrideFile");
+    String path = coalesce(System.getenv("CONFIG_OVERRIDE_FILE"),
+        contextPath != null ? String.valueOf(contextPath) : null);
+    if (path == null) {
+      return Map.of();
+    }
+    try {
+      return new ObjectMapper().readValue(Files.readString(Path.of(path)),
+          new TypeReference<Map<String, Object>>() {
+          });
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot read config override file " + path + ": " + e.getMessage(), e);
+    }
+  }
+
   private static String readFileIfExists(String path) {
     try {
       if (Files.exists(Path.of(path))) {
@@ -636,6 +655,355 @@ class StackConfiguration {
     return extraEgressPorts;
   }
 
+  public boolean isIpv6Enabled() {
+    return ipv6Enabled;
+  }
+
+  public String getOfficeIpv6Cidr() {
+    return officeIpv6Cidr;
+  }
+
+  public String getVpcCidr() {
+    return vpcCidr;
+  }
+
+  public int getMaxAzs() {
+    return maxAzs;
+  }
+
+  public int getNatGateways() {
+    return natGateways;
+  }
+
+  public int getPublicSubnetMask() {
+    return publicSubnetMask;
+  }
+
+  public int getPrivateSubnetMask() {
+    return privateSubnetMask;
+  }
+
+  public int getDatabaseSubnetMask() {
+    return databaseSubnetMask;
+  }
+
+  public int getCacheSubnetMask() {
+    return cacheSubnetMask;
+  }
+
+  public String getKmsKeyMode() {
+    return kmsKeyMode;
+  }
+
+  public int getKmsQuotaAlarmPercent() {
+    return kmsQuotaAlarmPercent;
+  }
+
+  public boolean isSessionStoreEnabled() {
+    return sessionStoreEnabled;
+  }
+
+  public boolean isDaxEnabled() {
+    return daxEnabled;
+  }
+
+  public String getDaxNodeType() {
+    return daxNodeType;
+  }
+
+  public int getDaxNodes() {
+    return daxNodes;
+  }
+
+  public boolean isWorkQueueEnabled() {
+    return workQueueEnabled;
+  }
+
+  public String getWorkerInstanceType() {
+    return workerInstanceType;
+  }
+
+  public int getWorkerMinCapacity() {
+    return workerMinCapacity;
+  }
+
+  public int getWorkerMaxCapacity() {
+    return workerMaxCapacity;
+  }
+
+  public int getWorkQueueVisibilityTimeoutSeconds() {
+    return workQueueVisibilityTimeoutSeconds;
+  }
+
+  public int getWorkQueueMaxReceiveCount() {
+    return workQueueMaxReceiveCount;
+  }
+
+  public int getWorkQueueBacklogPerWorker() {
+    return workQueueBacklogPerWorker;
+  }
+
+  public int getWorkQueueMaxAgeSeconds() {
+    return workQueueMaxAgeSeconds;
+  }
+
+  public boolean isLoadBalancerEnabled() {
+    return loadBalancerEnabled;
+  }
+
+  public String getHealthCheckPath() {
+    return healthCheckPath;
+  }
+
+  public boolean isAccessLogAnalyticsEnabled() {
+    return accessLogAnalyticsEnabled;
+  }
+
+  public int getAccessLogRetentionDays() {
+    return accessLogRetentionDays;
+  }
+
+  public String getAccessLogProjectionStart() {
+    return accessLogProjectionStart;
+  }
+
+  public int getAthenaBytesScannedCutoffMb() {
+    return athenaBytesScannedCutoffMb;
+  }
+
+  public boolean isFaultInjectionEnabled() {
+    return faultInjectionEnabled;
+  }
+
+  public int getFisDurationMinutes() {
+    return fisDurationMinutes;
+  }
+
+  public int getFisLatencyMs() {
+    return fisLatencyMs;
+  }
+
+  public int getFisPacketLossPercent() {
+    return fisPacketLossPercent;
+  }
+
+  public int getFisCpuLoadPercent() {
+    return fisCpuLoadPercent;
+  }
+
+  public boolean isLogPipelineEnabled() {
+    return logPipelineEnabled;
+  }
+
+  public int getLogGroupRetentionDays() {
+    return logGroupRetentionDays;
+  }
+
+  public int getLogArchiveRetentionDays() {
+    return logArchiveRetentionDays;
+  }
+
+  public int getLogBufferIntervalSeconds() {
+    return logBufferIntervalSeconds;
+  }
+
+  public int getLogBufferSizeMb() {
+    return logBufferSizeMb;
+  }
+
+  public String getWebInstanceType() {
+    return webInstanceType;
+  }
+
+  /** EBS type to pin the web instances' root volume to, or null to keep the AMI default. */
+  public String getWebRootVolumeType() {
+    return webRootVolumeType;
+  }
+
+  public String getWebComputeMode() {
+    return webComputeMode;
+  }
+
+  public boolean isFargateWeb() {
+    return "fargate".equals(webComputeMode);
+  }
+
+  public String getWebContainerImage() {
+    return webContainerImage;
+  }
+
+  public int getWebTaskCpu() {
+    return webTaskCpu;
+  }
+
+  public int getWebTaskMemoryMib() {
+    return webTaskMemoryMib;
+  }
+
+  public int getWebMinTasks() {
+    return webMinTasks;
+  }
+
+  public int getWebMaxTasks() {
+    return webMaxTasks;
+  }
+
+  public int getWebCpuTargetPercent() {
+    return webCpuTargetPercent;
+  }
+
+  public int getWebRequestsPerTarget() {
+    return webRequestsPerTarget;
+  }
+
+  public int getFargateBaseTasks() {
+    return fargateBaseTasks;
+  }
+
+  public int getFargateWeight() {
+    return fargateWeight;
+  }
+
+  public int getFargateSpotWeight() {
+    return fargateSpotWeight;
+  }
+
+  public String getDbInstanceType() {
+    return dbInstanceType;
+  }
+
+  public int getDbAllocatedStorage() {
+    return dbAllocatedStorage;
+  }
+
+  public int getDbMaxAllocatedStorage() {
+    return dbMaxAllocatedStorage;
+  }
+
+  public String getDbStorageType() {
+    return dbStorageType;
+  }
+
+  public int getDbIops() {
+    return dbIops;
+  }
+
+  public int getDbMaxConnections() {
+    return dbMaxConnections;
+  }
+
+  public String getDbEngineVersion() {
+    return dbEngineVersion;
+  }
+
+  public boolean isDbOptimizedReads() {
+    return dbOptimizedReads;
+  }
+
+  public boolean isDbOptimizedWrites() {
+    return dbOptimizedWrites;
+  }
+
+  public List<String> getPeakHoursUtc() {
+    return peakHoursUtc;
+  }
+
+  public String getMaintenanceDay() {
+    return maintenanceDay;
+  }
+
+  public String getDbBackupWindow() {
+    return dbBackupWindow;
+  }
+
+  public String getDbMaintenanceWindow() {
+    return dbMaintenanceWindow;
+  }
+
+  public String getDetectionMode() {
+    return detectionMode;
+  }
+
+  public boolean isFastDetection() {
+    return "fast".equals(detectionMode);
+  }
+
+  public int getAnomalyBandWidth() {
+    return anomalyBandWidth;
+  }
+
+  public String getGuardrailMode() {
+    return guardrailMode;
+  }
+
+  public List<String> getGuardrailStorageTypes() {
+    return guardrailStorageTypes;
+  }
+
+  public List<String> getGuardrailStrictEnvironments() {
+    return guardrailStrictEnvironments;
+  }
+
+  public List<String> getGuardrailDbDisallowedFamilies() {
+    return guardrailDbDisallowedFamilies;
+  }
+
+  public int getGuardrailMinAzs() {
+    return guardrailMinAzs;
+  }
+
+  public List<String> getGuardrailSuppressions() {
+    return guardrailSuppressions;
+  }
+
+  public String getStackLayout() {
+    return stackLayout;
+  }
+
+  public boolean isSplitStackLayout() {
+    return "split".equals(stackLayout);
+  }
+
+  public boolean isGlobalAcceleratorEnabled() {
+    return globalAcceleratorEnabled;
+  }
+
+  public List<Integer> getAcceleratorEndpointWeights() {
+    return acceleratorEndpointWeights;
+  }
+
+  public int getAcceleratorTrafficDialPercent() {
+    return acceleratorTrafficDialPercent;
+  }
+
+  public int getAcceleratorHealthCheckIntervalSeconds() {
+    return acceleratorHealthCheckIntervalSeconds;
+  }
+
+  public int getAcceleratorHealthCheckThreshold() {
+    return acceleratorHealthCheckThreshold;
+  }
+
+  public boolean isAcceleratorPreserveClientIp() {
+    return acceleratorPreserveClientIp;
+  }
+
+  public boolean isTracingEnabled() {
+    return tracingEnabled;
+  }
+
+  public String getTracingSamplingRules() {
+    return tracingSamplingRules;
+  }
+
+  public String getResourceName(String resource) {
+    return String.format("%s-%s-%s", getProjectName(), getEnvironment(), resource);
+  }
+
+  public String getEndpointManifestParameterName() {
+    return String.format("/%s/%s/endpoint-manifest", getProjectName(), getEnvironment());
+  }
+
   public String getArtifactBucketArn() {
     String bucketName = getArtifactBucketName();
     if (bucketName != null && !bucketName.isBlank()) {
@@ -0,0 +1,220 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Places the RDS backup and maintenance windows in the longest off-peak gap of
+ * a daily peak-hours profile (UTC), and checks explicit windows against it.
+ *
+ * Backup snapshots briefly freeze I/O on the primary's storage and maintenance
+ * can patch or fail over the instance, so both belong where traffic is lowest.
+ * The derived layout is: {@link #BUFFER_MINUTES} after the peak ends, the
+ * backup window, another buffer, then the maintenance window on the
+ * configured day.
+ */
+final class MaintenanceWindowPlanner {
+  static final int MINUTES_PER_DAY = 24 * 60;
+  static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+  /** RDS requires both windows to be at least 30 minutes. */
+  static final int MIN_WINDOW_MINUTES = 30;
+  static final int BACKUP_MINUTES = 60;
+  static final int MAINTENANCE_MINUTES = 60;
+  /** Kept free around the windows so traffic ramps and long backups stay clear. */
+  static final int BUFFER_MINUTES = 30;
+  static final List<String> DAYS = Arrays.asList("mon", "tue", "wed", "thu", "fri", "sat", "sun");
+
+  private MaintenanceWindowPlanner() {
+  }
+
+  /** A daily interval in minutes since 00:00 UTC; may wrap past midnight. */
+  static final class Window {
+    final int start;
+    final int minutes;
+
+    Window(int start, int minutes) {
+      this.start = Math.floorMod(start, MINUTES_PER_DAY);
+      this.minutes = minutes;
+    }
+
+    boolean overlaps(Window other) {
+      return minutes >= MINUTES_PER_DAY || other.minutes >= MINUTES_PER_DAY
+          || Math.floorMod(other.start - start, MINUTES_PER_DAY) < minutes
+          || Math.floorMod(start - other.start, MINUTES_PER_DAY) < other.minutes;
+    }
+
+    @Override
+    public String toString() {
+      return time(start) + "-" + time(start + minutes);
+    }
+  }
+
+  /**
+   * Parses comma-separated {@code HH:MM-HH:MM} ranges in UTC, e.g.
+   * {@code 13:00-22:00,23:30-01:00}; a range ending before it starts wraps past midnight.
+   */
+  static List<Window> parsePeakHours(List<String> ranges) {
+    List<Window> peaks = new ArrayList<>();
+    for (String range : ranges) {
+      String[] parts = range.split("-");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Peak hours must be HH:MM-HH:MM ranges: " + range);
+      }
+      int start = parseTime(parts[0], range);
+      int end = parseTime(parts[1], range);
+      if (start == end) {
+        throw new IllegalArgumentException("Peak hours range is empty: " + range);
+      }
+      peaks.add(new Window(start, Math.floorMod(end - start, MINUTES_PER_DAY)));
+    }
+    return peaks;
+  }
+
+  /** Longest off-peak gap; the whole day when there are no peaks. */
+  static Window offPeak(List<Window> peaks) {
+    if (peaks.isEmpty()) {
+      return new Window(0, MINUTES_PER_DAY);
+    }
+    // Minute-by-minute is cheap at this size and handles wrapping and overlapping ranges alike
+    boolean[] busy = new boolean[MINUTES_PER_DAY];
+    for (Window peak : peaks) {
+      for (int m = 0; m < Math.min(peak.minutes, MINUTES_PER_DAY); m++) {
+        busy[(peak.start + m) % MINUTES_PER_DAY] = true;
+      }
+    }
+    Window best = null;
+    for (int start = 0; start < MINUTES_PER_DAY; start++) {
+      // A gap starts where a peak ends
+      if (busy[start] || !busy[Math.floorMod(start - 1, MINUTES_PER_DAY)]) {
+        continue;
+      }
+      int length = 0;
+      while (length < MINUTES_PER_DAY && !busy[(start + length) % MINUTES_PER_DAY]) {
+        length++;
+      }
+      if (best == null || length > best.minutes) {
+        best = new Window(start, length);
+      }
+    }
+    if (best == null) {
+      throw new IllegalArgumentException("Peak hours cover the whole day; there is no off-peak window");
+    }
+    return best;
+  }
+
+  /** Derived {@code hh24:mi-hh24:mi} backup window. */
+  static String backupWindow(List<Window> peaks) {
+    Window gap = checkedGap(peaks);
+    return new Window(gap.start + BUFFER_MINUTES, BACKUP_MINUTES).toString();
+  }
+
+  /** Derived {@code ddd:hh24:mi-ddd:hh24:mi} maintenance window starting on {@code day}, after the backup window. */
+  static String maintenanceWindow(List<Window> peaks, String day) {
+    Window gap = checkedGap(peaks);
+    int timeOfDay = Math.floorMod(gap.start + 2 * BUFFER_MINUTES + BACKUP_MINUTES, MINUTES_PER_DAY);
+    int start = dayIndex(day) * MINUTES_PER_DAY + timeOfDay;
+    return weekTime(start) + "-" + weekTime(start + MAINTENANCE_MINUTES);
+  }
+
+  /**
+   * Checks that the windows are long enough, do not overlap each other (backups
+   * run daily, so only the time of day matters) and stay out of the peak hours.
+   *
+   * @param backupWindow {@code hh24:mi-hh24:mi}, or null when RDS picks it
+   * @param maintenanceWindow {@code ddd:hh24:mi-ddd:hh24:mi}, or null when RDS picks it
+   * @throws IllegalArgumentException listing every problem
+   */
+  static void validate(String backupWindow, String maintenanceWindow, List<Window> peaks) {
+    List<String> problems = new ArrayList<>();
+    Window backup = backupWindow != null ? parseBackupWindow(backupWindow) : null;
+    Window maintenance = maintenanceWindow != null ? parseMaintenanceWindow(maintenanceWindow) : null;
+
+    if (backup != null && backup.minutes < MIN_WINDOW_MINUTES) {
+      problems.add("Backup window must be at least 30 minutes: " + backupWindow);
+    }
+    if (maintenance != null && maintenance.minutes < MIN_WINDOW_MINUTES) {
+      problems.add("Maintenance window must be at least 30 minutes: " + maintenanceWindow);
+    }
+    if (backup != null && maintenance != null && backup.overlaps(maintenance)) {
+      problems.add(String.format("Backup window %s overlaps maintenance window %s", backupWindow,
+          maintenanceWindow));
+    }
+    for (Window peak : peaks) {
+      if (backup != null && backup.overlaps(peak)) {
+        problems.add(String.format("Backup window %s overlaps peak hours %s", backupWindow, peak));
+      }
+      if (maintenance != null && maintenance.overlaps(peak)) {
+        problems.add(String.format("Maintenance window %s overlaps peak hours %s", maintenanceWindow, peak));
+      }
+    }
+
+    if (!problems.isEmpty()) {
+      throw new IllegalArgumentException(String.join("; ", problems));
+    }
+  }
+
+  static int dayIndex(String day) {
+    int index = DAYS.indexOf(day.toLowerCase(Locale.ROOT));
+    if (index < 0) {
+      throw new IllegalArgumentException("Day must be one of " + DAYS + ": " + day);
+    }
+    return index;
+  }
+
+  private static Window checkedGap(List<Window> peaks) {
+    Window gap = offPeak(peaks);
+    int needed = BACKUP_MINUTES + MAINTENANCE_MINUTES + 3 * BUFFER_MINUTES;
+    if (gap.minutes < needed) {
+      throw new IllegalArgumentException(String.format(
+          "Longest off-peak gap %s is %d minutes; backup and maintenance windows need %d", gap, gap.minutes,
+          needed));
+    }
+    return gap;
+  }
+
+  private static Window parseBackupWindow(String value) {
+    String[] parts = value.split("-");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Backup window must be hh24:mi-hh24:mi: " + value);
+    }
+    int start = parseTime(parts[0], value);
+    return new Window(start, Math.floorMod(parseTime(parts[1], value) - start, MINUTES_PER_DAY));
+  }
+
+  private static Window parseMaintenanceWindow(String value) {
+    String[] parts = value.split("-");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Maintenance window must be ddd:hh24:mi-ddd:hh24:mi: " + value);
+    }
+    int start = parseWeekTime(parts[0], value);
+    return new Window(start, Math.floorMod(parseWeekTime(parts[1], value) - start, MINUTES_PER_WEEK));
+  }
+
+  private static int parseWeekTime(String value, String window) {
+    int colon = value.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("Maintenance window must be ddd:hh24:mi-ddd:hh24:mi: " + window);
+    }
+    return dayIndex(value.substring(0, colon)) * MINUTES_PER_DAY + parseTime(value.substring(colon + 1), window);
+  }
+
+  private static int parseTime(String value, String range) {
+    if (!value.trim().matches("([01]\\d|2[0-3]):[0-5]\\d")) {
+      throw new IllegalArgumentException("Times must be HH:MM (UTC): " + range);
+    }
+    String[] parts = value.trim().split(":");
+    return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+  }
+
+  private static String time(int minutes) {
+    int m = Math.floorMod(minutes, MINUTES_PER_DAY);
+    return String.format("%02d:%02d", m / 60, m % 60);
+  }
+
+  private static String weekTime(int minutes) {
+    int m = Math.floorMod(minutes, MINUTES_PER_WEEK);
+    return DAYS.get(m / MINUTES_PER_DAY) + ":" + time(m);
+  }
+}
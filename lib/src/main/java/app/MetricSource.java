@@ -0,0 +1,71 @@
+package app;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk source of CloudWatch metric series, keyed by query id.
+ *
+ * Implemented by {@link CloudWatchMetricSource} for live accounts and by
+ * {@link FixtureMetricSource} for recorded data, so tools built on it can be
+ * tested without network access.
+ */
+interface MetricSource {
+
+  /**
+   * Returns the datapoints of every query between {@code start} and
+   * {@code end}. Queries without data map to an empty list.
+   */
+  Map<String, List<Double>> fetch(List<Query> queries, Instant start, Instant end);
+
+  /** One single-dimension metric statistic, as sent to GetMetricData. */
+  final class Query {
+    private final String id;
+    private final String namespace;
+    private final String metricName;
+    private final String dimensionName;
+    private final String dimensionValue;
+    private final String statistic;
+    private final int periodSeconds;
+
+    Query(String id, String namespace, String metricName, String dimensionName, String dimensionValue,
+        String statistic, int periodSeconds) {
+      this.id = id;
+      this.namespace = namespace;
+      this.metricName = metricName;
+      this.dimensionName = dimensionName;
+      this.dimensionValue = dimensionValue;
+      this.statistic = statistic;
+      this.periodSeconds = periodSeconds;
+    }
+
+    String getId() {
+      return id;
+    }
+
+    String getNamespace() {
+      return namespace;
+    }
+
+    String getMetricName() {
+      return metricName;
+    }
+
+    String getDimensionName() {
+      return dimensionName;
+    }
+
+    String getDimensionValue() {
+      return dimensionValue;
+    }
+
+    String getStatistic() {
+      return statistic;
+    }
+
+    int getPeriodSeconds() {
+      return periodSeconds;
+    }
+  }
+}
@@ -0,0 +1,559 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awscdk.Annotations;
+import software.amazon.awscdk.ArnComponents;
+import software.amazon.awscdk.ArnFormat;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Fn;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.Token;
+import software.amazon.awscdk.services.cloudtrail.Trail;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.IMetric;
+import software.amazon.awscdk.services.cloudwatch.MathExpression;
+import software.amazon.awscdk.services.cloudwatch.Metric;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
+import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
+import software.amazon.awscdk.services.ec2.ISecurityGroup;
+import software.amazon.awscdk.services.ec2.ISubnet;
+import software.amazon.awscdk.services.ec2.IpAddresses;
+import software.amazon.awscdk.services.ec2.IpProtocol;
+import software.amazon.awscdk.services.ec2.Ipv6Addresses;
+import software.amazon.awscdk.services.ec2.Peer;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.ec2.SecurityGroupImportOptions;
+import software.amazon.awscdk.services.ec2.SubnetConfiguration;
+import software.amazon.awscdk.services.ec2.SubnetType;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.iam.CompositePrincipal;
+import software.amazon.awscdk.services.iam.Effect;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.iam.ManagedPolicy;
+import software.amazon.awscdk.services.iam.PolicyDocument;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.s3.BlockPublicAccess;
+import software.amazon.awscdk.services.s3.Bucket;
+import software.amazon.awscdk.services.s3.BucketEncryption;
+import software.amazon.awscdk.services.s3.LifecycleRule;
+import software.amazon.awscdk.services.sns.Topic;
+import software.amazon.awscdk.services.sns.subscriptions.EmailSubscription;
+
+/**
+ * Network and shared foundation: stack KMS key, VPC, web and RDS security
+ * groups, optional CloudTrail, the alert topic and the web instance role.
+ * Both security groups live here so the web and data tiers only ever
+ * reference this tier, never each other.
+ *
+ * Resources are created directly in the given stack (not under a wrapper
+ * construct) so their logical IDs are the same whichever layout composes them.
+ */
+class NetworkTier {
+  private final Stack scope;
+  private final StackConfiguration config;
+  private final boolean cloudTrailEnabled;
+  private final Key kmsKey;
+  private final KmsKeys kmsKeys;
+  private final Vpc vpc;
+  private final SecurityGroup webSecurityGroup;
+  private final SecurityGroup rdsSecurityGroup;
+  private final Bucket cloudTrailBucket;
+  private final Topic alertTopic;
+  private final Role ec2Role;
+
+  NetworkTier(Stack scope, StackConfiguration config) {
+    this.scope = scope;
+    this.config = config;
+
+    // Get CloudTrail flag from context, default to false (disabled)
+    Boolean enableCloudTrail = (Boolean) scope.getNode().tryGetContext("enableCloudTrail");
+    this.cloudTrailEnabled = enableCloudTrail != null && enableCloudTrail;
+
+    // Create KMS key for encryption
+    this.kmsKey = createKmsKey();
+    this.kmsKeys = new KmsKeys(scope, config, kmsKey);
+
+    // Create VPC with public and private subnets
+    this.vpc = createVpc();
+
+    // Create Security Groups
+    this.webSecurityGroup = createWebSecurityGroup();
+    this.rdsSecurityGroup = createRdsSecurityGroup();
+
+    // Create S3 bucket for CloudTrail logs (only if CloudTrail is enabled)
+    if (cloudTrailEnabled) {
+      this.cloudTrailBucket = createCloudTrailBucket(kmsKeys.forService("logs", "cloudtrail"));
+
+      // Set up CloudTrail
+      createCloudTrail(cloudTrailBucket);
+    } else {
+      this.cloudTrailBucket = null;
+    }
+
+    // Create SNS topic for alerts
+    this.alertTopic = createAlertTopic();
+
+    // Alarm before the shared KMS request-rate quota starts throttling
+    createKmsUsageAlarms();
+
+    // Create IAM roles
+    this.ec2Role = createEc2Role();
+  }
+
+  Key getKmsKey() {
+    return kmsKey;
+  }
+
+  KmsKeys getKmsKeys() {
+    return kmsKeys;
+  }
+
+  Vpc getVpc() {
+    return vpc;
+  }
+
+  SecurityGroup getWebSecurityGroup() {
+    return webSecurityGroup;
+  }
+
+  SecurityGroup getRdsSecurityGroup() {
+    return rdsSecurityGroup;
+  }
+
+  Topic getAlertTopic() {
+    return alertTopic;
+  }
+
+  Role getEc2Role() {
+    return ec2Role;
+  }
+
+  /**
+   * The web instance role as seen from {@code stack}. From another stack the
+   * role is imported by name, so grants made there become policies in that
+   * stack instead of edits to this one (which would make it depend back on
+   * the granting stack).
+   */
+  IRole ec2RoleFor(Stack stack) {
+    if (stack == scope) {
+      return ec2Role;
+    }
+    return Role.fromRoleName(stack, getResourceName("ec2-role-ref"), ec2Role.getRoleName());
+  }
+
+  /**
+   * The web security group as seen from {@code stack}. From another stack it is
+   * imported read-only, so constructs there that add rules on their own (like
+   * an ECS service behind the ALB) cannot create rules in this stack that
+   * reference theirs; callers add the rules from their own security group instead.
+   */
+  ISecurityGroup webSecurityGroupFor(Stack stack) {
+    if (stack == scope) {
+      return webSecurityGroup;
+    }
+    return SecurityGroup.fromSecurityGroupId(stack, getResourceName("web-sg-ref"),
+        webSecurityGroup.getSecurityGroupId(), SecurityGroupImportOptions.builder()
+            .mutable(false)
+            .build());
+  }
+
+  private Key createKmsKey() {
+    return Key.Builder.create(scope, getResourceName("kms-key"))
+        .description("KMS key for encrypting resources")
+        .enableKeyRotation(true)
+        .build();
+  }
+
+  private Vpc createVpc() {
+    // Without an account in the stack env CDK cannot look up the region's AZs
+    // and reports two, so a larger maxAzs would otherwise be capped silently
+    int availableAzs = scope.getAvailabilityZones().size();
+    if (config.getMaxAzs() < 1) {
+      throw new IllegalArgumentException("maxAzs must be at least 1: " + config.getMaxAzs());
+    }
+    int azCount = config.getMaxAzs();
+    boolean azLookupPending = isAzLookupPending();
+    if (azCount > availableAzs) {
+      if (!azLookupPending) {
+        throw new IllegalArgumentException(String.format(
+            "maxAzs must be between 1 and the %d AZs available to this stack (set CDK_DEFAULT_ACCOUNT so CDK can"
+                + " look up the region's AZs): %d", availableAzs, azCount));
+      }
+      // The first synth of a fresh checkout sees placeholder AZs while the CLI
+      // looks up the real ones, so cap for this pass rather than fail
+      Annotations.of(scope).addWarning(String.format(
+          "maxAzs %d is capped to the %d placeholder AZs until the region's AZs are looked up and cached in"
+              + " cdk.context.json", azCount, availableAzs));
+      azCount = availableAzs;
+    }
+    int natGateways = config.getNatGateways() > 0 ? config.getNatGateways() : azCount;
+    if (azLookupPending) {
+      natGateways = Math.min(natGateways, azCount);
+    }
+    if (natGateways > azCount) {
+      throw new IllegalArgumentException(String.format(
+          "natGateways must be between 1 (shared) and %d (one per AZ): %d", azCount, natGateways));
+    }
+
+    List<SubnetConfiguration> subnets = new ArrayList<>(Arrays.asList(
+        SubnetConfiguration.builder()
+            .name(getResourceName("public-subnet"))
+            .subnetType(SubnetType.PUBLIC)
+            .cidrMask(config.getPublicSubnetMask())
+            .build(),
+        SubnetConfiguration.builder()
+            .name(getResourceName("private-subnet"))
+            .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+            .cidrMask(config.getPrivateSubnetMask())
+            .build()));
+
+    CidrPlanner planner = new CidrPlanner(config.getVpcCidr())
+        .addTier("public", config.getPublicSubnetMask())
+        .addTier("private", config.getPrivateSubnetMask());
+
+    if (config.getDatabaseSubnetMask() > 0) {
+      subnets.add(SubnetConfiguration.builder()
+          .name(getResourceName("database-subnet"))
+          .subnetType(SubnetType.PRIVATE_ISOLATED)
+          .cidrMask(config.getDatabaseSubnetMask())
+          .build());
+      planner.addTier("database", config.getDatabaseSubnetMask());
+    }
+
+    if (config.getCacheSubnetMask() > 0) {
+      subnets.add(SubnetConfiguration.builder()
+          .name(getResourceName("cache-subnet"))
+          .subnetType(SubnetType.PRIVATE_ISOLATED)
+          .cidrMask(config.getCacheSubnetMask())
+          .build());
+      planner.addTier("cache", config.getCacheSubnetMask());
+    }
+
+    // Fail synth early if the tiers do not fit in the VPC block
+    planner.plan(azCount);
+
+    Vpc.Builder builder = Vpc.Builder.create(scope, getResourceName("vpc"))
+        .ipAddresses(IpAddresses.cidr(config.getVpcCidr()))
+        .maxAzs(azCount)
+        .subnetConfiguration(subnets)
+        .natGateways(natGateways);
+
+    if (config.isIpv6Enabled()) {
+      // Dual-stack: Amazon-provided /56, a /64 per subnet, and an egress-only
+      // internet gateway so IPv6 egress from private subnets bypasses NAT
+      builder
+          .ipProtocol(IpProtocol.DUAL_STACK)
+          .ipv6Addresses(Ipv6Addresses.amazonProvided());
+    }
+
+    return builder.build();
+  }
+
+  /** An env-specific stack whose AZ lookup has not been cached in context yet. */
+  private boolean isAzLookupPending() {
+    if (Token.isUnresolved(scope.getAccount()) || Token.isUnresolved(scope.getRegion())) {
+      return false;
+    }
+    return scope.getNode().tryGetContext(String.format("availability-zones:account=%s:region=%s",
+        scope.getAccount(), scope.getRegion())) == null;
+  }
+
+  private SecurityGroup createWebSecurityGroup() {
+    SecurityGroup sg = SecurityGroup.Builder.create(scope, getResourceName("web-sg"))
+        .vpc(vpc)
+        .description("Security group for web servers")
+        .allowAllOutbound(false)
+        .build();
+
+    sg.addEgressRule(Peer.anyIpv4(), Port.tcp(443), "Allow HTTPS egress");
+    sg.addEgressRule(Peer.anyIpv4(), Port.tcp(80), "Allow HTTP egress");
+
+    for (Integer port : config.getExtraEgressPorts()) {
+      sg.addEgressRule(Peer.anyIpv4(), Port.tcp(port), "Additional egress port " + port);
+    }
+
+    if (config.isIpv6Enabled()) {
+      // Same egress over IPv6; leaves via the egress-only gateway instead of NAT
+      sg.addEgressRule(Peer.anyIpv6(), Port.tcp(443), "Allow HTTPS egress (IPv6)");
+      sg.addEgressRule(Peer.anyIpv6(), Port.tcp(80), "Allow HTTP egress (IPv6)");
+
+      for (Integer port : config.getExtraEgressPorts()) {
+        sg.addEgressRule(Peer.anyIpv6(), Port.tcp(port), "Additional egress port " + port + " (IPv6)");
+      }
+    }
+
+    // Allow HTTP from office CIDR
+    sg.addIngressRule(
+        Peer.ipv4(config.getOfficeCidr()),
+        Port.tcp(80),
+        "Allow HTTP from office");
+
+    // Allow HTTPS from office CIDR
+    sg.addIngressRule(
+        Peer.ipv4(config.getOfficeCidr()),
+        Port.tcp(443),
+        "Allow HTTPS from office");
+
+    if (config.isIpv6Enabled() && config.getOfficeIpv6Cidr() != null) {
+      sg.addIngressRule(
+          Peer.ipv6(config.getOfficeIpv6Cidr()),
+          Port.tcp(80),
+          "Allow HTTP from office (IPv6)");
+
+      sg.addIngressRule(
+          Peer.ipv6(config.getOfficeIpv6Cidr()),
+          Port.tcp(443),
+          "Allow HTTPS from office (IPv6)");
+    }
+
+    return sg;
+  }
+
+  private SecurityGroup createRdsSecurityGroup() {
+    SecurityGroup sg = SecurityGroup.Builder.create(scope, getResourceName("rds-sg"))
+        .vpc(vpc)
+        .description("Security group for RDS instances")
+        .allowAllOutbound(false)
+        .build();
+
+    // Allow MySQL/Aurora access from web security group
+    sg.addIngressRule(
+        Peer.securityGroupId(webSecurityGroup.getSecurityGroupId()),
+        Port.tcp(3306),
+        "Allow MySQL access from web servers");
+
+    // In dual-stack mode the security group reference above matches the web
+    // servers' IPv6 addresses as well, so no CIDR-based IPv6 rule is needed
+
+    return sg;
+  }
+
+  private Bucket createCloudTrailBucket(Key bucketKey) {
+    return Bucket.Builder.create(scope, getResourceName("cloudtrail-bucket"))
+        .bucketName(getResourceName("cloudtrail-logs-2"))
+        .encryption(BucketEncryption.KMS)
+        .encryptionKey(bucketKey)
+        .bucketKeyEnabled(true) // S3 reuses a bucket-level data key instead of calling KMS per object
+        .blockPublicAccess(BlockPublicAccess.BLOCK_ALL)
+        .versioned(true)
+        .lifecycleRules(Arrays.asList(
+            LifecycleRule.builder()
+                .id("DeleteOldLogs")
+                .enabled(true)
+                .expiration(Duration.days(90))
+                .build()))
+        .build();
+  }
+
+  private void createCloudTrail(Bucket bucket) {
+    Trail.Builder.create(scope, getResourceName("cloudtrail"))
+        .trailName(getResourceName("audit-trail"))
+        .bucket(bucket)
+        .includeGlobalServiceEvents(true)
+        .isMultiRegionTrail(true)
+        .enableFileValidation(true)
+        .build();
+  }
+
+  private Topic createAlertTopic() {
+    Topic topic = Topic.Builder.create(scope, getResourceName("alert-topic"))
+        .topicName(getResourceName("devops-alerts"))
+        .displayName("DevOps Team Alerts")
+        .build();
+
+    // Add email subscription (override via ALERT_EMAIL env or alertEmail context)
+    topic.addSubscription(EmailSubscription.Builder.create(config.getAlertEmail()).build());
+
+    return topic;
+  }
+
+  private void createKmsUsageAlarms() {
+    // KMS request quotas are shared by every key in the account and region,
+    // so the alarm tracks account usage against the quota rather than a key.
+    // Decrypt, GenerateDataKey and Encrypt draw on the same cryptographic
+    // operations quota, so their calls are summed against it
+    Map<String, IMetric> callCounts = new LinkedHashMap<>();
+    List<String> operations = Arrays.asList("Decrypt", "GenerateDataKey", "Encrypt");
+    for (int i = 0; i < operations.size(); i++) {
+      callCounts.put("m" + (i + 1), Metric.Builder.create()
+          .namespace("AWS/Usage")
+          .metricName("CallCount")
+          .dimensionsMap(Map.of(
+              "Service", "KMS",
+              "Type", "API",
+              "Resource", operations.get(i),
+              "Class", "None"))
+          .statistic("Sum")
+          .period(Duration.minutes(1))
+          .build());
+    }
+
+    Alarm.Builder.create(scope, getResourceName("kms-crypto-quota-alarm"))
+        .alarmName(getResourceName("kms-crypto-quota"))
+        .alarmDescription("KMS " + String.join(" + ", operations) + " request rate exceeds "
+            + config.getKmsQuotaAlarmPercent() + "% of the shared cryptographic operations quota")
+        .metric(MathExpression.Builder.create()
+            .expression("((m1 + m2 + m3) / 60) / SERVICE_QUOTA(m1) * 100")
+            .usingMetrics(callCounts)
+            .label("KMS cryptographic operations quota utilization %")
+            .period(Duration.minutes(1))
+            .build())
+        .threshold(config.getKmsQuotaAlarmPercent())
+        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+        .evaluationPeriods(3)
+        .treatMissingData(TreatMissingData.NOT_BREACHING)
+        .build()
+        .addAlarmAction(new SnsAction(alertTopic));
+  }
+
+  private Role createEc2Role() {
+    return Role.Builder.create(scope, getResourceName("ec2-role"))
+        .roleName(getResourceName("ec2-instance-role"))
+        // Fargate web tasks run with the same role, so grants cover either compute mode
+        .assumedBy(config.isFargateWeb()
+            ? new CompositePrincipal(new ServicePrincipal("ec2.amazonaws.com"),
+                new ServicePrincipal("ecs-tasks.amazonaws.com"))
+            : new ServicePrincipal("ec2.amazonaws.com"))
+        .managedPolicies(Arrays.asList(
+            ManagedPolicy.fromAwsManagedPolicyName("CloudWatchAgentServerPolicy"),
+            ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore")))
+        .inlinePolicies(Map.of(
+            "S3AccessPolicy", PolicyDocument.Builder.create()
+                .statements(Arrays.asList(
+                    PolicyStatement.Builder.create()
+                        .effect(Effect.ALLOW)
+                        .actions(Arrays.asList("s3:GetObject", "s3:PutObject"))
+                        .resources(Arrays.asList(config.getArtifactBucketArn()))
+                        .build()))
+                .build(),
+            // ARN is built from the known name so instances need not depend on the parameter;
+            // the split layout's per-tier parameters are read by path below it
+            "EndpointManifestReadPolicy", PolicyDocument.Builder.create()
+                .statements(Arrays.asList(
+                    PolicyStatement.Builder.create()
+                        .effect(Effect.ALLOW)
+                        .actions(Arrays.asList("ssm:GetParameter", "ssm:GetParametersByPath"))
+                        .resources(Arrays.asList(
+                            manifestParameterArn(config.getEndpointManifestParameterName()),
+                            manifestParameterArn(config.getEndpointManifestParameterName() + "/*")))
+                        .build()))
+                .build()))
+        .build();
+  }
+
+  private String manifestParameterArn(String parameterName) {
+    return scope.formatArn(ArnComponents.builder()
+        .service("ssm")
+        .resource("parameter")
+        .resourceName(parameterName.substring(1))
+        .arnFormat(ArnFormat.SLASH_RESOURCE_NAME)
+        .build());
+  }
+
+  void addOutputs() {
+    // VPC outputs
+    CfnOutput.Builder.create(scope, "VpcId")
+        .description("VPC ID for the infrastructure")
+        .value(vpc.getVpcId())
+        .exportName(getResourceName("vpc-id"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "VpcCidr")
+        .description("VPC CIDR block")
+        .value(vpc.getVpcCidrBlock())
+        .exportName(getResourceName("vpc-cidr"))
+        .build();
+
+    if (config.isIpv6Enabled()) {
+      CfnOutput.Builder.create(scope, "VpcIpv6Cidr")
+          .description("Amazon-provided VPC IPv6 CIDR block")
+          .value(Fn.select(0, vpc.getVpcIpv6CidrBlocks()))
+          .exportName(getResourceName("vpc-ipv6-cidr"))
+          .build();
+    }
+
+    // Private subnet IDs for testing
+    List<ISubnet> privateSubnets = vpc.getPrivateSubnets();
+    for (int i = 0; i < privateSubnets.size(); i++) {
+      CfnOutput.Builder.create(scope, "PrivateSubnet" + (i + 1))
+          .description("Private subnet " + (i + 1) + " ID")
+          .value(privateSubnets.get(i).getSubnetId())
+          .exportName(getResourceName("private-subnet-" + (i + 1)))
+          .build();
+    }
+
+    // Public subnet IDs for testing
+    List<ISubnet> publicSubnets = vpc.getPublicSubnets();
+    for (int i = 0; i < publicSubnets.size(); i++) {
+      CfnOutput.Builder.create(scope, "PublicSubnet" + (i + 1))
+          .description("Public subnet " + (i + 1) + " ID")
+          .value(publicSubnets.get(i).getSubnetId())
+          .exportName(getResourceName("public-subnet-" + (i + 1)))
+          .build();
+    }
+
+    // S3 CloudTrail bucket output (only if CloudTrail is enabled)
+    if (cloudTrailBucket != null) {
+      CfnOutput.Builder.create(scope, "CloudTrailBucketName")
+          .description("CloudTrail S3 bucket name")
+          .value(cloudTrailBucket.getBucketName())
+          .exportName(getResourceName("cloudtrail-bucket"))
+          .build();
+    }
+
+    // SNS topic output
+    CfnOutput.Builder.create(scope, "AlertTopicArn")
+        .description("SNS topic ARN for alerts")
+        .value(alertTopic.getTopicArn())
+        .exportName(getResourceName("alert-topic-arn"))
+        .build();
+
+    // KMS key output
+    CfnOutput.Builder.create(scope, "KmsKeyId")
+        .description("KMS key ID for encryption")
+        .value(kmsKey.getKeyId())
+        .exportName(getResourceName("kms-key-id"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "KmsKeyArn")
+        .description("KMS key ARN for encryption")
+        .value(kmsKey.getKeyArn())
+        .exportName(getResourceName("kms-key-arn"))
+        .build();
+
+    // CloudTrail status output
+    CfnOutput.Builder.create(scope, "CloudTrailEnabled")
+        .description("Whether CloudTrail is enabled")
+        .value(String.valueOf(cloudTrailEnabled))
+        .exportName(getResourceName("cloudtrail-enabled"))
+        .build();
+
+    // Region and account information
+    CfnOutput.Builder.create(scope, "Region")
+        .description("AWS region where resources are deployed")
+        .value(scope.getRegion())
+        .exportName(getResourceName("region"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "Account")
+        .description("AWS account ID")
+        .value(scope.getAccount())
+        .exportName(getResourceName("account"))
+        .build();
+  }
+
+  private String getResourceName(String resource) {
+    return config.getResourceName(resource);
+  }
+}
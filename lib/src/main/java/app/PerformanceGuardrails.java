@@ -0,0 +1,182 @@
+package app;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import software.amazon.awscdk.Annotations;
+import software.amazon.awscdk.IAspect;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.Token;
+import software.amazon.awscdk.services.ec2.CfnInstance;
+import software.amazon.awscdk.services.ec2.CfnNatGateway;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.rds.CfnDBInstance;
+import software.amazon.awscdk.services.rds.CfnDBParameterGroup;
+import software.constructs.IConstruct;
+import software.constructs.MetadataEntry;
+
+/**
+ * Aspect that checks the construct tree against the configured performance
+ * policy and reports violations as synth warnings or errors.
+ *
+ * Rules:
+ * <ul>
+ *   <li>{@code storage-type}: RDS and EBS storage types outside the allowed set (e.g. gp2),
+ *       including EC2 root volumes left at the AMI's gp2 default</li>
+ *   <li>{@code burstable-db}: burstable RDS instance families in strict environments</li>
+ *   <li>{@code empty-parameter-group}: DB parameter groups with no parameters set</li>
+ *   <li>{@code db-monitoring}: RDS instances without Enhanced Monitoring</li>
+ *   <li>{@code instance-monitoring}: EC2 instances without detailed monitoring in strict environments</li>
+ *   <li>{@code min-azs}: VPCs spanning fewer AZs than the policy minimum</li>
+ *   <li>{@code single-nat}: VPCs with fewer NAT gateways than AZs</li>
+ * </ul>
+ *
+ * A rule is skipped for a construct and everything below it when suppressed
+ * with {@link #suppress} or listed in {@code guardrailSuppressions}.
+ */
+class PerformanceGuardrails implements IAspect {
+  static final String SUPPRESSION_METADATA = "performance-guardrails:suppress";
+
+  /** Root device names of the Amazon Linux (xvda) and Ubuntu/Windows (sda1) AMIs. */
+  private static final List<String> ROOT_DEVICE_NAMES = List.of("/dev/xvda", "/dev/sda1");
+  private static final String AMI_DEFAULT_VOLUME_TYPE = "gp2";
+
+  private final StackConfiguration config;
+  private final boolean strict;
+  private final List<String[]> configuredSuppressions;
+
+  PerformanceGuardrails(StackConfiguration config) {
+    this.config = config;
+    this.strict = config.getGuardrailStrictEnvironments().contains(config.getEnvironment());
+    this.configuredSuppressions = config.getGuardrailSuppressions().stream()
+        .map(s -> s.split(":", 2))
+        .collect(Collectors.toList());
+  }
+
+  /** Exempts {@code scope} and its children from {@code rule}; the reason is kept in the cloud assembly. */
+  static void suppress(IConstruct scope, String rule, String reason) {
+    scope.getNode().addMetadata(SUPPRESSION_METADATA, Map.of("rule", rule, "reason", reason));
+  }
+
+  @Override
+  public void visit(IConstruct node) {
+    if (node instanceof CfnDBInstance) {
+      checkDatabase((CfnDBInstance) node);
+    } else if (node instanceof CfnDBParameterGroup) {
+      checkParameterGroup((CfnDBParameterGroup) node);
+    } else if (node instanceof CfnInstance) {
+      checkInstance((CfnInstance) node);
+    } else if (node instanceof Vpc) {
+      checkVpc((Vpc) node);
+    }
+  }
+
+  private void checkDatabase(CfnDBInstance db) {
+    String storageType = db.getStorageType();
+    if (isConcrete(storageType) && !config.getGuardrailStorageTypes().contains(storageType)) {
+      report(db, "storage-type", "RDS storage type " + storageType + " is not in the allowed set "
+          + config.getGuardrailStorageTypes());
+    }
+
+    // The L2 instance renders its class lazily
+    Object resolvedClass = Stack.of(db).resolve(db.getDbInstanceClass());
+    String instanceClass = resolvedClass instanceof String ? (String) resolvedClass : null;
+    if (strict && isConcrete(instanceClass)) {
+      // db.t3.micro -> t3
+      String[] parts = instanceClass.split("\\.");
+      String family = parts.length > 1 ? parts[parts.length - 2] : instanceClass;
+      if (config.getGuardrailDbDisallowedFamilies().contains(family)) {
+        report(db, "burstable-db", "RDS instance class " + instanceClass + " uses the " + family
+            + " family, which is not allowed in " + config.getEnvironment());
+      }
+    }
+
+    Number interval = db.getMonitoringInterval();
+    if (interval == null || interval.intValue() == 0) {
+      report(db, "db-monitoring", "RDS Enhanced Monitoring is disabled");
+    }
+  }
+
+  private void checkParameterGroup(CfnDBParameterGroup group) {
+    Object parameters = Stack.of(group).resolve(group.getParameters());
+    if (parameters == null || (parameters instanceof Map && ((Map<?, ?>) parameters).isEmpty())) {
+      report(group, "empty-parameter-group", "DB parameter group sets no parameters; engine defaults apply");
+    }
+  }
+
+  private void checkInstance(CfnInstance instance) {
+    Object monitoring = instance.getMonitoring();
+    if (strict && !Boolean.TRUE.equals(monitoring)) {
+      report(instance, "instance-monitoring", "EC2 detailed (1-minute) monitoring is disabled");
+    }
+
+    boolean rootMapped = false;
+    Object mappings = Stack.of(instance).resolve(instance.getBlockDeviceMappings());
+    if (mappings instanceof List) {
+      for (Object mapping : (List<?>) mappings) {
+        Object deviceName = mapping instanceof Map ? ((Map<?, ?>) mapping).get("deviceName") : null;
+        rootMapped |= ROOT_DEVICE_NAMES.contains(deviceName);
+        Object ebs = mapping instanceof Map ? ((Map<?, ?>) mapping).get("ebs") : null;
+        Object volumeType = ebs instanceof Map ? ((Map<?, ?>) ebs).get("volumeType") : null;
+        if (volumeType instanceof String && !config.getGuardrailStorageTypes().contains(volumeType)) {
+          report(instance, "storage-type", "EBS volume type " + volumeType + " is not in the allowed set "
+              + config.getGuardrailStorageTypes());
+        }
+      }
+    }
+    // Without a root mapping the volume takes the AMI's type, gp2 on Amazon Linux 2
+    if (!rootMapped && !config.getGuardrailStorageTypes().contains(AMI_DEFAULT_VOLUME_TYPE)) {
+      report(instance, "storage-type", "EBS root volume is not pinned and keeps the AMI default "
+          + AMI_DEFAULT_VOLUME_TYPE + ", which is not in the allowed set " + config.getGuardrailStorageTypes());
+    }
+  }
+
+  private void checkVpc(Vpc vpc) {
+    int azs = vpc.getAvailabilityZones().size();
+    if (azs < config.getGuardrailMinAzs()) {
+      report(vpc, "min-azs", "VPC spans " + azs + " AZ(s), policy minimum is " + config.getGuardrailMinAzs());
+    }
+
+    long natGateways = vpc.getNode().findAll().stream().filter(c -> c instanceof CfnNatGateway).count();
+    if (natGateways > 0 && natGateways < azs) {
+      report(vpc, "single-nat", "VPC has " + natGateways + " NAT gateway(s) for " + azs
+          + " AZs; egress crosses AZs and one gateway failure cuts off several subnets");
+    }
+  }
+
+  private void report(IConstruct node, String rule, String message) {
+    if (isSuppressed(node, rule)) {
+      return;
+    }
+    String text = String.format("[%s] %s (%s)", rule, message, node.getNode().getPath());
+    if ("error".equals(config.getGuardrailMode())) {
+      Annotations.of(node).addError(text);
+    } else {
+      // Warning ids can also be acknowledged with Annotations.acknowledgeWarning
+      Annotations.of(node).addWarningV2("@performance-guardrails/" + rule, text);
+    }
+  }
+
+  private boolean isSuppressed(IConstruct node, String rule) {
+    String path = node.getNode().getPath();
+    for (String[] suppression : configuredSuppressions) {
+      if (suppression[0].equals(rule) && (suppression.length == 1 || path.startsWith(suppression[1]))) {
+        return true;
+      }
+    }
+    for (IConstruct scope : node.getNode().getScopes()) {
+      for (MetadataEntry entry : scope.getNode().getMetadata()) {
+        if (SUPPRESSION_METADATA.equals(entry.getType()) && entry.getData() instanceof Map
+            && rule.equals(((Map<?, ?>) entry.getData()).get("rule"))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isConcrete(String value) {
+    return value != null && !Token.isUnresolved(value);
+  }
+}
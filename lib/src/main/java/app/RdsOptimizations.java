@@ -0,0 +1,113 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synth-time checks for RDS for MySQL Optimized Reads and Optimized Writes.
+ *
+ * Optimized Reads places internal temporary tables on the local NVMe SSD of
+ * the "d" instance classes and is on whenever such a class runs 8.0.28 or
+ * later. Optimized Writes uses the AWS Nitro torn-write protection so InnoDB
+ * can skip the doublewrite buffer; it needs 8.0.30 or later, a supported
+ * class and {@code rds.optimized_writes=AUTO}, and only applies to instances
+ * created (or restored) with it, not to existing ones.
+ *
+ * {@link #validate} fails fast with a readable message instead of a late
+ * CloudFormation or RDS API error. Class lists follow the RDS documentation.
+ */
+final class RdsOptimizations {
+  static final String OPTIMIZED_READS_MIN_VERSION = "8.0.28";
+  static final String OPTIMIZED_WRITES_MIN_VERSION = "8.0.30";
+
+  /** Instance families with local NVMe instance storage. */
+  static final List<String> OPTIMIZED_READS_FAMILIES = Arrays.asList(
+      "m5d", "r5d", "m6gd", "r6gd", "m6id", "r6id", "m6idn", "r6idn", "x2idn", "x2iedn");
+
+  static final List<String> OPTIMIZED_WRITES_FAMILIES = Arrays.asList(
+      "r5b", "r5d", "r6g", "r6gd", "r6i", "r6id", "r7g", "m7g", "x2idn", "x2iedn");
+
+  private RdsOptimizations() {
+  }
+
+  /**
+   * Checks that the class and engine version support the requested features.
+   *
+   * @param instanceType class with or without the {@code db.} prefix, e.g. {@code r6gd.large}
+   * @param engineVersion full MySQL version, e.g. {@code 8.0.36}; a bare major version is rejected
+   *     when either feature is requested because the minor version it resolves to is not known
+   * @throws IllegalArgumentException listing every unsupported combination
+   */
+  static void validate(String instanceType, String engineVersion, boolean optimizedReads,
+      boolean optimizedWrites) {
+    if (!optimizedReads && !optimizedWrites) {
+      return;
+    }
+    String family = family(instanceType);
+    List<String> problems = new ArrayList<>();
+
+    if (optimizedReads) {
+      if (!OPTIMIZED_READS_FAMILIES.contains(family)) {
+        problems.add(String.format("Optimized Reads needs an instance class with local NVMe storage %s, got %s",
+            OPTIMIZED_READS_FAMILIES, instanceType));
+      }
+      checkVersion(engineVersion, OPTIMIZED_READS_MIN_VERSION, "Optimized Reads", problems);
+    }
+    if (optimizedWrites) {
+      if (!OPTIMIZED_WRITES_FAMILIES.contains(family)) {
+        problems.add(String.format("Optimized Writes needs one of the instance families %s, got %s",
+            OPTIMIZED_WRITES_FAMILIES, instanceType));
+      }
+      checkVersion(engineVersion, OPTIMIZED_WRITES_MIN_VERSION, "Optimized Writes", problems);
+    }
+
+    if (!problems.isEmpty()) {
+      throw new IllegalArgumentException(String.join("; ", problems));
+    }
+  }
+
+  /** DB parameter group entries for the requested features. */
+  static Map<String, String> parameters(boolean optimizedWrites) {
+    Map<String, String> parameters = new LinkedHashMap<>();
+    if (optimizedWrites) {
+      parameters.put("rds.optimized_writes", "AUTO");
+    }
+    return parameters;
+  }
+
+  /** {@code db.r6gd.large} or {@code r6gd.large} -> {@code r6gd}. */
+  static String family(String instanceType) {
+    String type = instanceType.startsWith("db.") ? instanceType.substring(3) : instanceType;
+    int dot = type.indexOf('.');
+    if (dot <= 0) {
+      throw new IllegalArgumentException("Instance type must be <family>.<size>: " + instanceType);
+    }
+    return type.substring(0, dot);
+  }
+
+  /** Compares dotted versions numerically; missing parts count as 0. */
+  static int compareVersions(String a, String b) {
+    String[] left = a.split("\\.");
+    String[] right = b.split("\\.");
+    for (int i = 0; i < Math.max(left.length, right.length); i++) {
+      int l = i < left.length ? Integer.parseInt(left[i]) : 0;
+      int r = i < right.length ? Integer.parseInt(right[i]) : 0;
+      if (l != r) {
+        return Integer.compare(l, r);
+      }
+    }
+    return 0;
+  }
+
+  private static void checkVersion(String engineVersion, String minimum, String feature, List<String> problems) {
+    if (engineVersion.split("\\.").length < 3) {
+      problems.add(String.format("%s needs a pinned engine version (%s or later), got %s", feature, minimum,
+          engineVersion));
+    } else if (compareVersions(engineVersion, minimum) < 0) {
+      problems.add(String.format("%s needs MySQL %s or later, got %s", feature, minimum, engineVersion));
+    }
+  }
+}
@@ -0,0 +1,388 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+
+/**
+ * Offline rightsizing report for the web and database tiers.
+ *
+ * Resolves instance IDs and current sizing from
+ * {@code cfn-outputs/flat-outputs.json}, pulls CPU, memory, IOPS, storage and
+ * connection statistics for the look-back window in bulk, and writes the
+ * recommended sizing as a {@link StackConfiguration} override file that can be
+ * deployed with {@code CONFIG_OVERRIDE_FILE}.
+ *
+ * <pre>
+ * gradle rightsizingReport --args="--days 14 --out rightsizing-overrides.json"
+ * gradle rightsizingReport --args="--fixture metrics.json"   # recorded metrics, no AWS calls
+ * </pre>
+ */
+public final class RightsizingReport {
+  /** Instance sizes in ascending order, shared by EC2 and RDS classes. */
+  static final List<String> SIZES = Arrays.asList(
+      "nano", "micro", "small", "medium", "large", "xlarge",
+      "2xlarge", "4xlarge", "8xlarge", "12xlarge", "16xlarge", "24xlarge");
+
+  static final int PERIOD_SECONDS = 300;
+
+  static final double WEB_CPU_HIGH = 70;
+  static final double WEB_CPU_LOW = 20;
+  static final double WEB_MEMORY_HIGH = 80;
+  static final double WEB_MEMORY_LOW = 40;
+  static final double DB_CPU_HIGH = 70;
+  static final double DB_CPU_LOW = 15;
+  static final double DB_FREEABLE_MEMORY_LOW_BYTES = 128 * 1024 * 1024;
+  static final double DB_FREEABLE_MEMORY_HIGH_BYTES = 2.0 * 1024 * 1024 * 1024;
+  /** Grow storage once less than this share is free, to this used share. */
+  static final double DB_MIN_FREE_STORAGE_RATIO = 0.2;
+  static final double DB_TARGET_USED_STORAGE_RATIO = 0.7;
+  static final int DB_MIN_ALLOCATED_STORAGE = 20;
+  static final int GP3_BASELINE_IOPS = 3000;
+  /** RDS MySQL only accepts provisioned gp3 IOPS from 400 GiB. */
+  static final int GP3_PROVISIONED_IOPS_MIN_STORAGE = 400;
+  /** From 400 GiB the gp3 baseline is 12000 IOPS, and provisioned IOPS cannot go below it. */
+  static final int GP3_LARGE_VOLUME_BASELINE_IOPS = 12000;
+  static final int GP3_MAX_IOPS = 64000;
+
+  private static final double GIB = 1024.0 * 1024 * 1024;
+  private static final Pattern WEB_INSTANCE_OUTPUT = Pattern.compile("Ec2Instance(\\d+)Id");
+
+  private final Map<String, String> outputs;
+  private final MetricSource source;
+  private final Clock clock;
+  private final int days;
+
+  RightsizingReport(Map<String, String> outputs, MetricSource source, Clock clock, int days) {
+    this.outputs = outputs;
+    this.source = source;
+    this.clock = clock;
+    this.days = days;
+  }
+
+  /** Web instance IDs from the outputs, in output order. */
+  List<String> webInstanceIds() {
+    Map<Integer, String> ids = new TreeMap<>();
+    for (Map.Entry<String, String> output : outputs.entrySet()) {
+      Matcher matcher = WEB_INSTANCE_OUTPUT.matcher(output.getKey());
+      if (matcher.matches()) {
+        ids.put(Integer.valueOf(matcher.group(1)), output.getValue());
+      }
+    }
+    return new ArrayList<>(ids.values());
+  }
+
+  /** Every metric the report needs, fetched in one bulk request. */
+  List<MetricSource.Query> queries() {
+    List<MetricSource.Query> queries = new ArrayList<>();
+    List<String> webIds = webInstanceIds();
+    for (int i = 0; i < webIds.size(); i++) {
+      queries.add(ec2Query("web" + i + "_cpu", webIds.get(i), "AWS/EC2", "CPUUtilization", "Average"));
+      // Published by the CloudWatch agent; empty when the agent is not installed
+      queries.add(ec2Query("web" + i + "_memory", webIds.get(i), "CWAgent", "mem_used_percent", "Average"));
+    }
+
+    String db = requireOutput("RdsInstanceId");
+    queries.add(rdsQuery("db_cpu", db, "CPUUtilization", "Average"));
+    queries.add(rdsQuery("db_cpu_credits", db, "CPUCreditBalance", "Minimum"));
+    queries.add(rdsQuery("db_freeable_memory", db, "FreeableMemory", "Minimum"));
+    queries.add(rdsQuery("db_read_iops", db, "ReadIOPS", "Average"));
+    queries.add(rdsQuery("db_write_iops", db, "WriteIOPS", "Average"));
+    queries.add(rdsQuery("db_connections", db, "DatabaseConnections", "Maximum"));
+    queries.add(rdsQuery("db_free_storage", db, "FreeStorageSpace", "Minimum"));
+    return queries;
+  }
+
+  Result analyze() {
+    Instant end = clock.instant();
+    Map<String, List<Double>> data = source.fetch(queries(), end.minus(Duration.ofDays(days)), end);
+
+    Result result = new Result();
+    recommendWeb(data, result);
+    recommendDatabase(data, result);
+    return result;
+  }
+
+  private void recommendWeb(Map<String, List<Double>> data, Result result) {
+    String current = outputs.getOrDefault("WebInstanceType", "t3.medium");
+    List<String> webIds = webInstanceIds();
+
+    // All web instances share one type, so the busiest instance decides
+    double cpu = Double.NaN;
+    double memory = Double.NaN;
+    for (int i = 0; i < webIds.size(); i++) {
+      cpu = max(cpu, percentile(data.get("web" + i + "_cpu"), 95));
+      memory = max(memory, percentile(data.get("web" + i + "_memory"), 95));
+    }
+
+    String recommended = current;
+    if (Double.isNaN(cpu)) {
+      result.addFinding("web: no CPU data for %s, keeping %s", webIds, current);
+    } else if (cpu > WEB_CPU_HIGH || memory > WEB_MEMORY_HIGH) {
+      recommended = resize(current, 1);
+      result.addFinding("web: p95 CPU %.1f%%, p95 memory %s -> scale up %s to %s",
+          cpu, percent(memory), current, recommended);
+    } else if (cpu < WEB_CPU_LOW && Double.isNaN(memory)) {
+      // Low CPU alone does not show the smaller type has enough memory
+      result.addFinding("web: p95 CPU %.1f%%, no memory data for %s -> keep %s", cpu, webIds, current);
+    } else if (cpu < WEB_CPU_LOW && memory < WEB_MEMORY_LOW) {
+      recommended = resize(current, -1);
+      result.addFinding("web: p95 CPU %.1f%%, p95 memory %s -> scale down %s to %s",
+          cpu, percent(memory), current, recommended);
+    } else {
+      result.addFinding("web: p95 CPU %.1f%%, p95 memory %s -> keep %s", cpu, percent(memory), current);
+    }
+    result.overrides.put("webInstanceType", recommended);
+  }
+
+  private void recommendDatabase(Map<String, List<Double>> data, Result result) {
+    String current = outputs.getOrDefault("DbInstanceType", "t3.micro");
+    double cpu = percentile(data.get("db_cpu"), 95);
+    double freeableMemory = percentile(data.get("db_freeable_memory"), 5);
+    double minCredits = min(data.get("db_cpu_credits"));
+    boolean creditsExhausted = current.startsWith("t") && minCredits <= 0;
+
+    String recommended = current;
+    if (Double.isNaN(cpu)) {
+      result.addFinding("db: no CPU data, keeping %s", current);
+    } else if (cpu > DB_CPU_HIGH || freeableMemory < DB_FREEABLE_MEMORY_LOW_BYTES || creditsExhausted) {
+      recommended = resize(current, 1);
+      result.addFinding("db: p95 CPU %.1f%%, p5 freeable memory %s, CPU credits %s -> scale up %s to %s",
+          cpu, mib(freeableMemory), creditsExhausted ? "exhausted" : "ok", current, recommended);
+    } else if (cpu < DB_CPU_LOW && freeableMemory > DB_FREEABLE_MEMORY_HIGH_BYTES) {
+      recommended = resize(current, -1);
+      result.addFinding("db: p95 CPU %.1f%%, p5 freeable memory %s -> scale down %s to %s",
+          cpu, mib(freeableMemory), current, recommended);
+    } else {
+      result.addFinding("db: p95 CPU %.1f%%, p5 freeable memory %s -> keep %s", cpu, mib(freeableMemory), current);
+    }
+    result.overrides.put("dbInstanceType", recommended);
+
+    double peakConnections = max(data.get("db_connections"));
+    if (!Double.isNaN(peakConnections)) {
+      result.addFinding("db: peak connections %.0f", peakConnections);
+    }
+
+    recommendStorage(data, result);
+  }
+
+  private void recommendStorage(Map<String, List<Double>> data, Result result) {
+    int allocated = Integer.parseInt(outputs.getOrDefault("DbAllocatedStorage", "20"));
+    String storageType = outputs.getOrDefault("DbStorageType", "gp2");
+
+    int recommendedStorage = allocated;
+    double freeGib = min(data.get("db_free_storage")) / GIB;
+    if (!Double.isNaN(freeGib) && freeGib < allocated * DB_MIN_FREE_STORAGE_RATIO) {
+      double usedGib = allocated - freeGib;
+      recommendedStorage = Math.max(DB_MIN_ALLOCATED_STORAGE,
+          roundUp((int) Math.ceil(usedGib / DB_TARGET_USED_STORAGE_RATIO), 10));
+      result.addFinding("db storage: %.1f GiB free of %d GiB -> allocate %d GiB", freeGib, allocated,
+          recommendedStorage);
+    }
+
+    // gp3 has a flat 3000 IOPS baseline with no burst credits and costs less than gp2
+    String recommendedType = "gp2".equals(storageType) ? "gp3" : storageType;
+    int iops = 0;
+    double peakIops = percentile(sum(data.get("db_read_iops"), data.get("db_write_iops")), 99);
+    if (!Double.isNaN(peakIops) && peakIops > GP3_BASELINE_IOPS) {
+      recommendedType = "gp3";
+      recommendedStorage = Math.max(recommendedStorage, GP3_PROVISIONED_IOPS_MIN_STORAGE);
+      int needed = roundUp((int) Math.ceil(peakIops * 1.2), 1000);
+      iops = gp3ProvisionedIops(needed);
+      if (iops > 0) {
+        result.addFinding("db storage: p99 IOPS %.0f above gp3 baseline -> gp3 with %d IOPS (needs %d GiB)",
+            peakIops, iops, GP3_PROVISIONED_IOPS_MIN_STORAGE);
+      } else {
+        result.addFinding("db storage: p99 IOPS %.0f above gp3 baseline -> gp3 at %d GiB, whose %d IOPS baseline"
+            + " covers it", peakIops, recommendedStorage, GP3_LARGE_VOLUME_BASELINE_IOPS);
+      }
+    } else if (!recommendedType.equals(storageType)) {
+      result.addFinding("db storage: p99 IOPS %s fits the gp3 baseline -> switch %s to gp3",
+          Double.isNaN(peakIops) ? "n/a" : String.format("%.0f", peakIops), storageType);
+    }
+
+    result.overrides.put("dbAllocatedStorage", recommendedStorage);
+    if (recommendedStorage > allocated) {
+      // Keep storage autoscaling headroom above the new allocation
+      result.overrides.put("dbMaxAllocatedStorage", recommendedStorage * 2);
+    }
+    result.overrides.put("dbStorageType", recommendedType);
+    if (iops > 0) {
+      result.overrides.put("dbIops", iops);
+    }
+  }
+
+  /**
+   * Provisioned IOPS for a gp3 volume of at least 400 GiB: 0 (keep the
+   * baseline) when {@code needed} fits the 12000 IOPS baseline, otherwise
+   * {@code needed} capped at the gp3 maximum.
+   */
+  static int gp3ProvisionedIops(int needed) {
+    if (needed <= GP3_LARGE_VOLUME_BASELINE_IOPS) {
+      return 0;
+    }
+    return Math.min(GP3_MAX_IOPS, needed);
+  }
+
+  private String requireOutput(String key) {
+    String value = outputs.get(key);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing stack output: " + key);
+    }
+    return value;
+  }
+
+  private static MetricSource.Query ec2Query(String id, String instanceId, String namespace, String metric,
+      String statistic) {
+    return new MetricSource.Query(id, namespace, metric, "InstanceId", instanceId, statistic, PERIOD_SECONDS);
+  }
+
+  private static MetricSource.Query rdsQuery(String id, String dbInstanceId, String metric, String statistic) {
+    return new MetricSource.Query(id, "AWS/RDS", metric, "DBInstanceIdentifier", dbInstanceId, statistic,
+        PERIOD_SECONDS);
+  }
+
+  /**
+   * Moves an instance type up or down the size ladder within its family,
+   * e.g. {@code t3.medium} by +1 is {@code t3.large}. Stays put at either end.
+   */
+  static String resize(String instanceType, int steps) {
+    String[] parts = instanceType.split("\\.");
+    if (parts.length < 2) {
+      throw new IllegalArgumentException("Instance type must be family.size: " + instanceType);
+    }
+    String size = parts[parts.length - 1];
+    int index = SIZES.indexOf(size);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown instance size: " + instanceType);
+    }
+    int target = Math.max(0, Math.min(SIZES.size() - 1, index + steps));
+    return instanceType.substring(0, instanceType.length() - size.length()) + SIZES.get(target);
+  }
+
+  /** Nearest-rank percentile; NaN for an empty series. */
+  static double percentile(List<Double> values, double percentile) {
+    if (values == null || values.isEmpty()) {
+      return Double.NaN;
+    }
+    List<Double> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+    return sorted.get(Math.max(0, rank - 1));
+  }
+
+  private static List<Double> sum(List<Double> a, List<Double> b) {
+    if (a == null || b == null) {
+      return a != null ? a : b;
+    }
+    List<Double> sum = new ArrayList<>();
+    for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+      sum.add(a.get(i) + b.get(i));
+    }
+    return sum;
+  }
+
+  private static double min(List<Double> values) {
+    return values == null || values.isEmpty() ? Double.NaN : Collections.min(values);
+  }
+
+  private static double max(List<Double> values) {
+    return values == null || values.isEmpty() ? Double.NaN : Collections.max(values);
+  }
+
+  private static double max(double a, double b) {
+    return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.max(a, b);
+  }
+
+  private static int roundUp(int value, int step) {
+    return (value + step - 1) / step * step;
+  }
+
+  private static String percent(double value) {
+    return Double.isNaN(value) ? "n/a" : String.format("%.1f%%", value);
+  }
+
+  private static String mib(double bytes) {
+    return Double.isNaN(bytes) ? "n/a" : String.format("%.0f MiB", bytes / (1024 * 1024));
+  }
+
+  /** Recommended configuration overrides plus the findings behind them. */
+  static final class Result {
+    private final Map<String, Object> overrides = new LinkedHashMap<>();
+    private final List<String> findings = new ArrayList<>();
+
+    private void addFinding(String format, Object... args) {
+      findings.add(String.format(format, args));
+    }
+
+    Map<String, Object> getOverrides() {
+      return Collections.unmodifiableMap(overrides);
+    }
+
+    List<String> getFindings() {
+      return Collections.unmodifiableList(findings);
+    }
+
+    String toJson() throws IOException {
+      return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(overrides);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = parseArgs(args);
+    Path outputsFile = Path.of(options.getOrDefault("outputs", "cfn-outputs/flat-outputs.json"));
+    Path overrideFile = Path.of(options.getOrDefault("out", "rightsizing-overrides.json"));
+    int days = Integer.parseInt(options.getOrDefault("days", "14"));
+
+    Map<String, String> outputs = new ObjectMapper().readValue(Files.readString(outputsFile),
+        new TypeReference<Map<String, String>>() {
+        });
+
+    Result result;
+    if (options.containsKey("fixture")) {
+      MetricSource fixture = FixtureMetricSource.fromFile(Path.of(options.get("fixture")));
+      result = new RightsizingReport(outputs, fixture, Clock.systemUTC(), days).analyze();
+    } else {
+      try (CloudWatchClient cloudWatch = CloudWatchClient.create()) {
+        result = new RightsizingReport(outputs, new CloudWatchMetricSource(cloudWatch), Clock.systemUTC(), days)
+            .analyze();
+      }
+    }
+
+    result.getFindings().forEach(System.out::println);
+    Files.writeString(overrideFile, result.toJson());
+    System.out.println("Wrote " + overrideFile + "; apply with CONFIG_OVERRIDE_FILE=" + overrideFile);
+  }
+
+  private static Map<String, String> parseArgs(String[] args) {
+    List<String> known = Arrays.asList("outputs", "out", "days", "fixture");
+    Map<String, String> options = new LinkedHashMap<>();
+    for (int i = 0; i < args.length; i++) {
+      String name = args[i].startsWith("--") ? args[i].substring(2) : null;
+      if (name == null || !known.contains(name) || i + 1 >= args.length) {
+        throw new IllegalArgumentException(
+            "Usage: RightsizingReport [--outputs FILE] [--out FILE] [--days N] [--fixture FILE]");
+      }
+      options.put(name, args[++i]);
+    }
+    return options;
+  }
+}
@@ -0,0 +1,140 @@
+package app;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import software.amazon.awscdk.services.dax.CfnCluster;
+import software.amazon.awscdk.services.dax.CfnSubnetGroup;
+import software.amazon.awscdk.services.dynamodb.Attribute;
+import software.amazon.awscdk.services.dynamodb.AttributeType;
+import software.amazon.awscdk.services.dynamodb.BillingMode;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.dynamodb.TableEncryption;
+import software.amazon.awscdk.services.ec2.GatewayVpcEndpoint;
+import software.amazon.awscdk.services.ec2.GatewayVpcEndpointAwsService;
+import software.amazon.awscdk.services.ec2.ISubnet;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.iam.Effect;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.kms.Key;
+import software.constructs.Construct;
+
+/**
+ * On-demand DynamoDB session table that keeps session lookups off the MySQL
+ * instance, with an optional DAX cluster in front of it.
+ *
+ * The web role gets item-level access to the table (and DAX, when enabled)
+ * only, and a DynamoDB gateway endpoint keeps session traffic off the NAT
+ * gateways.
+ */
+class SessionStore extends Construct {
+  static final String PARTITION_KEY = "sessionId";
+  static final String TTL_ATTRIBUTE = "expiresAt";
+
+  /** DAX port for TLS-encrypted cluster endpoints. */
+  private static final int DAX_TLS_PORT = 9111;
+
+  private static final List<String> ITEM_ACTIONS = Arrays.asList(
+      "GetItem", "PutItem", "UpdateItem", "DeleteItem", "ConditionCheckItem");
+
+  private final Table table;
+  private final CfnCluster daxCluster;
+
+  SessionStore(Construct scope, String id, StackConfiguration config, Vpc vpc, SecurityGroup webSg,
+      Key kmsKey, IRole webRole) {
+    super(scope, id);
+
+    table = Table.Builder.create(this, "Table")
+        .tableName(config.getResourceName("sessions"))
+        .partitionKey(Attribute.builder()
+            .name(PARTITION_KEY)
+            .type(AttributeType.STRING)
+            .build())
+        .billingMode(BillingMode.PAY_PER_REQUEST)
+        .timeToLiveAttribute(TTL_ATTRIBUTE)
+        .encryption(TableEncryption.CUSTOMER_MANAGED)
+        .encryptionKey(kmsKey)
+        .build();
+
+    // Least privilege: single-item session operations only, no scans or queries
+    table.grant(webRole, ITEM_ACTIONS.stream().map(a -> "dynamodb:" + a).toArray(String[]::new));
+    kmsKey.grant(webRole, "kms:Decrypt", "kms:GenerateDataKey");
+
+    // Session traffic reaches DynamoDB through the route tables, not NAT. Created
+    // here rather than with vpc.addGatewayEndpoint so it lives in the data stack
+    GatewayVpcEndpoint.Builder.create(this, "DynamoDbEndpoint")
+        .vpc(vpc)
+        .service(GatewayVpcEndpointAwsService.DYNAMODB)
+        .build();
+
+    daxCluster = config.isDaxEnabled() ? createDaxCluster(config, vpc, webSg, webRole) : null;
+  }
+
+  private CfnCluster createDaxCluster(StackConfiguration config, Vpc vpc, SecurityGroup webSg, IRole webRole) {
+    Role daxRole = Role.Builder.create(this, "DaxRole")
+        .assumedBy(new ServicePrincipal("dax.amazonaws.com"))
+        .build();
+    table.grantReadWriteData(daxRole);
+
+    SecurityGroup daxSg = SecurityGroup.Builder.create(this, "DaxSecurityGroup")
+        .vpc(vpc)
+        .description("Security group for the DAX session cache")
+        .allowAllOutbound(false)
+        .build();
+    // Adds the matching ingress on the DAX group and egress on the web group
+    daxSg.getConnections().allowFrom(webSg, Port.tcp(DAX_TLS_PORT), "Allow DAX access from web servers");
+
+    // The isolated cache tier, when configured, keeps the nodes out of the web subnets
+    List<String> subnetIds = config.getCacheSubnetMask() > 0
+        ? vpc.selectSubnets(SubnetSelection.builder()
+            .subnetGroupName(config.getResourceName("cache-subnet"))
+            .build()).getSubnetIds()
+        : vpc.getPrivateSubnets().stream()
+            .map(ISubnet::getSubnetId)
+            .collect(Collectors.toList());
+    CfnSubnetGroup subnetGroup = CfnSubnetGroup.Builder.create(this, "DaxSubnetGroup")
+        .subnetGroupName(config.getResourceName("dax-subnets"))
+        .description("Subnet group for the DAX session cache")
+        .subnetIds(subnetIds)
+        .build();
+
+    CfnCluster cluster = CfnCluster.Builder.create(this, "DaxCluster")
+        .description("DAX cache for the session table")
+        .iamRoleArn(daxRole.getRoleArn())
+        .nodeType(config.getDaxNodeType())
+        .replicationFactor(config.getDaxNodes())
+        .subnetGroupName(subnetGroup.getRef())
+        .securityGroupIds(Arrays.asList(daxSg.getSecurityGroupId()))
+        .clusterEndpointEncryptionType("TLS")
+        .sseSpecification(CfnCluster.SSESpecificationProperty.builder()
+            .sseEnabled(true)
+            .build())
+        .build();
+    // The role's policy must exist before DAX validates it
+    cluster.getNode().addDependency(daxRole);
+
+    webRole.addToPrincipalPolicy(PolicyStatement.Builder.create()
+        .effect(Effect.ALLOW)
+        .actions(ITEM_ACTIONS.stream().map(a -> "dax:" + a).collect(Collectors.toList()))
+        .resources(Arrays.asList(cluster.getAttrArn()))
+        .build());
+
+    return cluster;
+  }
+
+  Table getTable() {
+    return table;
+  }
+
+  /** DAX discovery endpoint URL, or {@code null} when DAX is disabled. */
+  String getDaxEndpoint() {
+    return daxCluster != null ? daxCluster.getAttrClusterDiscoveryEndpointUrl() : null;
+  }
+}
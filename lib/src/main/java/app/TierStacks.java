@@ -0,0 +1,101 @@
+package app;
+
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.StackProps;
+
+/**
+ * Split layout ({@code stackLayout=split}): the same tiers as {@link TapStack},
+ * one CloudFormation stack each.
+ *
+ * <ul>
+ *   <li>{@code <id>-Network}: KMS, VPC, security groups, CloudTrail, alert topic and web role</li>
+ *   <li>{@code <id>-Data}: RDS and the optional session store; depends on Network</li>
+ *   <li>{@code <id>-Web}: web instances, ALB, tracing and work queue; depends on Network</li>
+ *   <li>{@code <id>-Experiments}: the FIS experiment templates, only when
+ *       fault injection is enabled; depends on all three</li>
+ * </ul>
+ *
+ * Data and Web only reference Network (through CloudFormation exports), never
+ * each other, so {@code cdk deploy --all --concurrency 2} rolls them out in
+ * parallel and a web-only change never updates the data stack. Each tier
+ * publishes its own endpoint manifest parameter under
+ * {@code /<project>/<env>/endpoint-manifest/}, and the experiments address
+ * instances by tag and alarms and the database by name, so nothing imports
+ * the web or data tier and replacing an instance never hits an export that is
+ * still in use.
+ */
+class TierStacks {
+  private final Stack networkStack;
+  private final Stack dataStack;
+  private final Stack webStack;
+  private final Stack experimentsStack;
+
+  TierStacks(App scope, String id, StackProps props) {
+    StackConfiguration config = StackConfiguration.from(scope);
+
+    networkStack = tierStack(scope, id + "-Network", props, config);
+    dataStack = tierStack(scope, id + "-Data", props, config);
+    webStack = tierStack(scope, id + "-Web", props, config);
+
+    // Declared up front rather than inferred: KMS grants check stack
+    // dependencies to decide whether the key policy or the role policy changes
+    dataStack.addDependency(networkStack, "VPC, security groups, KMS key and web role");
+    webStack.addDependency(networkStack, "VPC, security groups, KMS key and web role");
+
+    NetworkTier network = new NetworkTier(networkStack, config);
+    KmsKeys dataKeys = new KmsKeys(dataStack, config, network.getKmsKey());
+    DataTier data = new DataTier(dataStack, config, network, dataKeys);
+    KmsKeys webKeys = new KmsKeys(webStack, config, network.getKmsKey());
+    WebTier web = new WebTier(webStack, config, network, webKeys);
+
+    EndpointManifestWriter.publishNetwork(networkStack, config, network);
+    EndpointManifestWriter.publishData(dataStack, config, data, dataKeys);
+    EndpointManifestWriter.publishWeb(webStack, config, web, webKeys);
+
+    // Experiments target both data and web, so they deploy after both
+    if (config.isFaultInjectionEnabled()) {
+      experimentsStack = tierStack(scope, id + "-Experiments", props, config);
+      experimentsStack.addDependency(dataStack, "Database and data tier alarms");
+      experimentsStack.addDependency(webStack, "Tagged web instances and web tier alarms");
+      new FaultInjectionExperiments(experimentsStack, config.getResourceName("fault-injection"), config, network,
+          web, data);
+    } else {
+      experimentsStack = null;
+    }
+
+    network.addOutputs();
+    data.addOutputs();
+    web.addOutputs();
+
+    CfnOutput.Builder.create(networkStack, "EndpointManifestPath")
+        .description("SSM path holding one JSON endpoint manifest parameter per tier")
+        .value(config.getEndpointManifestParameterName())
+        .exportName(config.getResourceName("endpoint-manifest-path"))
+        .build();
+  }
+
+  Stack getNetworkStack() {
+    return networkStack;
+  }
+
+  Stack getDataStack() {
+    return dataStack;
+  }
+
+  Stack getWebStack() {
+    return webStack;
+  }
+
+  /** FIS experiment stack, or {@code null} when fault injection is disabled. */
+  Stack getExperimentsStack() {
+    return experimentsStack;
+  }
+
+  private static Stack tierStack(App scope, String id, StackProps props, StackConfiguration config) {
+    Stack stack = new Stack(scope, id, props);
+    TapStack.applyDefaults(stack, config);
+    return stack;
+  }
+}
@@ -0,0 +1,120 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Fn;
+import software.amazon.awscdk.services.ec2.ISecurityGroup;
+import software.amazon.awscdk.services.ec2.IVpc;
+import software.amazon.awscdk.services.ec2.Instance;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.globalaccelerator.Accelerator;
+import software.amazon.awscdk.services.globalaccelerator.ConnectionProtocol;
+import software.amazon.awscdk.services.globalaccelerator.EndpointGroup;
+import software.amazon.awscdk.services.globalaccelerator.EndpointGroupOptions;
+import software.amazon.awscdk.services.globalaccelerator.HealthCheckProtocol;
+import software.amazon.awscdk.services.globalaccelerator.IEndpoint;
+import software.amazon.awscdk.services.globalaccelerator.Listener;
+import software.amazon.awscdk.services.globalaccelerator.ListenerOptions;
+import software.amazon.awscdk.services.globalaccelerator.PortRange;
+import software.amazon.awscdk.services.globalaccelerator.endpoints.ApplicationLoadBalancerEndpoint;
+import software.amazon.awscdk.services.globalaccelerator.endpoints.ApplicationLoadBalancerEndpointOptions;
+import software.amazon.awscdk.services.globalaccelerator.endpoints.InstanceEndpoint;
+import software.amazon.awscdk.services.globalaccelerator.endpoints.InstanceEndpointProps;
+import software.constructs.Construct;
+
+/**
+ * Global Accelerator in front of the web tier: two static anycast IPs that
+ * enter the AWS network at the nearest edge location, with a TCP 80 listener
+ * and one endpoint group in the stack's region.
+ *
+ * The endpoint is the ALB when there is one, otherwise each web instance.
+ * Failover follows endpoint health rather than DNS TTLs. The endpoint group's
+ * health-check settings apply to instance endpoints; ALB endpoints report the
+ * health of their target group. With client IP preservation the security
+ * group rules keep matching the real client addresses (the office CIDRs).
+ *
+ * Instance endpoints are reached through Global Accelerator's ENIs in the VPC,
+ * whose service-created "GlobalAccelerator" security group is looked up after
+ * the endpoint group exists and admitted on the listener port, so health
+ * checks and traffic get past the office-only web security group.
+ */
+class WebAccelerator extends Construct {
+  static final int DEFAULT_WEIGHT = 128;
+
+  private final Accelerator accelerator;
+  private final EndpointGroup endpointGroup;
+
+  WebAccelerator(Construct scope, String id, StackConfiguration config, WebLoadBalancer loadBalancer,
+      List<Instance> instances, IVpc vpc, ISecurityGroup webSecurityGroup) {
+    super(scope, id);
+
+    accelerator = Accelerator.Builder.create(this, "Accelerator")
+        .acceleratorName(config.getResourceName("web-accelerator"))
+        .enabled(true)
+        .build();
+
+    Listener listener = accelerator.addListener("Http", ListenerOptions.builder()
+        .listenerName(config.getResourceName("web-http"))
+        .protocol(ConnectionProtocol.TCP)
+        .portRanges(Arrays.asList(PortRange.builder()
+            .fromPort(80)
+            .build()))
+        .build());
+
+    List<IEndpoint> endpoints = new ArrayList<>();
+    if (loadBalancer != null) {
+      endpoints.add(new ApplicationLoadBalancerEndpoint(loadBalancer.getLoadBalancer(),
+          ApplicationLoadBalancerEndpointOptions.builder()
+              .weight(weight(config, 0))
+              .preserveClientIp(config.isAcceleratorPreserveClientIp())
+              .build()));
+    } else {
+      for (int i = 0; i < instances.size(); i++) {
+        endpoints.add(new InstanceEndpoint(instances.get(i), InstanceEndpointProps.builder()
+            .weight(weight(config, i))
+            .preserveClientIp(config.isAcceleratorPreserveClientIp())
+            .build()));
+      }
+    }
+
+    endpointGroup = listener.addEndpointGroup("Region", EndpointGroupOptions.builder()
+        .endpoints(endpoints)
+        .trafficDialPercentage(config.getAcceleratorTrafficDialPercent())
+        .healthCheckProtocol(HealthCheckProtocol.HTTP)
+        .healthCheckPort(80)
+        .healthCheckPath(config.getHealthCheckPath())
+        .healthCheckInterval(Duration.seconds(config.getAcceleratorHealthCheckIntervalSeconds()))
+        .healthCheckThreshold(config.getAcceleratorHealthCheckThreshold())
+        .build());
+
+    if (loadBalancer == null) {
+      webSecurityGroup.addIngressRule(endpointGroup.connectionsPeer("GlobalAcceleratorPeer", vpc), Port.tcp(80),
+          "Allow Global Accelerator health checks and traffic");
+    }
+  }
+
+  private static int weight(StackConfiguration config, int index) {
+    List<Integer> weights = config.getAcceleratorEndpointWeights();
+    return index < weights.size() ? weights.get(index) : DEFAULT_WEIGHT;
+  }
+
+  Accelerator getAccelerator() {
+    return accelerator;
+  }
+
+  EndpointGroup getEndpointGroup() {
+    return endpointGroup;
+  }
+
+  String getDnsName() {
+    return accelerator.getDnsName();
+  }
+
+  /** The static anycast IPv4 addresses, comma-separated. */
+  String getIpAddresses() {
+    return Fn.join(",", accelerator.getIpv4Addresses());
+  }
+}
@@ -0,0 +1,182 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.services.applicationautoscaling.EnableScalingProps;
+import software.amazon.awscdk.services.ec2.ISecurityGroup;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.SubnetType;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.ecr.Repository;
+import software.amazon.awscdk.services.ecs.AwsLogDriverProps;
+import software.amazon.awscdk.services.ecs.CapacityProviderStrategy;
+import software.amazon.awscdk.services.ecs.Cluster;
+import software.amazon.awscdk.services.ecs.ContainerDefinitionOptions;
+import software.amazon.awscdk.services.ecs.ContainerImage;
+import software.amazon.awscdk.services.ecs.CpuUtilizationScalingProps;
+import software.amazon.awscdk.services.ecs.DeploymentCircuitBreaker;
+import software.amazon.awscdk.services.ecs.FargateService;
+import software.amazon.awscdk.services.ecs.FargateTaskDefinition;
+import software.amazon.awscdk.services.ecs.LogDrivers;
+import software.amazon.awscdk.services.ecs.PortMapping;
+import software.amazon.awscdk.services.ecs.RequestCountScalingProps;
+import software.amazon.awscdk.services.ecs.ScalableTaskCount;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.logs.ILogGroup;
+import software.constructs.Construct;
+
+/**
+ * Web tier as an ECS Fargate service ({@code webComputeMode=fargate}).
+ *
+ * Tasks run in the private subnets with the web security group, like the EC2
+ * instances, but start from a pulled image in well under a minute instead of
+ * booting and bootstrapping an AMI. Capacity is split between FARGATE (the
+ * {@code fargateBaseTasks} base plus its weight) and FARGATE_SPOT; target
+ * tracking scales the task count on CPU and on ALB requests per target. The
+ * service always sits behind the ALB, since the web security group only
+ * admits the office CIDRs directly. The container must listen on port
+ * {@link #CONTAINER_PORT}.
+ */
+class WebFargateService extends Construct {
+  static final int CONTAINER_PORT = 80;
+  /**
+   * Fargate task sizes: CPU units, memory range in MiB and the step within
+   * it. 256 CPU units take only 512, 1024 or 2048, hence its two rows.
+   */
+  static final int[][] TASK_SIZES = {
+      {256, 512, 512, 512},
+      {256, 1024, 2048, 1024},
+      {512, 1024, 4096, 1024},
+      {1024, 2048, 8192, 1024},
+      {2048, 4096, 16384, 1024},
+      {4096, 8192, 30720, 1024},
+      {8192, 16384, 61440, 4096},
+      {16384, 32768, 122880, 8192},
+  };
+  private static final String ECR_PREFIX = "ecr:";
+
+  private final Cluster cluster;
+  private final FargateService service;
+  private final ScalableTaskCount scaling;
+
+  WebFargateService(Construct scope, String id, StackConfiguration config, Vpc vpc, ISecurityGroup securityGroup,
+      IRole taskRole, ILogGroup logGroup) {
+    super(scope, id);
+
+    cluster = Cluster.Builder.create(this, "Cluster")
+        .clusterName(config.getResourceName("web"))
+        .vpc(vpc)
+        .enableFargateCapacityProviders(true)
+        .containerInsights(true)
+        .build();
+
+    FargateTaskDefinition taskDefinition = FargateTaskDefinition.Builder.create(this, "TaskDefinition")
+        .family(config.getResourceName("web"))
+        .cpu(config.getWebTaskCpu())
+        .memoryLimitMiB(config.getWebTaskMemoryMib())
+        .taskRole(taskRole)
+        .build();
+
+    taskDefinition.addContainer("Web", ContainerDefinitionOptions.builder()
+        .image(image(this, config.getWebContainerImage()))
+        .essential(true)
+        .portMappings(Arrays.asList(PortMapping.builder()
+            .containerPort(CONTAINER_PORT)
+            .build()))
+        .logging(LogDrivers.awsLogs(AwsLogDriverProps.builder()
+            .logGroup(logGroup)
+            .streamPrefix("web")
+            .build()))
+        .build());
+
+    service = FargateService.Builder.create(this, "Service")
+        .serviceName(config.getResourceName("web"))
+        .cluster(cluster)
+        .taskDefinition(taskDefinition)
+        .desiredCount(config.getWebMinTasks())
+        .securityGroups(Arrays.asList(securityGroup))
+        .vpcSubnets(SubnetSelection.builder()
+            .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+            .build())
+        .assignPublicIp(false)
+        // Base tasks always on on-demand capacity; the rest split by weight
+        .capacityProviderStrategies(Arrays.asList(
+            CapacityProviderStrategy.builder()
+                .capacityProvider("FARGATE")
+                .base(config.getFargateBaseTasks())
+                .weight(config.getFargateWeight())
+                .build(),
+            CapacityProviderStrategy.builder()
+                .capacityProvider("FARGATE_SPOT")
+                .weight(config.getFargateSpotWeight())
+                .build()))
+        .circuitBreaker(DeploymentCircuitBreaker.builder()
+            .rollback(true)
+            .build())
+        .minHealthyPercent(100)
+        .build();
+
+    scaling = service.autoScaleTaskCount(EnableScalingProps.builder()
+        .minCapacity(config.getWebMinTasks())
+        .maxCapacity(config.getWebMaxTasks())
+        .build());
+    scaling.scaleOnCpuUtilization("Cpu", CpuUtilizationScalingProps.builder()
+        .targetUtilizationPercent(config.getWebCpuTargetPercent())
+        .scaleOutCooldown(Duration.seconds(60))
+        .scaleInCooldown(Duration.minutes(5))
+        .build());
+  }
+
+  /** Adds target tracking on ALB requests per task; call once the service is registered with the ALB. */
+  void scaleOnRequestCount(WebLoadBalancer loadBalancer, int requestsPerTarget) {
+    scaling.scaleOnRequestCount("Requests", RequestCountScalingProps.builder()
+        .requestsPerTarget(requestsPerTarget)
+        .targetGroup(loadBalancer.getTargetGroup())
+        .scaleOutCooldown(Duration.seconds(60))
+        .scaleInCooldown(Duration.minutes(5))
+        .build());
+  }
+
+  /** {@code ecr:<repository>[:<tag>]} for a repository in this account, anything else is pulled as-is. */
+  private static ContainerImage image(Construct scope, String source) {
+    if (!source.startsWith(ECR_PREFIX)) {
+      return ContainerImage.fromRegistry(source);
+    }
+    String[] parts = source.substring(ECR_PREFIX.length()).split(":", 2);
+    return ContainerImage.fromEcrRepository(Repository.fromRepositoryName(scope, "Repository", parts[0]),
+        parts.length > 1 ? parts[1] : "latest");
+  }
+
+  /** Checks {@code cpu}/{@code memoryMib} against the Fargate task size table, including the memory steps. */
+  static void validateTaskSize(int cpu, int memoryMib) {
+    List<String> allowed = new ArrayList<>();
+    for (int[] size : TASK_SIZES) {
+      if (size[0] != cpu) {
+        continue;
+      }
+      if (memoryMib >= size[1] && memoryMib <= size[2] && (memoryMib - size[1]) % size[3] == 0) {
+        return;
+      }
+      allowed.add(size[1] == size[2]
+          ? String.valueOf(size[1])
+          : String.format("%d to %d in steps of %d", size[1], size[2], size[3]));
+    }
+    if (allowed.isEmpty()) {
+      throw new IllegalArgumentException(
+          "webTaskCpu must be one of 256, 512, 1024, 2048, 4096, 8192, 16384: " + cpu);
+    }
+    throw new IllegalArgumentException(String.format("webTaskMemoryMib for %d CPU units must be %s: %d",
+        cpu, String.join(" or ", allowed), memoryMib));
+  }
+
+  Cluster getCluster() {
+    return cluster;
+  }
+
+  FargateService getService() {
+    return service;
+  }
+}
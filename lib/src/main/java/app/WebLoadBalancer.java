@@ -0,0 +1,114 @@
+package app;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.services.ec2.Instance;
+import software.amazon.awscdk.services.ec2.Peer;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.SubnetType;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.elasticloadbalancingv2.AddApplicationTargetsProps;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationListener;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationLoadBalancer;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationProtocol;
+import software.amazon.awscdk.services.elasticloadbalancingv2.ApplicationTargetGroup;
+import software.amazon.awscdk.services.elasticloadbalancingv2.BaseApplicationListenerProps;
+import software.amazon.awscdk.services.elasticloadbalancingv2.HealthCheck;
+import software.amazon.awscdk.services.elasticloadbalancingv2.IApplicationLoadBalancerTarget;
+import software.amazon.awscdk.services.elasticloadbalancingv2.IpAddressType;
+import software.amazon.awscdk.services.elasticloadbalancingv2.targets.InstanceTarget;
+import software.constructs.Construct;
+
+/**
+ * Internet-facing Application Load Balancer in front of the web tier.
+ *
+ * Ingress is limited to the office CIDR(s), matching the web security group.
+ * Targets are registered separately so the same entry point can front the EC2
+ * instances or other compute.
+ */
+class WebLoadBalancer extends Construct {
+  private final SecurityGroup securityGroup;
+  private final ApplicationLoadBalancer loadBalancer;
+  private final ApplicationListener listener;
+  private final StackConfiguration config;
+  private ApplicationTargetGroup targetGroup;
+
+  WebLoadBalancer(Construct scope, String id, StackConfiguration config, Vpc vpc) {
+    super(scope, id);
+    this.config = config;
+
+    securityGroup = SecurityGroup.Builder.create(this, "SecurityGroup")
+        .vpc(vpc)
+        .description("Security group for the web load balancer")
+        .allowAllOutbound(false)
+        .build();
+    securityGroup.addIngressRule(Peer.ipv4(config.getOfficeCidr()), Port.tcp(80), "Allow HTTP from office");
+    if (config.isIpv6Enabled() && config.getOfficeIpv6Cidr() != null) {
+      securityGroup.addIngressRule(Peer.ipv6(config.getOfficeIpv6Cidr()), Port.tcp(80),
+          "Allow HTTP from office (IPv6)");
+    }
+
+    loadBalancer = ApplicationLoadBalancer.Builder.create(this, "LoadBalancer")
+        .loadBalancerName(config.getResourceName("alb"))
+        .vpc(vpc)
+        .internetFacing(true)
+        .vpcSubnets(SubnetSelection.builder()
+            .subnetType(SubnetType.PUBLIC)
+            .build())
+        .securityGroup(securityGroup)
+        .ipAddressType(config.isIpv6Enabled() ? IpAddressType.DUAL_STACK : IpAddressType.IPV4)
+        .dropInvalidHeaderFields(true)
+        .idleTimeout(Duration.seconds(60))
+        .build();
+
+    listener = loadBalancer.addListener("Http", BaseApplicationListenerProps.builder()
+        .port(80)
+        .protocol(ApplicationProtocol.HTTP)
+        .open(false)
+        .build());
+  }
+
+  /** Registers the EC2 web instances as the listener's default targets. */
+  void addInstanceTargets(List<Instance> instances) {
+    addTargets(instances.stream()
+        .map(instance -> new InstanceTarget(instance, 80))
+        .collect(Collectors.toList()));
+  }
+
+  void addTargets(List<? extends IApplicationLoadBalancerTarget> targets) {
+    targetGroup = listener.addTargets("Web", AddApplicationTargetsProps.builder()
+        .targetGroupName(config.getResourceName("web-tg"))
+        .port(80)
+        .protocol(ApplicationProtocol.HTTP)
+        .targets(targets)
+        .deregistrationDelay(Duration.seconds(30))
+        .healthCheck(HealthCheck.builder()
+            .path(config.getHealthCheckPath())
+            .interval(Duration.seconds(15))
+            .healthyThresholdCount(2)
+            .unhealthyThresholdCount(3)
+            .build())
+        .build());
+  }
+
+  SecurityGroup getSecurityGroup() {
+    return securityGroup;
+  }
+
+  ApplicationLoadBalancer getLoadBalancer() {
+    return loadBalancer;
+  }
+
+  ApplicationListener getListener() {
+    return listener;
+  }
+
+  /** Default target group, or {@code null} before targets are registered. */
+  ApplicationTargetGroup getTargetGroup() {
+    return targetGroup;
+  }
+}
@@ -0,0 +1,448 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awscdk.CfnOutput;
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.Tags;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.IAlarm;
+import software.amazon.awscdk.services.cloudwatch.Metric;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
+import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
+import software.amazon.awscdk.services.ec2.BlockDevice;
+import software.amazon.awscdk.services.ec2.BlockDeviceVolume;
+import software.amazon.awscdk.services.ec2.EbsDeviceOptions;
+import software.amazon.awscdk.services.ec2.EbsDeviceVolumeType;
+import software.amazon.awscdk.services.ec2.ISecurityGroup;
+import software.amazon.awscdk.services.ec2.ISubnet;
+import software.amazon.awscdk.services.ec2.Instance;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.ec2.MachineImage;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.UserData;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.logs.CfnLogGroup;
+import software.amazon.awscdk.services.logs.ILogGroup;
+import software.amazon.awscdk.services.logs.LogGroup;
+
+/**
+ * Web tier: EC2 web instances or an ECS Fargate service, optional ALB with access-log analytics,
+ * optional Global Accelerator, optional X-Ray tracing, optional log pipeline,
+ * CPU or fast-detection alarms and the optional work queue. Depends only on
+ * the {@link NetworkTier}; like it, resources are created directly in the
+ * given stack.
+ */
+class WebTier {
+  /** Tag key marking the web instances, e.g. as FIS targets. */
+  static final String TIER_TAG = "Tier";
+
+  /** Root device of the Amazon Linux 2 AMI, pinned when webRootVolumeType is set. */
+  static final String ROOT_DEVICE_NAME = "/dev/xvda";
+  static final int ROOT_VOLUME_GIB = 8;
+
+  private final Stack scope;
+  private final StackConfiguration config;
+  private final NetworkTier network;
+  private final IRole webRole;
+  private final Map<String, Object> manifestSections = new LinkedHashMap<>();
+  private final List<Instance> instances;
+  private final WebFargateService webService;
+  private final WebLoadBalancer loadBalancer;
+  private final List<IAlarm> alarms = new ArrayList<>();
+  private final List<String> alarmNames = new ArrayList<>();
+
+  WebTier(Stack scope, StackConfiguration config, NetworkTier network, KmsKeys kmsKeys) {
+    this.scope = scope;
+    this.config = config;
+    this.network = network;
+    this.webRole = network.ec2RoleFor(scope);
+
+    // Optional X-Ray daemon and sampling rules for the web tier
+    XRayTracing tracing = config.isTracingEnabled() ? createTracing() : null;
+
+    // Optional CloudWatch Logs -> Firehose -> Parquet archive for web logs
+    LogPipeline logPipeline = config.isLogPipelineEnabled() ? createLogPipeline(kmsKeys) : null;
+
+    // Launch EC2 instances or Fargate tasks in private subnets
+    this.instances = config.isFargateWeb() ? List.of() : createEc2Instances(tracing, logPipeline);
+    this.webService = config.isFargateWeb() ? createWebService(logPipeline) : null;
+
+    // Optional ALB in front of the web instances, with access-log analytics
+    this.loadBalancer = config.isLoadBalancerEnabled() ? createLoadBalancer() : null;
+
+    // Optional static anycast entry point in front of the ALB or instances
+    if (config.isGlobalAcceleratorEnabled()) {
+      createAccelerator();
+    }
+
+    if (config.isFastDetection()) {
+      // 1-minute anomaly-band alarms rolled up into one composite alarm per tier
+      alarms.add(FastDetectionAlarms.forStack(scope, config, network.getAlertTopic())
+          .addWebTier(instances, webService != null ? webService.getService() : null, loadBalancer));
+      alarmNames.add(FastDetectionAlarms.tierAlarmName(config, "web"));
+    } else if (webService != null) {
+      createServiceCpuAlarm();
+    } else {
+      // Create CloudWatch alarms for EC2 CPU monitoring
+      createCpuAlarms();
+    }
+
+    // Optional async worker tier for slow requests
+    if (config.isWorkQueueEnabled()) {
+      createWorkQueue(kmsKeys);
+    }
+  }
+
+  List<Instance> getInstances() {
+    return instances;
+  }
+
+  /** The Fargate web service, or {@code null} in EC2 compute mode. */
+  WebFargateService getWebService() {
+    return webService;
+  }
+
+  WebLoadBalancer getLoadBalancer() {
+    return loadBalancer;
+  }
+
+  /** The tier's alerting alarms: per-instance or service CPU alarms, or the composite alarm in fast detection mode. */
+  List<IAlarm> getAlarms() {
+    return alarms;
+  }
+
+  /** Names of {@link #getAlarms()}, for ARNs built without importing from this tier's stack. */
+  List<String> getAlarmNames() {
+    return alarmNames;
+  }
+
+  /** Optional endpoint manifest sections contributed by this tier, keyed by section name. */
+  Map<String, Object> getManifestSections() {
+    return manifestSections;
+  }
+
+  private XRayTracing createTracing() {
+    // Daemon permissions land in this stack's policy on the (possibly imported) role
+    XRayTracing tracing = new XRayTracing(scope, getResourceName("tracing"), config, webRole);
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("serviceName", tracing.getServiceName());
+    section.put("daemonAddress", XRayTracing.DAEMON_ADDRESS);
+    section.put("samplingRules", tracing.getRuleNames());
+    manifestSections.put("tracing", section);
+    return tracing;
+  }
+
+  private LogPipeline createLogPipeline(KmsKeys kmsKeys) {
+    LogPipeline logPipeline = new LogPipeline(scope, getResourceName("log-pipeline"), config,
+        kmsKeys.forService("logs", "firehose"));
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("logGroups", logPipeline.getLogGroupNames());
+    section.put("archiveBucket", logPipeline.getBucket().getBucketName());
+    section.put("deliveryStreamName", logPipeline.getDeliveryStreamName());
+    section.put("glueDatabase", logPipeline.getDatabaseName());
+    section.put("glueTable", LogPipeline.TABLE_NAME);
+    manifestSections.put("logPipeline", section);
+
+    CfnOutput.Builder.create(scope, "LogArchiveBucketName")
+        .description("S3 bucket holding the Parquet web log archive")
+        .value(logPipeline.getBucket().getBucketName())
+        .exportName(getResourceName("log-archive-bucket-name"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "LogDeliveryStreamName")
+        .description("Firehose delivery stream for web logs")
+        .value(logPipeline.getDeliveryStreamName())
+        .exportName(getResourceName("log-delivery-stream-name"))
+        .build();
+    return logPipeline;
+  }
+
+  private List<Instance> createEc2Instances(XRayTracing tracing, LogPipeline logPipeline) {
+    List<Instance> created = new ArrayList<>();
+
+    // Get private subnets
+    List<ISubnet> privateSubnets = network.getVpc().getPrivateSubnets();
+
+    for (int i = 0; i < privateSubnets.size(); i++) {
+      UserData userData = UserData.forLinux();
+      addMemoryMetrics(userData);
+      if (tracing != null) {
+        tracing.addDaemonInstall(userData);
+      }
+      if (logPipeline != null) {
+        logPipeline.addAgentConfig(userData);
+      }
+
+      Instance instance = Instance.Builder.create(scope, getResourceName("web-instance-" + (i + 1)))
+          .instanceName(getResourceName("web-server-" + (i + 1)))
+          .instanceType(new InstanceType(config.getWebInstanceType()))
+          .machineImage(MachineImage.latestAmazonLinux2())
+          .vpc(network.getVpc())
+          .vpcSubnets(SubnetSelection.builder()
+              .subnets(Arrays.asList(privateSubnets.get(i)))
+              .build())
+          .securityGroup(network.getWebSecurityGroup())
+          .role(webRole)
+          .userData(userData)
+          .blockDevices(rootVolume())
+          .detailedMonitoring(config.isFastDetection() ? true : null) // 1-minute EC2 metrics
+          .build();
+      // Lets other stacks select the web instances without importing their IDs
+      Tags.of(instance).add(TIER_TAG, "web");
+
+      created.add(instance);
+    }
+
+    return created;
+  }
+
+  /** The pinned root volume, or null to keep the AMI's block device mapping. */
+  private List<BlockDevice> rootVolume() {
+    if (config.getWebRootVolumeType() == null) {
+      return null;
+    }
+    return Arrays.asList(BlockDevice.builder()
+        .deviceName(ROOT_DEVICE_NAME)
+        .volume(BlockDeviceVolume.ebs(ROOT_VOLUME_GIB, EbsDeviceOptions.builder()
+            .volumeType(EbsDeviceVolumeType.valueOf(config.getWebRootVolumeType().toUpperCase()))
+            .encrypted(true)
+            .build()))
+        .build());
+  }
+
+  /**
+   * Installs the CloudWatch agent with memory collection only, so
+   * {@link RightsizingReport} has {@code CWAgent/mem_used_percent} keyed by
+   * InstanceId whatever else is enabled; the log pipeline appends its own config.
+   */
+  private static void addMemoryMetrics(UserData userData) {
+    String config = "{\"metrics\":{\"namespace\":\"CWAgent\","
+        + "\"append_dimensions\":{\"InstanceId\":\"${aws:InstanceId}\"},"
+        + "\"metrics_collected\":{\"mem\":{\"measurement\":[\"mem_used_percent\"],"
+        + "\"metrics_collection_interval\":60}}}}";
+    userData.addCommands(
+        "yum install -y amazon-cloudwatch-agent",
+        "cat > /opt/aws/amazon-cloudwatch-agent/etc/memory-metrics.json <<'EOF'",
+        config,
+        "EOF",
+        "/opt/aws/amazon-cloudwatch-agent/bin/amazon-cloudwatch-agent-ctl -a fetch-config -m ec2 -s"
+            + " -c file:/opt/aws/amazon-cloudwatch-agent/etc/memory-metrics.json");
+  }
+
+  private WebFargateService createWebService(LogPipeline logPipeline) {
+    ILogGroup logGroup;
+    if (logPipeline != null) {
+      // Container logs go to the archived application log group
+      logGroup = logPipeline.getApplicationLogGroup();
+    } else {
+      LogGroup created = LogGroup.Builder.create(scope, getResourceName("web-service-logs"))
+          .logGroupName("/" + getResourceName("web") + "/service")
+          .build();
+      // Any value from the allowed list, not just the RetentionDays enum
+      ((CfnLogGroup) created.getNode().getDefaultChild()).setRetentionInDays(config.getLogGroupRetentionDays());
+      logGroup = created;
+    }
+
+    WebFargateService service = new WebFargateService(scope, getResourceName("web-service"), config,
+        network.getVpc(), network.webSecurityGroupFor(scope), webRole, logGroup);
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("clusterName", service.getCluster().getClusterName());
+    section.put("serviceName", service.getService().getServiceName());
+    manifestSections.put("webService", section);
+    return service;
+  }
+
+  private void createServiceCpuAlarm() {
+    Alarm alarm = Alarm.Builder.create(scope, getResourceName("cpu-alarm-service"))
+        .alarmName(getResourceName("high-cpu-service"))
+        .alarmDescription("Average CPU utilization exceeds 80% across the web service's tasks")
+        .metric(webService.getService().metricCpuUtilization(MetricOptions.builder()
+            .statistic("Average")
+            .period(Duration.minutes(5))
+            .build()))
+        .threshold(80.0)
+        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+        .evaluationPeriods(2)
+        .treatMissingData(TreatMissingData.BREACHING)
+        .build();
+    alarm.addAlarmAction(new SnsAction(network.getAlertTopic()));
+    alarms.add(alarm);
+    alarmNames.add(getResourceName("high-cpu-service"));
+  }
+
+  private void createCpuAlarms() {
+    for (int i = 0; i < instances.size(); i++) {
+      Instance instance = instances.get(i);
+
+      Alarm alarm = Alarm.Builder.create(scope, getResourceName("cpu-alarm-" + (i + 1)))
+          .alarmName(getResourceName("high-cpu-" + (i + 1)))
+          .alarmDescription("CPU utilization exceeds 80% for " + instance.getInstanceId())
+          .metric(Metric.Builder.create()
+              .namespace("AWS/EC2")
+              .metricName("CPUUtilization")
+              .dimensionsMap(Map.of("InstanceId", instance.getInstanceId()))
+              .statistic("Average")
+              .period(Duration.minutes(5))
+              .build())
+          .threshold(80.0)
+          .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+          .evaluationPeriods(2)
+          .treatMissingData(TreatMissingData.BREACHING)
+          .build();
+      alarm.addAlarmAction(new SnsAction(network.getAlertTopic()));
+      alarms.add(alarm);
+      alarmNames.add(getResourceName("high-cpu-" + (i + 1)));
+    }
+  }
+
+  private void createWorkQueue(KmsKeys kmsKeys) {
+    WorkQueue workQueue = new WorkQueue(scope, getResourceName("work-queue"), config, network.getVpc(),
+        kmsKeys.forService("messaging", "sqs"), webRole, network.getAlertTopic());
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("queueUrl", workQueue.getQueue().getQueueUrl());
+    section.put("deadLetterQueueUrl", workQueue.getDeadLetterQueue().getQueueUrl());
+    manifestSections.put("workQueue", section);
+
+    CfnOutput.Builder.create(scope, "WorkQueueUrl")
+        .description("SQS work queue URL")
+        .value(workQueue.getQueue().getQueueUrl())
+        .exportName(getResourceName("work-queue-url"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "WorkerAutoScalingGroupName")
+        .description("Worker Auto Scaling group name")
+        .value(workQueue.getWorkers().getAutoScalingGroupName())
+        .exportName(getResourceName("worker-asg-name"))
+        .build();
+  }
+
+  private WebLoadBalancer createLoadBalancer() {
+    WebLoadBalancer alb = new WebLoadBalancer(scope, getResourceName("alb"), config, network.getVpc());
+    if (webService != null) {
+      alb.addTargets(List.of(webService.getService()));
+      webService.scaleOnRequestCount(alb, config.getWebRequestsPerTarget());
+    } else {
+      alb.addInstanceTargets(instances);
+    }
+    // Standalone rules on both groups: ALB egress and web ingress on the target port.
+    // Driven from the ALB side so both rules stay in this tier's stack
+    alb.getSecurityGroup().getConnections().allowTo(network.getWebSecurityGroup(), Port.tcp(80),
+        "Allow HTTP from the load balancer");
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("dnsName", alb.getLoadBalancer().getLoadBalancerDnsName());
+    section.put("targetGroupArn", alb.getTargetGroup().getTargetGroupArn());
+
+    CfnOutput.Builder.create(scope, "LoadBalancerDnsName")
+        .description("Web load balancer DNS name")
+        .value(alb.getLoadBalancer().getLoadBalancerDnsName())
+        .exportName(getResourceName("alb-dns-name"))
+        .build();
+
+    if (config.isAccessLogAnalyticsEnabled()) {
+      AccessLogAnalytics analytics = new AccessLogAnalytics(scope, getResourceName("access-logs"), config,
+          alb.getLoadBalancer());
+      section.put("accessLogBucket", analytics.getBucket().getBucketName());
+      section.put("athenaDatabase", analytics.getDatabaseName());
+      section.put("athenaWorkGroup", analytics.getWorkGroupName());
+
+      CfnOutput.Builder.create(scope, "AccessLogBucketName")
+          .description("S3 bucket receiving load balancer access logs")
+          .value(analytics.getBucket().getBucketName())
+          .exportName(getResourceName("access-log-bucket-name"))
+          .build();
+
+      CfnOutput.Builder.create(scope, "AthenaWorkGroupName")
+          .description("Athena workgroup for access-log latency queries")
+          .value(analytics.getWorkGroupName())
+          .exportName(getResourceName("athena-workgroup-name"))
+          .build();
+    }
+
+    manifestSections.put("loadBalancer", section);
+    return alb;
+  }
+
+  private void createAccelerator() {
+    // Mutable import so the instance-endpoint ingress rule lands in this stack
+    ISecurityGroup webSg = SecurityGroup.fromSecurityGroupId(scope, getResourceName("accelerator-web-sg"),
+        network.getWebSecurityGroup().getSecurityGroupId());
+    WebAccelerator accelerator = new WebAccelerator(scope, getResourceName("accelerator"), config, loadBalancer,
+        instances, network.getVpc(), webSg);
+
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("dnsName", accelerator.getDnsName());
+    section.put("ipAddresses", accelerator.getAccelerator().getIpv4Addresses());
+    manifestSections.put("globalAccelerator", section);
+
+    CfnOutput.Builder.create(scope, "AcceleratorDnsName")
+        .description("Global Accelerator DNS name")
+        .value(accelerator.getDnsName())
+        .exportName(getResourceName("accelerator-dns-name"))
+        .build();
+
+    CfnOutput.Builder.create(scope, "AcceleratorIpAddresses")
+        .description("Global Accelerator static anycast IPv4 addresses (comma-separated)")
+        .value(accelerator.getIpAddresses())
+        .exportName(getResourceName("accelerator-ip-addresses"))
+        .build();
+  }
+
+  void addOutputs() {
+    // EC2 instance outputs
+    for (int i = 0; i < instances.size(); i++) {
+      Instance instance = instances.get(i);
+      CfnOutput.Builder.create(scope, "Ec2Instance" + (i + 1) + "Id")
+          .description("EC2 instance " + (i + 1) + " ID")
+          .value(instance.getInstanceId())
+          .exportName(getResourceName("ec2-instance-" + (i + 1) + "-id"))
+          .build();
+
+      CfnOutput.Builder.create(scope, "Ec2Instance" + (i + 1) + "PrivateIp")
+          .description("EC2 instance " + (i + 1) + " private IP")
+          .value(instance.getInstancePrivateIp())
+          .exportName(getResourceName("ec2-instance-" + (i + 1) + "-private-ip"))
+          .build();
+    }
+
+    if (webService != null) {
+      CfnOutput.Builder.create(scope, "EcsClusterName")
+          .description("ECS cluster running the web service")
+          .value(webService.getCluster().getClusterName())
+          .exportName(getResourceName("ecs-cluster-name"))
+          .build();
+
+      CfnOutput.Builder.create(scope, "EcsServiceName")
+          .description("ECS web service name")
+          .value(webService.getService().getServiceName())
+          .exportName(getResourceName("ecs-service-name"))
+          .build();
+      return;
+    }
+
+    // Current sizing, read back by RightsizingReport
+    CfnOutput.Builder.create(scope, "WebInstanceType")
+        .description("Web instance type")
+        .value(config.getWebInstanceType())
+        .exportName(getResourceName("web-instance-type"))
+        .build();
+  }
+
+  private String getResourceName(String resource) {
+    return config.getResourceName(resource);
+  }
+}
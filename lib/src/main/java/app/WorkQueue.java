@@ -0,0 +1,191 @@
+package app;
+
+import java.util.Arrays;
+
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.services.autoscaling.AdjustmentType;
+import software.amazon.awscdk.services.autoscaling.AutoScalingGroup;
+import software.amazon.awscdk.services.autoscaling.BasicStepScalingPolicyProps;
+import software.amazon.awscdk.services.autoscaling.ScalingInterval;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
+import software.amazon.awscdk.services.cloudwatch.actions.SnsAction;
+import software.amazon.awscdk.services.ec2.InstanceType;
+import software.amazon.awscdk.services.ec2.LaunchTemplate;
+import software.amazon.awscdk.services.ec2.MachineImage;
+import software.amazon.awscdk.services.ec2.Peer;
+import software.amazon.awscdk.services.ec2.Port;
+import software.amazon.awscdk.services.ec2.SecurityGroup;
+import software.amazon.awscdk.services.ec2.SubnetSelection;
+import software.amazon.awscdk.services.ec2.SubnetType;
+import software.amazon.awscdk.services.ec2.UserData;
+import software.amazon.awscdk.services.ec2.Vpc;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.iam.ManagedPolicy;
+import software.amazon.awscdk.services.iam.Role;
+import software.amazon.awscdk.services.iam.ServicePrincipal;
+import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.sns.Topic;
+import software.amazon.awscdk.services.sqs.DeadLetterQueue;
+import software.amazon.awscdk.services.sqs.Queue;
+import software.amazon.awscdk.services.sqs.QueueEncryption;
+import software.constructs.Construct;
+
+/**
+ * Asynchronous worker tier for slow requests (reports, emails, exports).
+ *
+ * The web tier enqueues jobs on a KMS-encrypted SQS queue; a separate worker
+ * Auto Scaling group consumes them and scales on queue depth and on the age
+ * of the oldest message. Poison messages land on a dead-letter queue, and
+ * backlog alarms page the stack's alert topic.
+ */
+class WorkQueue extends Construct {
+  private final Queue queue;
+  private final Queue deadLetterQueue;
+  private final AutoScalingGroup workers;
+
+  WorkQueue(Construct scope, String id, StackConfiguration config, Vpc vpc, Key kmsKey, IRole webRole,
+      Topic alertTopic) {
+    super(scope, id);
+
+    deadLetterQueue = Queue.Builder.create(this, "DeadLetterQueue")
+        .queueName(config.getResourceName("work-dlq"))
+        .encryption(QueueEncryption.KMS)
+        .encryptionMasterKey(kmsKey)
+        .dataKeyReuse(Duration.hours(1))
+        .retentionPeriod(Duration.days(14))
+        .enforceSsl(true)
+        .build();
+
+    queue = Queue.Builder.create(this, "Queue")
+        .queueName(config.getResourceName("work-queue"))
+        .encryption(QueueEncryption.KMS)
+        .encryptionMasterKey(kmsKey)
+        // Reuse data keys for an hour to keep SQS off the shared KMS quota
+        .dataKeyReuse(Duration.hours(1))
+        .visibilityTimeout(Duration.seconds(config.getWorkQueueVisibilityTimeoutSeconds()))
+        .deadLetterQueue(DeadLetterQueue.builder()
+            .queue(deadLetterQueue)
+            .maxReceiveCount(config.getWorkQueueMaxReceiveCount())
+            .build())
+        .enforceSsl(true)
+        .build();
+
+    queue.grantSendMessages(webRole);
+
+    Role workerRole = Role.Builder.create(this, "WorkerRole")
+        .roleName(config.getResourceName("worker-instance-role"))
+        .assumedBy(new ServicePrincipal("ec2.amazonaws.com"))
+        .managedPolicies(Arrays.asList(
+            ManagedPolicy.fromAwsManagedPolicyName("CloudWatchAgentServerPolicy"),
+            ManagedPolicy.fromAwsManagedPolicyName("AmazonSSMManagedInstanceCore")))
+        .build();
+    queue.grantConsumeMessages(workerRole);
+
+    SecurityGroup workerSg = SecurityGroup.Builder.create(this, "WorkerSecurityGroup")
+        .vpc(vpc)
+        .description("Security group for queue workers")
+        .allowAllOutbound(false)
+        .build();
+    workerSg.addEgressRule(Peer.anyIpv4(), Port.tcp(443), "Allow HTTPS egress to SQS and SSM");
+
+    LaunchTemplate launchTemplate = LaunchTemplate.Builder.create(this, "WorkerLaunchTemplate")
+        .launchTemplateName(config.getResourceName("worker-lt"))
+        .instanceType(new InstanceType(config.getWorkerInstanceType()))
+        .machineImage(MachineImage.latestAmazonLinux2())
+        .role(workerRole)
+        .securityGroup(workerSg)
+        .userData(UserData.forLinux())
+        .requireImdsv2(true)
+        .build();
+
+    workers = AutoScalingGroup.Builder.create(this, "Workers")
+        .autoScalingGroupName(config.getResourceName("workers"))
+        .vpc(vpc)
+        .vpcSubnets(SubnetSelection.builder()
+            .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+            .build())
+        .launchTemplate(launchTemplate)
+        .minCapacity(config.getWorkerMinCapacity())
+        .maxCapacity(config.getWorkerMaxCapacity())
+        .build();
+
+    int backlogPerWorker = config.getWorkQueueBacklogPerWorker();
+    int maxAgeSeconds = config.getWorkQueueMaxAgeSeconds();
+
+    // Depth: drain to zero scales in, sustained backlog scales out in steps
+    workers.scaleOnMetric("ScaleOnQueueDepth", BasicStepScalingPolicyProps.builder()
+        .metric(queue.metricApproximateNumberOfMessagesVisible(oneMinute("Maximum")))
+        .adjustmentType(AdjustmentType.CHANGE_IN_CAPACITY)
+        .scalingSteps(Arrays.asList(
+            ScalingInterval.builder().upper(0).change(-1).build(),
+            ScalingInterval.builder().lower(backlogPerWorker).change(1).build(),
+            ScalingInterval.builder().lower(backlogPerWorker * 5).change(3).build()))
+        .build());
+
+    // Age: scale-out only; catches slow jobs that keep depth low but latency high
+    workers.scaleOnMetric("ScaleOnOldestMessageAge", BasicStepScalingPolicyProps.builder()
+        .metric(queue.metricApproximateAgeOfOldestMessage(oneMinute("Maximum")))
+        .adjustmentType(AdjustmentType.CHANGE_IN_CAPACITY)
+        .scalingSteps(Arrays.asList(
+            ScalingInterval.builder().lower(maxAgeSeconds).change(2).build(),
+            ScalingInterval.builder().lower(maxAgeSeconds * 3).change(4).build()))
+        .build());
+
+    SnsAction alertAction = new SnsAction(alertTopic);
+
+    Alarm.Builder.create(this, "BacklogAlarm")
+        .alarmName(config.getResourceName("work-queue-backlog"))
+        .alarmDescription("Work queue backlog exceeds what the worker tier can drain at max capacity")
+        .metric(queue.metricApproximateNumberOfMessagesVisible(oneMinute("Maximum")))
+        .threshold(backlogPerWorker * config.getWorkerMaxCapacity())
+        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+        .evaluationPeriods(5)
+        .treatMissingData(TreatMissingData.NOT_BREACHING)
+        .build()
+        .addAlarmAction(alertAction);
+
+    Alarm.Builder.create(this, "OldestMessageAgeAlarm")
+        .alarmName(config.getResourceName("work-queue-oldest-message-age"))
+        .alarmDescription("Oldest work queue message is older than " + (maxAgeSeconds * 2) + "s")
+        .metric(queue.metricApproximateAgeOfOldestMessage(oneMinute("Maximum")))
+        .threshold(maxAgeSeconds * 2)
+        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+        .evaluationPeriods(5)
+        .treatMissingData(TreatMissingData.NOT_BREACHING)
+        .build()
+        .addAlarmAction(alertAction);
+
+    Alarm.Builder.create(this, "DeadLetterAlarm")
+        .alarmName(config.getResourceName("work-dlq-messages"))
+        .alarmDescription("Messages are arriving on the work dead-letter queue")
+        .metric(deadLetterQueue.metricApproximateNumberOfMessagesVisible(oneMinute("Maximum")))
+        .threshold(0)
+        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+        .evaluationPeriods(1)
+        .treatMissingData(TreatMissingData.NOT_BREACHING)
+        .build()
+        .addAlarmAction(alertAction);
+  }
+
+  private static MetricOptions oneMinute(String statistic) {
+    return MetricOptions.builder()
+        .statistic(statistic)
+        .period(Duration.minutes(1))
+        .build();
+  }
+
+  Queue getQueue() {
+    return queue;
+  }
+
+  Queue getDeadLetterQueue() {
+    return deadLetterQueue;
+  }
+
+  AutoScalingGroup getWorkers() {
+    return workers;
+  }
+}
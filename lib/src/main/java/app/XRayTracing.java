@@ -0,0 +1,169 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.services.ec2.UserData;
+import software.amazon.awscdk.services.iam.Effect;
+import software.amazon.awscdk.services.iam.IRole;
+import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.xray.CfnSamplingRule;
+import software.constructs.Construct;
+
+/**
+ * X-Ray tracing for the web tier.
+ *
+ * Grants the instance role daemon write access, installs the X-Ray daemon
+ * through UserData, and defines sampling rules as code so trace volume is
+ * bounded per path: each rule traces up to {@code reservoir} requests per
+ * second, then a fixed {@code rate} of the remainder. Rules only match the
+ * web tier's service name, which applications must use as their segment name.
+ */
+class XRayTracing extends Construct {
+  /** Address the daemon listens on for segments (UDP) and sampling (TCP). */
+  static final String DAEMON_ADDRESS = "127.0.0.1:2000";
+
+  /** Daemon write access, as granted by the AWSXRayDaemonWriteAccess managed policy. */
+  static final List<String> DAEMON_ACTIONS = Arrays.asList(
+      "xray:PutTraceSegments",
+      "xray:PutTelemetryRecords",
+      "xray:GetSamplingRules",
+      "xray:GetSamplingTargets",
+      "xray:GetSamplingStatisticSummaries");
+
+  /** X-Ray rule names are limited to 32 characters. */
+  private static final int MAX_RULE_NAME_LENGTH = 32;
+  private static final int FIRST_PRIORITY = 100;
+  private static final int PRIORITY_STEP = 10;
+
+  private final String serviceName;
+  private final List<String> ruleNames = new ArrayList<>();
+
+  XRayTracing(Construct scope, String id, StackConfiguration config, IRole webRole) {
+    super(scope, id);
+    this.serviceName = config.getResourceName("web");
+
+    // The actions of AWSXRayDaemonWriteAccess as a statement: on a role imported
+    // from the network stack this becomes a policy in this stack, whereas
+    // attaching the managed policy would have to modify the role itself
+    webRole.addToPrincipalPolicy(PolicyStatement.Builder.create()
+        .effect(Effect.ALLOW)
+        .actions(DAEMON_ACTIONS)
+        .resources(Arrays.asList("*"))
+        .build());
+
+    // Rules are evaluated in priority order, so keep the order they were listed in
+    List<SamplingRuleSpec> rules = parseRules(config.getTracingSamplingRules());
+    for (int i = 0; i < rules.size(); i++) {
+      SamplingRuleSpec rule = rules.get(i);
+      String ruleName = ruleName(config.getResourceName("trace-" + (i + 1)));
+      CfnSamplingRule.Builder.create(this, "SamplingRule" + (i + 1))
+          .samplingRule(CfnSamplingRule.SamplingRuleProperty.builder()
+              .ruleName(ruleName)
+              .priority(FIRST_PRIORITY + i * PRIORITY_STEP)
+              .reservoirSize(rule.getReservoir())
+              .fixedRate(rule.getRate())
+              .serviceName(serviceName)
+              .serviceType("*")
+              .host("*")
+              .httpMethod("*")
+              .urlPath(rule.getUrlPath())
+              .resourceArn("*")
+              .version(1)
+              .build())
+          .build();
+      ruleNames.add(ruleName);
+    }
+  }
+
+  /** Appends daemon install and start commands to instance user data. */
+  void addDaemonInstall(UserData userData) {
+    String region = Stack.of(this).getRegion();
+    userData.addCommands(
+        "curl -fsSL -o /tmp/xray.rpm https://s3." + region + ".amazonaws.com/aws-xray-assets." + region
+            + "/xray-daemon/aws-xray-daemon-3.x.rpm",
+        "yum install -y /tmp/xray.rpm",
+        "rm -f /tmp/xray.rpm",
+        "systemctl enable --now xray");
+  }
+
+  String getServiceName() {
+    return serviceName;
+  }
+
+  List<String> getRuleNames() {
+    return Collections.unmodifiableList(ruleNames);
+  }
+
+  /**
+   * Parses a comma-separated list of {@code urlPath:reservoir:rate} rules,
+   * e.g. {@code /health*:0:0,/api/*:5:0.05,*:1:0.01}.
+   */
+  static List<SamplingRuleSpec> parseRules(String spec) {
+    List<SamplingRuleSpec> rules = new ArrayList<>();
+    if (spec == null || spec.isBlank()) {
+      return rules;
+    }
+    for (String entry : spec.split(",")) {
+      String trimmed = entry.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      // Split from the right so paths may contain ':'
+      int rateSep = trimmed.lastIndexOf(':');
+      int reservoirSep = rateSep > 0 ? trimmed.lastIndexOf(':', rateSep - 1) : -1;
+      if (reservoirSep <= 0) {
+        throw new IllegalArgumentException("Sampling rule must be urlPath:reservoir:rate: " + trimmed);
+      }
+      String urlPath = trimmed.substring(0, reservoirSep);
+      int reservoir;
+      double rate;
+      try {
+        reservoir = Integer.parseInt(trimmed.substring(reservoirSep + 1, rateSep));
+        rate = Double.parseDouble(trimmed.substring(rateSep + 1));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Sampling rule must be urlPath:reservoir:rate: " + trimmed, e);
+      }
+      if (reservoir < 0) {
+        throw new IllegalArgumentException("Sampling reservoir must not be negative: " + trimmed);
+      }
+      if (rate < 0 || rate > 1) {
+        throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + trimmed);
+      }
+      rules.add(new SamplingRuleSpec(urlPath, reservoir, rate));
+    }
+    return rules;
+  }
+
+  private static String ruleName(String name) {
+    return name.length() <= MAX_RULE_NAME_LENGTH ? name : name.substring(name.length() - MAX_RULE_NAME_LENGTH);
+  }
+
+  /** One sampling rule: URL path pattern, requests/second reservoir and fixed rate. */
+  static final class SamplingRuleSpec {
+    private final String urlPath;
+    private final int reservoir;
+    private final double rate;
+
+    SamplingRuleSpec(String urlPath, int reservoir, double rate) {
+      this.urlPath = urlPath;
+      this.reservoir = reservoir;
+      this.rate = rate;
+    }
+
+    String getUrlPath() {
+      return urlPath;
+    }
+
+    int getReservoir() {
+      return reservoir;
+    }
+
+    double getRate() {
+      return rate;
+    }
+  }
+}
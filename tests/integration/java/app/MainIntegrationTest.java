@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,7 @@ import software.amazon.awssdk.services.kms.model.DescribeKeyResponse;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sns.model.GetTopicAttributesResponse;
+import software.amazon.awssdk.services.ssm.SsmClient;
 
 public class MainIntegrationTest {
 
@@ -49,6 +51,7 @@ public class MainIntegrationTest {
   static KmsClient kms;
   static S3Client s3;
   static SnsClient sns;
+  static SsmClient ssm;
   static final ObjectMapper MAPPER = new ObjectMapper();
 
   @BeforeAll
@@ -83,6 +86,10 @@ public class MainIntegrationTest {
         .region(region)
         .credentialsProvider(DefaultCredentialsProvider.create())
         .build();
+    ssm = SsmClient.builder()
+        .region(region)
+        .credentialsProvider(DefaultCredentialsProvider.create())
+        .build();
     System.out.println("Integration tests using region: " + region);
   }
 
@@ -111,6 +118,8 @@ public class MainIntegrationTest {
       s3.close();
     if (sns != null)
       sns.close();
+    if (ssm != null)
+      ssm.close();
   }
 
   private static boolean hasKeys(String... keys) {
@@ -367,4 +376,50 @@ public class MainIntegrationTest {
                 route.natGatewayId() != null && route.natGatewayId().startsWith("nat-")));
     assertTrue(foundPrivateRtb, "Private route table with NAT gateway route not found");
   }
+
+  @Test
+  @DisplayName("11) Endpoint manifest matches stack outputs")
+  void endpointManifestMatchesOutputs() {
+    boolean split = hasKeys("EndpointManifestPath");
+    Assumptions.assumeTrue((split || hasKeys("EndpointManifestParameter")) && hasKeys("VpcId", "RdsEndpoint"),
+        "Skipping: EndpointManifestParameter/EndpointManifestPath, VpcId or RdsEndpoint missing in outputs");
+
+    // The split layout publishes one parameter per tier under the manifest path
+    EndpointManifestReader.EndpointManifest manifest = (split
+        ? EndpointManifestReader.fromSsmPath(ssm, String.valueOf(out.get("EndpointManifestPath")),
+            Duration.ofMinutes(5))
+        : EndpointManifestReader.fromSsm(ssm, String.valueOf(out.get("EndpointManifestParameter")),
+            Duration.ofMinutes(5)))
+        .get();
+
+    assertEquals(EndpointManifestReader.SCHEMA_VERSION, manifest.getSchemaVersion(), "Unexpected schema version");
+    assertEquals(String.valueOf(out.get("VpcId")), manifest.getVpcId(), "Manifest VPC mismatch");
+    assertEquals(String.valueOf(out.get("RdsEndpoint")), manifest.getDatabaseEndpoint(),
+        "Manifest RDS endpoint mismatch");
+    if (hasKeys("PrivateSubnet1", "PrivateSubnet2")) {
+      assertTrue(manifest.getPrivateSubnetIds().containsAll(Arrays.asList(
+          String.valueOf(out.get("PrivateSubnet1")),
+          String.valueOf(out.get("PrivateSubnet2")))),
+          "Manifest private subnets mismatch: " + manifest.getPrivateSubnetIds());
+    }
+  }
+
+  @Test
+  @DisplayName("12) Dual-stack private subnets route IPv6 through egress-only gateway")
+  void ipv6EgressOnlyRoute() {
+    Assumptions.assumeTrue(hasKeys("VpcId", "VpcIpv6Cidr"),
+        "Skipping: VpcIpv6Cidr missing in outputs (dual-stack disabled)");
+
+    String vpcId = String.valueOf(out.get("VpcId"));
+
+    DescribeRouteTablesResponse resp = ec2
+        .describeRouteTables(r -> r.filters(Filter.builder().name("vpc-id").values(vpcId).build()));
+
+    boolean foundEigwRoute = resp.routeTables().stream()
+        .anyMatch(rtb -> rtb.routes().stream()
+            .anyMatch(route -> "::/0".equals(route.destinationIpv6CidrBlock()) &&
+                route.egressOnlyInternetGatewayId() != null &&
+                route.egressOnlyInternetGatewayId().startsWith("eigw-")));
+    assertTrue(foundEigwRoute, "Private route table with egress-only internet gateway route not found");
+  }
 }
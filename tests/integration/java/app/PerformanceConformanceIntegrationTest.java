@@ -0,0 +1,368 @@
+package app;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.Environment;
+import software.amazon.awscdk.Stack;
+import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.assertions.Template;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.AlarmType;
+import software.amazon.awssdk.services.cloudwatch.model.MetricAlarm;
+import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ec2.model.Filter;
+import software.amazon.awssdk.services.ec2.model.Instance;
+import software.amazon.awssdk.services.ec2.model.Volume;
+import software.amazon.awssdk.services.rds.RdsClient;
+import software.amazon.awssdk.services.rds.model.DBInstance;
+import software.amazon.awssdk.services.rds.model.DBParameterGroupStatus;
+import software.amazon.awssdk.services.rds.model.Parameter;
+
+/**
+ * Checks that the deployed stack still has the performance-relevant settings
+ * of the synthesized configuration: instance types, EBS and RDS storage
+ * type/IOPS, Multi-AZ, parameter-group values, monitoring intervals and alarm
+ * thresholds.
+ *
+ * Expected values come from synthesizing the stack with the same environment
+ * variables and override file as the deployment; live state is read with one
+ * bulk describe call per resource type. Each test reports every drifted value
+ * at once. Set {@code AWS_ENDPOINT_URL} to run against a local stub of the
+ * EC2, RDS and CloudWatch APIs.
+ */
+public class PerformanceConformanceIntegrationTest {
+
+  static Map<String, Object> out;
+  static StackConfiguration config;
+  static List<Template> expected;
+  static Ec2Client ec2;
+  static RdsClient rds;
+  static CloudWatchClient cloudWatch;
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @BeforeAll
+  static void setup() {
+    Path outputFile = Path.of("cfn-outputs/flat-outputs.json");
+    Assumptions.assumeTrue(Files.exists(outputFile),
+        "Skipping all tests: outputs file is missing: " + outputFile);
+
+    try {
+      out = MAPPER.readValue(Files.readString(outputFile), new TypeReference<Map<String, Object>>() {
+      });
+    } catch (IOException e) {
+      Assumptions.abort("Skipping all tests: failed to read/parse outputs file: " + e.getMessage());
+      return;
+    }
+
+    // Same settings resolution as `cdk synth` with this environment
+    App app = new App();
+    config = StackConfiguration.from(app);
+    StackProps props = StackProps.builder()
+        .env(Environment.builder()
+            .region(config.getRegion())
+            .build())
+        .build();
+    List<Stack> stacks = new ArrayList<>();
+    if (config.isSplitStackLayout()) {
+      TierStacks tierStacks = new TierStacks(app, "Expected", props);
+      stacks.add(tierStacks.getNetworkStack());
+      stacks.add(tierStacks.getDataStack());
+      stacks.add(tierStacks.getWebStack());
+      if (tierStacks.getExperimentsStack() != null) {
+        stacks.add(tierStacks.getExperimentsStack());
+      }
+    } else {
+      stacks.add(new TapStack(app, "Expected", props));
+    }
+    expected = stacks.stream().map(Template::fromStack).collect(Collectors.toList());
+
+    Region region = resolveRegion();
+    ec2 = configure(Ec2Client.builder(), region).build();
+    rds = configure(RdsClient.builder(), region).build();
+    cloudWatch = configure(CloudWatchClient.builder(), region).build();
+    System.out.println("Conformance tests using region: " + region);
+  }
+
+  /** Region, credentials and the optional {@code AWS_ENDPOINT_URL} stub endpoint. */
+  private static <B extends AwsClientBuilder<B, ?>> B configure(B builder, Region region) {
+    builder.region(region).credentialsProvider(DefaultCredentialsProvider.create());
+    String endpoint = System.getenv("AWS_ENDPOINT_URL");
+    if (endpoint != null && !endpoint.isBlank()) {
+      builder.endpointOverride(URI.create(endpoint));
+    }
+    return builder;
+  }
+
+  private static Region resolveRegion() {
+    String env = System.getenv("AWS_REGION");
+    if (env == null || env.isBlank())
+      env = System.getenv("AWS_DEFAULT_REGION");
+    if (env != null && !env.isBlank())
+      return Region.of(env);
+    try {
+      Region fromChain = DefaultAwsRegionProviderChain.builder().build().getRegion();
+      if (fromChain != null)
+        return fromChain;
+    } catch (Exception ignored) {
+    }
+    return Region.US_EAST_1;
+  }
+
+  @AfterAll
+  static void teardown() {
+    if (ec2 != null)
+      ec2.close();
+    if (rds != null)
+      rds.close();
+    if (cloudWatch != null)
+      cloudWatch.close();
+  }
+
+  /** Properties of every synthesized resource of {@code type}, across all stacks of the layout. */
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> expectedResources(String type) {
+    List<Map<String, Object>> properties = new ArrayList<>();
+    for (Template template : expected) {
+      for (Object resource : template.findResources(type).values()) {
+        Object props = ((Map<String, Object>) resource).get("Properties");
+        properties.add(props != null ? (Map<String, Object>) props : Map.of());
+      }
+    }
+    return properties;
+  }
+
+  private static List<String> webInstanceIds() {
+    return out.keySet().stream()
+        .filter(key -> key.matches("Ec2Instance\\d+Id"))
+        .sorted()
+        .map(key -> String.valueOf(out.get(key)))
+        .collect(Collectors.toList());
+  }
+
+  /** Records a drift when both values are set and differ; numbers compare by value. */
+  private static void expectEqual(List<String> drift, String what, Object expectedValue, Object actual) {
+    if (expectedValue == null) {
+      return;
+    }
+    String e = normalize(expectedValue);
+    String a = normalize(actual);
+    if (!e.equals(a)) {
+      drift.add(String.format("%s: expected %s, found %s", what, e, a));
+    }
+  }
+
+  private static String normalize(Object value) {
+    if (value == null) {
+      return "null";
+    }
+    String s = String.valueOf(value).trim();
+    try {
+      double d = Double.parseDouble(s);
+      return d == Math.rint(d) ? String.valueOf((long) d) : String.valueOf(d);
+    } catch (NumberFormatException e) {
+      return s.toLowerCase();
+    }
+  }
+
+  private static void assertNoDrift(List<String> drift) {
+    assertTrue(drift.isEmpty(), "Deployed configuration drifted:\n  " + String.join("\n  ", drift));
+  }
+
+  @Test
+  @DisplayName("01) Web instances run the configured type and monitoring level")
+  void webInstanceConformance() {
+    List<String> instanceIds = webInstanceIds();
+    Assumptions.assumeFalse(instanceIds.isEmpty(), "Skipping: no Ec2Instance<n>Id outputs (Fargate web tier?)");
+
+    List<Instance> instances = ec2.describeInstances(r -> r.instanceIds(instanceIds)).reservations().stream()
+        .flatMap(reservation -> reservation.instances().stream())
+        .collect(Collectors.toList());
+
+    List<String> drift = new ArrayList<>();
+    expectEqual(drift, "Web instance count", instanceIds.size(), instances.size());
+    expectEqual(drift, "WebInstanceType output", config.getWebInstanceType(), out.get("WebInstanceType"));
+    for (Instance instance : instances) {
+      expectEqual(drift, instance.instanceId() + " instance type", config.getWebInstanceType(),
+          instance.instanceTypeAsString());
+      // Detailed (1-minute) monitoring only in fast detection mode
+      expectEqual(drift, instance.instanceId() + " monitoring", config.isFastDetection() ? "enabled" : "disabled",
+          instance.monitoring().stateAsString());
+    }
+    assertNoDrift(drift);
+  }
+
+  @Test
+  @DisplayName("02) Web instance EBS volumes keep the configured type and IOPS")
+  @SuppressWarnings("unchecked")
+  void ebsVolumeConformance() {
+    List<String> instanceIds = webInstanceIds();
+    Assumptions.assumeFalse(instanceIds.isEmpty(), "Skipping: no Ec2Instance<n>Id outputs (Fargate web tier?)");
+
+    // Volume settings the template pins, by device name; unpinned volumes keep the AMI's defaults
+    Map<String, Map<String, Object>> pinned = new LinkedHashMap<>();
+    for (Map<String, Object> instance : expectedResources("AWS::EC2::Instance")) {
+      for (Object mapping : (List<Object>) instance.getOrDefault("BlockDeviceMappings", List.of())) {
+        Map<String, Object> device = (Map<String, Object>) mapping;
+        Object ebs = device.get("Ebs");
+        if (ebs != null) {
+          pinned.put(String.valueOf(device.get("DeviceName")), (Map<String, Object>) ebs);
+        }
+      }
+    }
+    Assumptions.assumeFalse(pinned.isEmpty(), "Skipping: the template does not pin web instance volume settings");
+
+    List<Volume> volumes = ec2.describeVolumes(r -> r.filters(Filter.builder()
+        .name("attachment.instance-id")
+        .values(instanceIds)
+        .build())).volumes();
+    assertFalse(volumes.isEmpty(), "No EBS volumes attached to the web instances");
+
+    List<String> drift = new ArrayList<>();
+    for (Volume volume : volumes) {
+      String device = volume.attachments().get(0).device();
+      Map<String, Object> ebs = pinned.get(device);
+      if (ebs == null) {
+        continue;
+      }
+      String what = volume.volumeId() + " (" + device + ")";
+      expectEqual(drift, what + " volume type", ebs.get("VolumeType"), volume.volumeTypeAsString());
+      expectEqual(drift, what + " IOPS", ebs.get("Iops"), volume.iops());
+      expectEqual(drift, what + " throughput", ebs.get("Throughput"), volume.throughput());
+      expectEqual(drift, what + " size", ebs.get("VolumeSize"), volume.size());
+    }
+    assertNoDrift(drift);
+  }
+
+  @Test
+  @DisplayName("03) RDS instance keeps class, storage, Multi-AZ, monitoring and windows")
+  void rdsInstanceConformance() {
+    Assumptions.assumeTrue(out != null && out.containsKey("RdsInstanceId"),
+        "Skipping: RdsInstanceId missing in outputs");
+
+    List<Map<String, Object>> templates = expectedResources("AWS::RDS::DBInstance");
+    assertFalse(templates.isEmpty(), "Synthesized template has no RDS instance");
+    Map<String, Object> want = templates.get(0);
+    DBInstance db = describeDatabase();
+
+    List<String> drift = new ArrayList<>();
+    expectEqual(drift, "DB instance class", want.get("DBInstanceClass"), db.dbInstanceClass());
+    expectEqual(drift, "Storage type", want.get("StorageType"), db.storageType());
+    expectEqual(drift, "Provisioned IOPS", want.get("Iops"), db.iops());
+    expectEqual(drift, "Multi-AZ", want.get("MultiAZ"), db.multiAZ());
+    expectEqual(drift, "Enhanced Monitoring interval", want.get("MonitoringInterval"), db.monitoringInterval());
+    expectEqual(drift, "Max allocated storage", want.get("MaxAllocatedStorage"), db.maxAllocatedStorage());
+    expectEqual(drift, "Backup window", want.get("PreferredBackupWindow"), db.preferredBackupWindow());
+    expectEqual(drift, "Maintenance window", want.get("PreferredMaintenanceWindow"),
+        db.preferredMaintenanceWindow());
+    // Storage autoscaling may have grown the volume, never shrunk it
+    int allocated = Integer.parseInt(String.valueOf(want.get("AllocatedStorage")));
+    if (db.allocatedStorage() == null || db.allocatedStorage() < allocated) {
+      drift.add(String.format("Allocated storage: expected at least %d GiB, found %s", allocated,
+          db.allocatedStorage()));
+    }
+    assertNoDrift(drift);
+  }
+
+  @Test
+  @DisplayName("04) RDS parameter group has the configured values applied")
+  @SuppressWarnings("unchecked")
+  void rdsParameterConformance() {
+    Assumptions.assumeTrue(out != null && out.containsKey("RdsInstanceId"),
+        "Skipping: RdsInstanceId missing in outputs");
+
+    Map<String, Object> want = new LinkedHashMap<>();
+    for (Map<String, Object> group : expectedResources("AWS::RDS::DBParameterGroup")) {
+      want.putAll((Map<String, Object>) group.getOrDefault("Parameters", Map.of()));
+    }
+    Assumptions.assumeFalse(want.isEmpty(), "Skipping: the template sets no DB parameters");
+
+    DBInstance db = describeDatabase();
+    assertFalse(db.dbParameterGroups().isEmpty(), "RDS instance has no parameter group");
+    DBParameterGroupStatus group = db.dbParameterGroups().get(0);
+
+    // Only parameters changed from the engine defaults, paginated in bulk
+    Map<String, String> live = new LinkedHashMap<>();
+    rds.describeDBParametersPaginator(r -> r.dbParameterGroupName(group.dbParameterGroupName()).source("user"))
+        .parameters()
+        .forEach((Parameter p) -> live.put(p.parameterName(), p.parameterValue()));
+
+    List<String> drift = new ArrayList<>();
+    // pending-reboot means the values below are not in effect yet
+    expectEqual(drift, "Parameter group " + group.dbParameterGroupName() + " apply status", "in-sync",
+        group.parameterApplyStatus());
+    want.forEach((name, value) -> expectEqual(drift, "Parameter " + name, value, live.get(name)));
+    assertNoDrift(drift);
+  }
+
+  @Test
+  @DisplayName("05) CloudWatch alarms keep their thresholds and evaluation settings")
+  void alarmConformance() {
+    Assumptions.assumeTrue(out != null && out.containsKey("AlertTopicArn"),
+        "Skipping: AlertTopicArn missing in outputs");
+
+    Map<String, Map<String, Object>> want = new LinkedHashMap<>();
+    for (Map<String, Object> alarm : expectedResources("AWS::CloudWatch::Alarm")) {
+      // Names built from tokens cannot be matched before deployment
+      if (alarm.get("AlarmName") instanceof String name) {
+        want.put(name, alarm);
+      }
+    }
+    Assumptions.assumeFalse(want.isEmpty(), "Skipping: the template has no named alarms");
+
+    // Every alarm of this project/environment in one paginated call
+    Map<String, MetricAlarm> live = new LinkedHashMap<>();
+    cloudWatch.describeAlarmsPaginator(r -> r.alarmNamePrefix(config.getResourceName(""))
+        .alarmTypes(AlarmType.METRIC_ALARM))
+        .metricAlarms()
+        .forEach(alarm -> live.put(alarm.alarmName(), alarm));
+
+    List<String> drift = new ArrayList<>();
+    want.forEach((name, alarm) -> {
+      MetricAlarm actual = live.get(name);
+      if (actual == null) {
+        drift.add("Alarm " + name + ": missing");
+        return;
+      }
+      expectEqual(drift, name + " threshold", alarm.get("Threshold"), actual.threshold());
+      expectEqual(drift, name + " comparison", alarm.get("ComparisonOperator"), actual.comparisonOperatorAsString());
+      expectEqual(drift, name + " evaluation periods", alarm.get("EvaluationPeriods"), actual.evaluationPeriods());
+      expectEqual(drift, name + " datapoints to alarm", alarm.get("DatapointsToAlarm"), actual.datapointsToAlarm());
+      expectEqual(drift, name + " period", alarm.get("Period"), actual.period());
+      expectEqual(drift, name + " anomaly band", alarm.get("ThresholdMetricId"), actual.thresholdMetricId());
+    });
+    assertNoDrift(drift);
+  }
+
+  private static DBInstance describeDatabase() {
+    String dbInstanceId = String.valueOf(out.get("RdsInstanceId"));
+    List<DBInstance> instances = rds.describeDBInstances(r -> r.dbInstanceIdentifier(dbInstanceId)).dbInstances();
+    assertTrue(instances.size() == 1 && instances.get(0).dbInstanceIdentifier().equalsIgnoreCase(dbInstanceId),
+        "RDS instance not found: " + dbInstanceId);
+    return instances.get(0);
+  }
+}
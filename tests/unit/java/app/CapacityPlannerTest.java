@@ -0,0 +1,185 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.Environment;
+import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.assertions.Template;
+
+/**
+ * Capacity model: sizing from a recorded workload description; no AWS access.
+ */
+public class CapacityPlannerTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testPlanFromWorkloadFile() throws Exception {
+    CapacityPlanner.Plan plan = new CapacityPlanner(
+        CapacityPlanner.Workload.fromFile(resource("capacity/workload.json"))).plan();
+
+    // 13.9 vCPU of web demand at 60%: 3 x 16 vCPU (N+1 over 3 AZs) beats 2 x 32 vCPU
+    assertThat(plan.getOverrides())
+        .containsEntry("maxAzs", 3)
+        .containsEntry("webInstanceType", "c6i.4xlarge")
+        .containsEntry("dbInstanceType", "r6g.2xlarge")
+        .containsEntry("dbMaxConnections", 50)
+        .containsEntry("dbStorageType", "gp3")
+        .containsEntry("dbAllocatedStorage", 290)
+        .containsEntry("dbMaxAllocatedStorage", 580)
+        .doesNotContainKey("dbIops")
+        // The stack's default of one NAT gateway per AZ in use already fits
+        .doesNotContainKey("natGateways");
+    assertThat(plan.getWebInstances()).isEqualTo(3);
+    // 8.76 busy connections (Little's law) x 1.5, carried by 2 surviving instances
+    assertThat(plan.getConnectionPoolPerInstance()).isEqualTo(7);
+    assertThat(plan.getNatHeadroom()).isGreaterThan(0.99);
+    assertThat(MAPPER.readTree(plan.toJson()).get("webInstanceType").asText()).isEqualTo("c6i.4xlarge");
+  }
+
+  @Test
+  public void testSmallWorkloadStaysOnBurstableWebInstances() {
+    ObjectNode workload = workload(50, 500);
+
+    CapacityPlanner.Plan plan = new CapacityPlanner(new CapacityPlanner.Workload(workload)).plan();
+
+    // 0.42 vCPU per instance with two of three AZs up fits a t3.large at its 30% baseline
+    assertThat(plan.getOverrides())
+        .containsEntry("maxAzs", 3)
+        .containsEntry("webInstanceType", "t3.large")
+        .containsEntry("dbInstanceType", "r6g.large")
+        .containsEntry("dbAllocatedStorage", 20);
+  }
+
+  @Test
+  public void testAzCountDefaultsToWhatTheStackCanBuild() {
+    ObjectNode workload = workload(50, 500);
+    workload.remove("maxAzs");
+
+    CapacityPlanner.Plan plan = new CapacityPlanner(new CapacityPlanner.Workload(workload)).plan();
+
+    // 0.83 vCPU on the one instance left of two outgrows both burstable baselines
+    assertThat(plan.getOverrides())
+        .containsEntry("maxAzs", 2)
+        .containsEntry("webInstanceType", "c6i.large");
+    assertThat(plan.getWebInstances()).isEqualTo(2);
+  }
+
+  /**
+   * The written plan is a working override file: TapStack synthesizes from it
+   * with the planned AZs, instance types and storage.
+   */
+  @Test
+  public void testPlanSynthesizesAsOverrideFile() throws Exception {
+    CapacityPlanner.Plan plan = new CapacityPlanner(
+        CapacityPlanner.Workload.fromFile(resource("capacity/workload.json"))).plan();
+    Path overrides = Files.createTempFile("capacity-overrides", ".json");
+    Files.writeString(overrides, plan.toJson());
+
+    App app = new App();
+    app.getNode().setContext("configOverrideFile", overrides.toString());
+    // With an account CDK resolves the region's AZs instead of assuming two
+    Template template = Template.fromStack(new TapStack(app, "TestStackCapacityPlan", StackProps.builder()
+        .env(Environment.builder()
+            .account("123456789012")
+            .region("us-east-2")
+            .build())
+        .build()));
+
+    template.resourceCountIs("AWS::EC2::Instance", 3);
+    template.allResourcesProperties("AWS::EC2::Instance", Map.of("InstanceType", "c6i.4xlarge"));
+    template.resourceCountIs("AWS::EC2::NatGateway", 3);
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+        "DBInstanceClass", "db.r6g.2xlarge",
+        "StorageType", "gp3",
+        "AllocatedStorage", "290"));
+  }
+
+  @Test
+  public void testHighIopsProvisionsGp3() {
+    ObjectNode workload = workload(2000, 500);
+    ((ObjectNode) workload.get("requestMix").get(0)).put("dbWriteIops", 4);
+
+    CapacityPlanner.Plan plan = new CapacityPlanner(new CapacityPlanner.Workload(workload)).plan();
+
+    // 8200 IOPS x 1.3 headroom needs a 400 GiB volume, whose 12000 IOPS baseline covers it
+    assertThat(plan.getOverrides())
+        .containsEntry("dbAllocatedStorage", 400)
+        .containsEntry("dbMaxAllocatedStorage", 800)
+        .doesNotContainKey("dbIops");
+
+    ((ObjectNode) workload.get("requestMix").get(0)).put("dbWriteIops", 8);
+    plan = new CapacityPlanner(new CapacityPlanner.Workload(workload)).plan();
+
+    // 16200 IOPS x 1.3 headroom, rounded up, is provisioned on top of the baseline
+    assertThat(plan.getOverrides())
+        .containsEntry("dbIops", 22000)
+        .containsEntry("dbAllocatedStorage", 400);
+  }
+
+  @Test
+  public void testUtilizationCappedByLatencySlo() {
+    // 10 ms web + 2 ms DB against a 20 ms SLO leaves 40% utilization instead of 60%
+    CapacityPlanner.Plan plan = new CapacityPlanner(new CapacityPlanner.Workload(workload(100, 20))).plan();
+
+    assertThat(plan.getFindings()).anyMatch(f -> f.contains("utilization cap 40%"));
+    // 1 vCPU / 0.4 = 2.5 vCPU, spread over two surviving instances of three
+    assertThat(plan.getOverrides())
+        .containsEntry("maxAzs", 3)
+        .containsEntry("webInstanceType", "c6i.large");
+  }
+
+  @Test
+  public void testRejectsUnreachableSloAndBadMix() {
+    assertThatThrownBy(() -> new CapacityPlanner(new CapacityPlanner.Workload(workload(100, 10))).plan())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("not above the unloaded service time");
+
+    ObjectNode badMix = workload(100, 500);
+    ((ObjectNode) badMix.get("requestMix").get(0)).put("share", 0.5);
+    assertThatThrownBy(() -> new CapacityPlanner.Workload(badMix))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("shares must sum to 1");
+
+    assertThatThrownBy(() -> new CapacityPlanner(new CapacityPlanner.Workload(workload(100000, 500))).plan())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("does not fit 3 instances");
+  }
+
+  /** One request class: 10 ms web CPU, 2 ms DB time and 1 ms DB CPU, 0.1 read IOPS per request. */
+  private static ObjectNode workload(double targetRps, double latencySloMs) {
+    ObjectNode workload = MAPPER.createObjectNode()
+        .put("targetRps", targetRps)
+        .put("latencySloMs", latencySloMs)
+        .put("maxAzs", 3)
+        .put("dataSizeGb", 10);
+    JsonNode requestClass = MAPPER.createObjectNode()
+        .put("name", "api")
+        .put("share", 1.0)
+        .put("requestBytes", 1000)
+        .put("responseBytes", 10000)
+        .put("webCpuMs", 10)
+        .put("dbTimeMs", 2)
+        .put("dbCpuMs", 1)
+        .put("dbReadIops", 0.1)
+        .put("egressBytes", 100);
+    workload.putArray("requestMix").add(requestClass);
+    return workload;
+  }
+
+  private static Path resource(String name) throws URISyntaxException {
+    return Path.of(CapacityPlannerTest.class.getClassLoader().getResource(name).toURI());
+  }
+}
@@ -0,0 +1,76 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the synth-time VPC CIDR planner.
+ */
+public class CidrPlannerTest {
+
+  /**
+   * Test that the default layout matches the CIDRs the VPC construct assigns.
+   */
+  @Test
+  public void testDefaultLayout() {
+    List<String> cidrs = cidrs(new CidrPlanner("10.0.0.0/16")
+        .addTier("public", 24)
+        .addTier("private", 24)
+        .plan(2));
+
+    assertThat(cidrs).containsExactly("10.0.0.0/24", "10.0.1.0/24", "10.0.2.0/24", "10.0.3.0/24");
+  }
+
+  /**
+   * Test that larger blocks are aligned to their own size.
+   */
+  @Test
+  public void testAlignsLargerBlocks() {
+    List<String> cidrs = cidrs(new CidrPlanner("10.0.0.0/16")
+        .addTier("public", 24)
+        .addTier("private", 20)
+        .addTier("database", 26)
+        .plan(3));
+
+    assertThat(cidrs).containsExactly(
+        "10.0.0.0/24", "10.0.1.0/24", "10.0.2.0/24",
+        "10.0.16.0/20", "10.0.32.0/20", "10.0.48.0/20",
+        "10.0.64.0/26", "10.0.64.64/26", "10.0.64.128/26");
+  }
+
+  /**
+   * Test that a plan overflowing the VPC block is rejected with the tier name.
+   */
+  @Test
+  public void testRejectsOverflow() {
+    CidrPlanner planner = new CidrPlanner("10.0.0.0/20")
+        .addTier("public", 24)
+        .addTier("private", 22);
+
+    assertThatThrownBy(() -> planner.plan(4))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("private");
+  }
+
+  /**
+   * Test that out-of-range masks and misaligned VPC blocks are rejected.
+   */
+  @Test
+  public void testRejectsInvalidMasks() {
+    assertThatThrownBy(() -> new CidrPlanner("10.0.0.0/16").addTier("public", 29))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CidrPlanner("10.0.0.0/20").addTier("public", 18))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new CidrPlanner("10.0.1.0/16"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<String> cidrs(List<CidrPlanner.PlannedSubnet> planned) {
+    return planned.stream().map(CidrPlanner.PlannedSubnet::getCidr).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,168 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the endpoint manifest reader and its TTL cache.
+ */
+public class EndpointManifestReaderTest {
+
+  private static final String MANIFEST = "{"
+      + "\"schemaVersion\":1,"
+      + "\"region\":\"eu-north-1\","
+      + "\"network\":{\"vpcId\":\"vpc-123\",\"privateSubnetIds\":[\"subnet-a\",\"subnet-b\"]},"
+      + "\"web\":{\"instances\":[{\"id\":\"i-1\",\"privateIp\":\"10.0.2.10\"}]},"
+      + "\"database\":{\"endpoint\":\"db.example.internal\",\"port\":\"3306\"},"
+      + "\"alertTopicArn\":\"arn:aws:sns:eu-north-1:123456789012:alerts\""
+      + "}";
+
+  /**
+   * Test that the manifest fields are exposed through typed accessors.
+   */
+  @Test
+  public void testParseManifest() {
+    EndpointManifestReader.EndpointManifest manifest = EndpointManifestReader.parse(MANIFEST);
+
+    assertThat(manifest.getSchemaVersion()).isEqualTo(1);
+    assertThat(manifest.getRegion()).isEqualTo("eu-north-1");
+    assertThat(manifest.getVpcId()).isEqualTo("vpc-123");
+    assertThat(manifest.getPrivateSubnetIds()).containsExactly("subnet-a", "subnet-b");
+    assertThat(manifest.getWebInstanceIds()).containsExactly("i-1");
+    assertThat(manifest.getWebInstancePrivateIps()).containsExactly("10.0.2.10");
+    assertThat(manifest.getDatabaseEndpoint()).isEqualTo("db.example.internal");
+    assertThat(manifest.getDatabasePort()).isEqualTo(3306);
+  }
+
+  /**
+   * Test that an unknown schema version is rejected.
+   */
+  @Test
+  public void testRejectsUnknownSchemaVersion() {
+    assertThatThrownBy(() -> EndpointManifestReader.parse("{\"schemaVersion\":2}"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("schemaVersion");
+  }
+
+  /**
+   * Test that the manifest is fetched once per TTL window.
+   */
+  @Test
+  public void testCachesUntilTtlExpires() {
+    MutableClock clock = new MutableClock();
+    AtomicInteger fetches = new AtomicInteger();
+    EndpointManifestReader reader = new EndpointManifestReader(
+        counting(fetches, () -> MANIFEST), Duration.ofMinutes(5), clock);
+
+    reader.get();
+    reader.get();
+    clock.advance(Duration.ofMinutes(4));
+    reader.get();
+    assertThat(fetches.get()).isEqualTo(1);
+
+    clock.advance(Duration.ofMinutes(2));
+    reader.get();
+    assertThat(fetches.get()).isEqualTo(2);
+
+    reader.invalidate();
+    reader.get();
+    assertThat(fetches.get()).isEqualTo(3);
+  }
+
+  /**
+   * Test that a failed refresh keeps serving the last good manifest.
+   */
+  @Test
+  public void testServesStaleManifestWhenRefreshFails() {
+    MutableClock clock = new MutableClock();
+    AtomicInteger fetches = new AtomicInteger();
+    EndpointManifestReader reader = new EndpointManifestReader(
+        counting(fetches, () -> {
+          if (fetches.get() > 1) {
+            throw new IllegalStateException("throttled");
+          }
+          return MANIFEST;
+        }), Duration.ofMinutes(1), clock);
+
+    assertThat(reader.get().getVpcId()).isEqualTo("vpc-123");
+    clock.advance(Duration.ofMinutes(2));
+    assertThat(reader.get().getVpcId()).isEqualTo("vpc-123");
+    assertThat(fetches.get()).isEqualTo(2);
+  }
+
+  /**
+   * Test that the first load fails loudly when the source is unavailable.
+   */
+  @Test
+  public void testFailsWhenNothingCached() {
+    EndpointManifestReader reader = new EndpointManifestReader(
+        () -> {
+          throw new IllegalStateException("unavailable");
+        }, Duration.ofMinutes(1), new MutableClock());
+
+    assertThatThrownBy(reader::get).isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Test that the split layout's per-tier parameters merge into one manifest.
+   */
+  @Test
+  public void testMergesTierParameters() {
+    String merged = EndpointManifestReader.merge(List.of(
+        "{\"schemaVersion\":1,\"database\":{\"endpoint\":\"db.example.internal\",\"port\":\"3306\"},"
+            + "\"kmsKeyArns\":{\"data\":\"arn:data\"}}",
+        "{\"schemaVersion\":1,\"network\":{\"vpcId\":\"vpc-123\"},\"kmsKeyArns\":{\"logs\":\"arn:logs\"}}",
+        "{\"schemaVersion\":1,\"web\":{\"instances\":[{\"id\":\"i-1\"}]}}"));
+    EndpointManifestReader.EndpointManifest manifest = EndpointManifestReader.parse(merged);
+
+    assertThat(manifest.getVpcId()).isEqualTo("vpc-123");
+    assertThat(manifest.getWebInstanceIds()).containsExactly("i-1");
+    assertThat(manifest.getDatabaseEndpoint()).isEqualTo("db.example.internal");
+    assertThat(manifest.getRaw().path("kmsKeyArns").size()).isEqualTo(2);
+
+    assertThatThrownBy(() -> EndpointManifestReader.merge(List.of()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("No endpoint manifest parameters");
+  }
+
+  private static Supplier<String> counting(AtomicInteger counter, Supplier<String> delegate) {
+    return () -> {
+      counter.incrementAndGet();
+      return delegate.get();
+    };
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -1,12 +1,20 @@
 package app;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import software.amazon.awscdk.App;
 import software.amazon.awscdk.Environment;
 import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.assertions.Annotations;
+import software.amazon.awscdk.assertions.Match;
 import software.amazon.awscdk.assertions.Template;
 
 /**
@@ -16,6 +24,8 @@ import software.amazon.awscdk.assertions.Template;
  * without requiring actual AWS resources to be created.
  */
 public class MainTest {
+  /** Context key CDK caches the AZ lookup for {@link #props()} under. */
+  private static final String AZ_CONTEXT_KEY = "availability-zones:account=123456789012:region=us-east-2";
 
   /**
    * Test that the TapStack can be instantiated successfully with default
@@ -117,4 +127,810 @@ public class MainTest {
     template.hasResourceProperties("AWS::EC2::Instance", new java.util.HashMap<>());
     template.hasResourceProperties("AWS::RDS::DBInstance", new java.util.HashMap<>());
   }
-}
\ No newline at end of file
+
+  /**
+   * Test that the endpoint manifest is published to SSM and readable by the
+   * web tier role, in the Advanced tier only when it may outgrow 4 KB.
+   */
+  @Test
+  public void testEndpointManifestParameter() {
+    Template template = synth(Map.of());
+
+    template.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+        "Name", "/webapp/prod/endpoint-manifest",
+        "Type", "String",
+        "Tier", Match.absent()));
+    template.hasOutput("EndpointManifestParameter", Map.of());
+
+    // Every feature section and three AZs of subnet tiers may not fit in 4 KB
+    Template full = synth(Map.of(
+        "maxAzs", "3",
+        "databaseSubnetMask", "26",
+        "cacheSubnetMask", "26",
+        "enableLoadBalancer", "true",
+        "enableSessionStore", "true",
+        "enableWorkQueue", "true",
+        "enableTracing", "true",
+        "enableLogPipeline", "true",
+        "kmsKeyMode", "per-service"));
+    full.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+        "Name", "/webapp/prod/endpoint-manifest",
+        "Tier", "Advanced"));
+  }
+
+  /**
+   * Test that dual-stack mode adds IPv6 addressing, an egress-only internet
+   * gateway and IPv6 egress on the web security group.
+   */
+  @Test
+  public void testDualStackVpc() {
+    Template template = synth(Map.of("enableIpv6", "true"));
+
+    template.resourceCountIs("AWS::EC2::VPCCidrBlock", 1);
+    template.resourceCountIs("AWS::EC2::EgressOnlyInternetGateway", 1);
+    template.hasResourceProperties("AWS::EC2::Route", Map.of(
+        "DestinationIpv6CidrBlock", "::/0",
+        "EgressOnlyInternetGatewayId", Match.anyValue()));
+    template.hasResourceProperties("AWS::EC2::SecurityGroup", Map.of(
+        "SecurityGroupEgress", Match.arrayWith(List.of(
+            Match.objectLike(Map.of("CidrIpv6", "::/0", "FromPort", 443))))));
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+        "NetworkType", "DUAL"));
+  }
+
+  /**
+   * Test that AZ count, NAT count and isolated database/cache tiers come from
+   * context, and that the database tier hosts the RDS subnet group.
+   */
+  @Test
+  public void testConfigurableSubnetTiers() {
+    Template template = synth(Map.of(
+        "natGateways", "1",
+        "privateSubnetMask", "20",
+        "databaseSubnetMask", "26",
+        "cacheSubnetMask", "26"));
+
+    template.resourceCountIs("AWS::EC2::NatGateway", 1);
+    template.resourceCountIs("AWS::EC2::Subnet", 8);
+    template.hasResourceProperties("AWS::EC2::Subnet", Map.of("CidrBlock", "10.0.16.0/20"));
+    template.hasResourceProperties("AWS::EC2::Subnet", Map.of("CidrBlock", "10.0.48.0/26"));
+  }
+
+  /**
+   * Test that three AZs get three subnets per tier, one web instance each and,
+   * by default, one NAT gateway each; once the region's AZs are known, more
+   * AZs than it offers fail synth, and while the lookup is pending the
+   * placeholder AZs cap maxAzs with a warning.
+   */
+  @Test
+  public void testThreeAzVpc() {
+    Template template = synth(Map.of("maxAzs", "3"));
+
+    template.resourceCountIs("AWS::EC2::Subnet", 6);
+    template.resourceCountIs("AWS::EC2::NatGateway", 3);
+    template.resourceCountIs("AWS::EC2::Instance", 3);
+
+    List<String> fourAzs = List.of("us-east-2a", "us-east-2b", "us-east-2c", "us-east-2d");
+    Template fourAzTemplate = synth(Map.of("maxAzs", "4", AZ_CONTEXT_KEY, fourAzs));
+    fourAzTemplate.resourceCountIs("AWS::EC2::NatGateway", 4);
+    fourAzTemplate.resourceCountIs("AWS::EC2::Instance", 4);
+
+    assertThatThrownBy(() -> synth(Map.of("maxAzs", "4", AZ_CONTEXT_KEY, fourAzs.subList(0, 3))))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("maxAzs must be between 1 and the 3 AZs");
+
+    TapStack pending = tapStack(Map.of("maxAzs", "4"));
+    Template.fromStack(pending).resourceCountIs("AWS::EC2::NatGateway", 3);
+    Annotations.fromStack(pending).hasWarning("*", Match.stringLikeRegexp("maxAzs 4 is capped to the 3 placeholder.*"));
+  }
+
+  /**
+   * Test that a subnet plan that does not fit in the VPC fails synth.
+   */
+  @Test
+  public void testSubnetPlanOverflowFailsSynth() {
+    assertThatThrownBy(() -> synth(Map.of(
+        "vpcCidr", "10.0.0.0/22",
+        "privateSubnetMask", "23")))
+        .hasMessageContaining("does not fit");
+  }
+
+  /**
+   * Test that the CloudTrail bucket uses S3 Bucket Keys and that per-tier key
+   * mode gives the data and log tiers their own keys.
+   */
+  @Test
+  public void testKmsRequestRateReduction() {
+    Template template = synth(Map.of(
+        "enableCloudTrail", true,
+        "kmsKeyMode", "per-tier"));
+
+    template.hasResourceProperties("AWS::S3::Bucket", Map.of(
+        "BucketEncryption", Map.of(
+            "ServerSideEncryptionConfiguration", Match.arrayWith(List.of(
+                Match.objectLike(Map.of("BucketKeyEnabled", true)))))));
+    template.resourceCountIs("AWS::KMS::Key", 3);
+    // One alarm on the summed calls, as the operations share one quota
+    template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", "webapp-prod-kms-crypto-quota",
+        "Metrics", Match.arrayWith(List.of(Match.objectLike(Map.of(
+            "Expression", "((m1 + m2 + m3) / 60) / SERVICE_QUOTA(m1) * 100"))))));
+    template.resourcePropertiesCountIs("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", Match.stringLikeRegexp("webapp-prod-kms-.*-quota")), 1);
+  }
+
+  /**
+   * Test that the optional session store creates an on-demand table with TTL,
+   * a DynamoDB gateway endpoint and a DAX cluster, in the cache tier when one
+   * is configured.
+   */
+  @Test
+  public void testSessionStore() {
+    Template template = synth(Map.of(
+        "enableSessionStore", "true",
+        "enableDax", "true"));
+
+    template.hasResourceProperties("AWS::DynamoDB::Table", Map.of(
+        "TableName", "webapp-prod-sessions",
+        "BillingMode", "PAY_PER_REQUEST",
+        "TimeToLiveSpecification", Map.of("AttributeName", "expiresAt", "Enabled", true)));
+    template.hasResourceProperties("AWS::EC2::VPCEndpoint", Map.of(
+        "VpcEndpointType", "Gateway"));
+    template.hasResourceProperties("AWS::DAX::Cluster", Map.of(
+        "ClusterEndpointEncryptionType", "TLS"));
+    template.hasOutput("SessionTableName", Map.of());
+
+    // With a cache tier the DAX nodes move into its subnets
+    Map<String, Object> cacheSubnet = Map.of("Ref", Match.stringLikeRegexp(".*cachesubnetSubnet.*"));
+    synth(Map.of(
+        "enableSessionStore", "true",
+        "enableDax", "true",
+        "cacheSubnetMask", "26"))
+        .hasResourceProperties("AWS::DAX::SubnetGroup", Map.of(
+            "SubnetIds", List.of(cacheSubnet, cacheSubnet)));
+  }
+
+  /**
+   * Test that the optional work queue creates an encrypted queue with a DLQ,
+   * a worker Auto Scaling group with step scaling and backlog alarms.
+   */
+  @Test
+  public void testWorkQueue() {
+    Template template = synth(Map.of("enableWorkQueue", "true"));
+
+    template.hasResourceProperties("AWS::SQS::Queue", Map.of(
+        "QueueName", "webapp-prod-work-queue",
+        "KmsMasterKeyId", Match.anyValue(),
+        "RedrivePolicy", Match.objectLike(Map.of("maxReceiveCount", 5))));
+    template.hasResourceProperties("AWS::AutoScaling::AutoScalingGroup", Map.of(
+        "MinSize", "1",
+        "MaxSize", "4"));
+    // Depth scales both ways, age scales out only
+    template.resourceCountIs("AWS::AutoScaling::ScalingPolicy", 3);
+    template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", "webapp-prod-work-queue-backlog",
+        "Threshold", 400));
+  }
+
+  /**
+   * Test that the load balancer ships access logs to a bucket queried through
+   * a partition-projected Glue table and a capped Athena workgroup.
+   */
+  @Test
+  public void testLoadBalancerAccessLogAnalytics() {
+    Template template = synth(Map.of(
+        "enableLoadBalancer", "true",
+        "enableAccessLogAnalytics", "true"));
+
+    template.hasResourceProperties("AWS::ElasticLoadBalancingV2::TargetGroup", Map.of(
+        "TargetType", "instance",
+        "HealthCheckPath", "/"));
+    template.hasResourceProperties("AWS::ElasticLoadBalancingV2::LoadBalancer", Map.of(
+        "LoadBalancerAttributes", Match.arrayWith(List.of(Map.of(
+            "Key", "access_logs.s3.enabled",
+            "Value", "true")))));
+    template.hasResourceProperties("AWS::Glue::Table", Map.of(
+        "TableInput", Match.objectLike(Map.of(
+            "Name", "alb_access_logs",
+            "PartitionKeys", List.of(Map.of("Name", "day", "Type", "string")),
+            "Parameters", Match.objectLike(Map.of(
+                "projection.enabled", "true",
+                "projection.day.type", "date"))))));
+    template.hasResourceProperties("AWS::Athena::WorkGroup", Map.of(
+        "WorkGroupConfiguration", Match.objectLike(Map.of(
+            "EnforceWorkGroupConfiguration", true,
+            "BytesScannedCutoffPerQuery", 10240L * 1024 * 1024))));
+    template.resourceCountIs("AWS::Athena::NamedQuery", 3);
+    template.hasOutput("AthenaWorkGroupName", Match.anyValue());
+  }
+
+  /**
+   * Test that access log analytics without the load balancer fails synth.
+   */
+  @Test
+  public void testAccessLogAnalyticsRequiresLoadBalancer() {
+    assertThatThrownBy(() -> synth(Map.of("enableAccessLogAnalytics", "true")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("enableLoadBalancer");
+  }
+
+  /**
+   * Test that tracing installs the X-Ray daemon, grants the web role daemon
+   * write access and creates one sampling rule per configured path.
+   */
+  @Test
+  public void testTracingSamplingRules() {
+    Template template = synth(Map.of(
+        "enableTracing", "true",
+        "tracingSamplingRules", "/health:0:0, /api/*:5:0.05, *:1:0.01"));
+
+    template.resourceCountIs("AWS::XRay::SamplingRule", 3);
+    template.hasResourceProperties("AWS::XRay::SamplingRule", Map.of(
+        "SamplingRule", Match.objectLike(Map.of(
+            "RuleName", "webapp-prod-trace-2",
+            "ServiceName", "webapp-prod-web",
+            "URLPath", "/api/*",
+            "ReservoirSize", 5,
+            "FixedRate", 0.05,
+            "Priority", 110))));
+    template.hasResourceProperties("AWS::IAM::Policy", Map.of(
+        "PolicyDocument", Match.objectLike(Map.of(
+            "Statement", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                "Action", Match.arrayWith(List.of("xray:PutTraceSegments", "xray:GetSamplingRules")),
+                "Resource", "*"))))))));
+    template.hasResourceProperties("AWS::EC2::Instance", Map.of(
+        "UserData", Match.objectLike(Map.of(
+            "Fn::Base64", Match.stringLikeRegexp("systemctl enable --now xray")))));
+  }
+
+  /**
+   * Test that a sampling rule with a rate outside 0..1 fails synth.
+   */
+  @Test
+  public void testInvalidSamplingRuleFailsSynth() {
+    assertThatThrownBy(() -> synth(Map.of(
+        "enableTracing", "true",
+        "tracingSamplingRules", "/api/*:5:1.5")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("between 0 and 1");
+  }
+
+  /**
+   * Test that sizing comes from a JSON override file such as the one written
+   * by RightsizingReport.
+   */
+  @Test
+  public void testSizingFromConfigOverrideFile() throws Exception {
+    Path overrides = Files.createTempFile("overrides", ".json");
+    Files.writeString(overrides, "{\"webInstanceType\": \"t3.small\", \"dbInstanceType\": \"m6g.large\","
+        + " \"dbAllocatedStorage\": 30, \"dbMaxAllocatedStorage\": 60, \"dbStorageType\": \"gp3\"}");
+
+    Template template = synth(Map.of(
+        "configOverrideFile", overrides.toString(),
+        // The override file wins over plain context
+        "webInstanceType", "t3.large"));
+
+    template.allResourcesProperties("AWS::EC2::Instance", Map.of("InstanceType", "t3.small"));
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+        "DBInstanceClass", "db.m6g.large",
+        "AllocatedStorage", "30",
+        "MaxAllocatedStorage", 60,
+        "StorageType", "gp3"));
+    template.hasOutput("DbInstanceType", Map.of("Value", "m6g.large"));
+  }
+
+  /**
+   * Test that fast detection mode swaps the static 5-minute CPU alarms for
+   * 1-minute anomaly-band alarms behind one composite alarm per tier.
+   */
+  @Test
+  public void testFastDetectionMode() {
+    Template template = synth(Map.of(
+        "detectionMode", "fast",
+        "enableLoadBalancer", "true"));
+
+    template.allResourcesProperties("AWS::EC2::Instance", Map.of("Monitoring", true));
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of("MonitoringInterval", 1));
+    template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", "webapp-prod-web-cpu-anomaly-1",
+        "ComparisonOperator", "GreaterThanUpperThreshold",
+        "ThresholdMetricId", "band",
+        "TreatMissingData", "missing",
+        "EvaluationPeriods", 3,
+        "Metrics", Match.arrayWith(List.of(Match.objectLike(Map.of(
+            "Expression", "ANOMALY_DETECTION_BAND(m1, 2)"))))));
+    template.resourcePropertiesCountIs("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", Match.stringLikeRegexp("high-cpu")), 0);
+    // Only the composites page
+    template.resourceCountIs("AWS::CloudWatch::CompositeAlarm", 2);
+    template.hasResourceProperties("AWS::CloudWatch::CompositeAlarm", Map.of(
+        "AlarmName", "webapp-prod-web-tier",
+        "AlarmActions", Match.anyValue()));
+    template.resourcePropertiesCountIs("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", Match.stringLikeRegexp("anomaly|unhealthy"),
+        "AlarmActions", Match.anyValue()), 0);
+  }
+
+  /**
+   * Test that the web instances keep the AMI's root volume unless
+   * webRootVolumeType pins it, encrypted at the AMI's 8 GiB size.
+   */
+  @Test
+  public void testWebRootVolumeIsPinned() {
+    synth(Map.of()).resourcePropertiesCountIs("AWS::EC2::Instance", Map.of(
+        "BlockDeviceMappings", Match.anyValue()), 0);
+
+    Template template = synth(Map.of("webRootVolumeType", "gp3"));
+
+    template.resourcePropertiesCountIs("AWS::EC2::Instance", Map.of(
+        "BlockDeviceMappings", List.of(Map.of(
+            "DeviceName", "/dev/xvda",
+            "Ebs", Map.of("VolumeType", "gp3", "VolumeSize", 8, "Encrypted", true)))), 2);
+
+    assertThatThrownBy(() -> synth(Map.of("webRootVolumeType", "io2")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("webRootVolumeType must be gp2 or gp3");
+  }
+
+  /**
+   * Test that the performance guardrails flag the default prod choices with
+   * the offending construct path, and honour suppressions.
+   */
+  @Test
+  public void testPerformanceGuardrailsWarnByDefault() {
+    TapStack stack = tapStack(Map.of(
+        "natGateways", "1",
+        "guardrailSuppressions", "instance-monitoring"));
+    PerformanceGuardrails.suppress(stack.getNode().findChild("webapp-prod-rds-params"), "empty-parameter-group",
+        "engine defaults are intentional here");
+
+    Annotations annotations = Annotations.fromStack(stack);
+
+    annotations.hasWarning("/TestStack/webapp-prod-rds-instance/Resource",
+        Match.stringLikeRegexp("\\[storage-type\\] RDS storage type gp2 .*"));
+    // No block device mappings: the root volume keeps the AMI's gp2 default
+    annotations.hasWarning("/TestStack/webapp-prod-web-instance-1/Resource",
+        Match.stringLikeRegexp("\\[storage-type\\] EBS root volume is not pinned and keeps the AMI default gp2.*"));
+    annotations.hasWarning("*", Match.stringLikeRegexp("\\[burstable-db\\] RDS instance class db.t3.micro .*"));
+    annotations.hasWarning("*", Match.stringLikeRegexp("\\[single-nat\\] VPC has 1 NAT gateway\\(s\\) for 2 AZs.*"));
+    annotations.hasNoWarning("*", Match.stringLikeRegexp("\\[(instance-monitoring|empty-parameter-group)\\].*"));
+    annotations.hasNoError("*", Match.anyValue());
+  }
+
+  /**
+   * Test that error mode turns guardrail findings into synth errors.
+   */
+  @Test
+  public void testPerformanceGuardrailsErrorMode() {
+    Annotations annotations = Annotations.fromStack(tapStack(Map.of(
+        "guardrailMode", "error",
+        "dbStorageType", "gp3",
+        "webRootVolumeType", "gp3")));
+
+    annotations.hasError("*", Match.stringLikeRegexp("\\[burstable-db\\].*"));
+    annotations.hasNoError("*", Match.stringLikeRegexp("\\[storage-type\\].*"));
+  }
+
+  /**
+   * Test that the split layout puts each tier in its own stack, that the data
+   * and web stacks depend only on the network stack, and that nothing imports
+   * from the data or web stacks.
+   */
+  @Test
+  public void testSplitStackLayout() {
+    TierStacks stacks = tierStacks(Map.of(
+        "enableLoadBalancer", "true",
+        "enableSessionStore", "true",
+        "enableLogPipeline", "true",
+        "detectionMode", "fast",
+        "enableFaultInjection", "true"));
+
+    Template network = Template.fromStack(stacks.getNetworkStack());
+    Template data = Template.fromStack(stacks.getDataStack());
+    Template web = Template.fromStack(stacks.getWebStack());
+    Template experiments = Template.fromStack(stacks.getExperimentsStack());
+
+    network.resourceCountIs("AWS::EC2::VPC", 1);
+    network.resourceCountIs("AWS::EC2::SecurityGroup", 2);
+    network.resourceCountIs("AWS::RDS::DBInstance", 0);
+    network.resourceCountIs("AWS::EC2::Instance", 0);
+    data.resourceCountIs("AWS::RDS::DBInstance", 1);
+    data.resourceCountIs("AWS::DynamoDB::Table", 1);
+    data.resourceCountIs("AWS::EC2::Instance", 0);
+    web.resourceCountIs("AWS::EC2::Instance", 2);
+    web.resourceCountIs("AWS::ElasticLoadBalancingV2::LoadBalancer", 1);
+    web.resourceCountIs("AWS::RDS::DBInstance", 0);
+    web.resourceCountIs("AWS::KinesisFirehose::DeliveryStream", 1);
+    experiments.resourceCountIs("AWS::FIS::ExperimentTemplate", 5);
+
+    // Each tier publishes its own manifest parameter
+    network.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+        "Name", "/webapp/prod/endpoint-manifest/network"));
+    data.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+        "Name", "/webapp/prod/endpoint-manifest/data"));
+    web.hasResourceProperties("AWS::SSM::Parameter", Map.of(
+        "Name", "/webapp/prod/endpoint-manifest/web"));
+    network.hasOutput("EndpointManifestPath", Map.of("Value", "/webapp/prod/endpoint-manifest"));
+
+    // Features add their resources to their own stack, not the network stack
+    network.resourceCountIs("AWS::EC2::VPCEndpoint", 0);
+    data.resourceCountIs("AWS::EC2::VPCEndpoint", 1);
+
+    // Instance IDs, endpoints and alarm ARNs are never exported
+    for (Template template : List.of(network, data, web, experiments)) {
+      assertThat(template.toJSON().toString()).doesNotContain("TestSplit-Data:", "TestSplit-Web:");
+    }
+
+    // Session grants land in the data stack instead of editing the network stack's role
+    data.hasResourceProperties("AWS::IAM::Policy", Map.of(
+        "Roles", Match.arrayWith(List.of(Match.objectLike(Map.of(
+            "Fn::ImportValue", Match.stringLikeRegexp("TestSplit-Network:.*")))))));
+
+    assertThat(stacks.getDataStack().getDependencies()).containsExactly(stacks.getNetworkStack());
+    assertThat(stacks.getWebStack().getDependencies()).containsExactly(stacks.getNetworkStack());
+    assertThat(stacks.getExperimentsStack().getDependencies())
+        .contains(stacks.getDataStack(), stacks.getWebStack());
+    assertThat(stacks.getNetworkStack().getDependencies()).isEmpty();
+  }
+
+  /**
+   * Test that the Global Accelerator fronts the ALB with the configured
+   * weight, health checks and client IP preservation, and exports its IPs.
+   */
+  @Test
+  public void testGlobalAccelerator() {
+    Template template = synth(Map.of(
+        "enableLoadBalancer", "true",
+        "enableGlobalAccelerator", "true",
+        "acceleratorEndpointWeights", "200",
+        "acceleratorHealthCheckIntervalSeconds", "30"));
+
+    template.hasResourceProperties("AWS::GlobalAccelerator::Accelerator", Map.of(
+        "Name", "webapp-prod-web-accelerator",
+        "Enabled", true));
+    template.hasResourceProperties("AWS::GlobalAccelerator::Listener", Map.of(
+        "Protocol", "TCP",
+        "PortRanges", List.of(Map.of("FromPort", 80, "ToPort", 80))));
+    template.hasResourceProperties("AWS::GlobalAccelerator::EndpointGroup", Map.of(
+        "EndpointGroupRegion", "us-east-2",
+        "HealthCheckIntervalSeconds", 30,
+        "HealthCheckPath", "/",
+        "ThresholdCount", 3,
+        "EndpointConfigurations", List.of(Match.objectLike(Map.of(
+            "Weight", 200,
+            "ClientIPPreservationEnabled", true)))));
+    template.hasOutput("AcceleratorIpAddresses", Map.of(
+        "Export", Map.of("Name", "webapp-prod-accelerator-ip-addresses")));
+    template.hasOutput("AcceleratorDnsName", Map.of());
+  }
+
+  /**
+   * Test that without the ALB each web instance is an endpoint and the web
+   * security group admits the accelerator's own security group, which the
+   * office-only rules would otherwise block.
+   */
+  @Test
+  public void testGlobalAcceleratorInstanceEndpoints() {
+    Template template = synth(Map.of("enableGlobalAccelerator", "true"));
+
+    template.hasResourceProperties("AWS::GlobalAccelerator::EndpointGroup", Map.of(
+        "EndpointConfigurations", List.of(Match.anyValue(), Match.anyValue())));
+    template.hasResourceProperties("AWS::EC2::SecurityGroupIngress", Map.of(
+        "IpProtocol", "tcp",
+        "FromPort", 80,
+        "ToPort", 80,
+        "SourceSecurityGroupId", Map.of("Fn::GetAtt", List.of(
+            Match.anyValue(), "SecurityGroups.0.GroupId"))));
+  }
+
+  /**
+   * Test that an endpoint weight outside 0..255 fails synth.
+   */
+  @Test
+  public void testGlobalAcceleratorRejectsInvalidWeight() {
+    assertThatThrownBy(() -> synth(Map.of("acceleratorEndpointWeights", "128,300")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("acceleratorEndpointWeights");
+  }
+
+  /**
+   * Test that Optimized Reads/Writes pin the engine version and turn on
+   * rds.optimized_writes, and that unsupported classes fail synth.
+   */
+  @Test
+  public void testRdsOptimizedReadsAndWrites() {
+    Template template = synth(Map.of(
+        "dbInstanceType", "r6gd.large",
+        "dbEngineVersion", "8.0.36",
+        "dbStorageType", "gp3",
+        "dbOptimizedReads", "true",
+        "dbOptimizedWrites", "true"));
+
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+        "DBInstanceClass", "db.r6gd.large",
+        "EngineVersion", "8.0.36"));
+    template.hasResourceProperties("AWS::RDS::DBParameterGroup", Map.of(
+        "Family", "mysql8.0",
+        "Parameters", Map.of("rds.optimized_writes", "AUTO")));
+
+    assertThatThrownBy(() -> synth(Map.of(
+        "dbEngineVersion", "8.0.36",
+        "dbOptimizedWrites", "true")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Optimized Writes needs one of the instance families");
+  }
+
+  /**
+   * Test that dbMaxConnections lands in the DB parameter group.
+   */
+  @Test
+  public void testDbMaxConnections() {
+    Template template = synth(Map.of("dbMaxConnections", "250"));
+
+    template.hasResourceProperties("AWS::RDS::DBParameterGroup", Map.of(
+        "Parameters", Map.of("max_connections", "250")));
+  }
+
+  /**
+   * Test that backup and maintenance windows fall outside peak hours, and
+   * that an explicit window overlapping a peak fails synth.
+   */
+  @Test
+  public void testOffPeakMaintenanceWindows() {
+    Template template = synth(Map.of(
+        "peakHoursUtc", "07:00-10:00,16:00-23:00",
+        "maintenanceDay", "tue",
+        "dbMaxAllocatedStorage", "0"));
+
+    template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+        "PreferredBackupWindow", "23:30-00:30",
+        "PreferredMaintenanceWindow", "tue:01:00-tue:02:00",
+        "MaxAllocatedStorage", Match.absent()));
+
+    assertThatThrownBy(() -> synth(Map.of(
+        "peakHoursUtc", "12:00-22:00",
+        "dbBackupWindow", "13:00-14:00")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("overlaps peak hours");
+  }
+
+  /**
+   * Test that the web instances publish memory keyed by InstanceId only, as
+   * the rightsizing report queries it, without the log pipeline.
+   */
+  @Test
+  public void testWebInstancesPublishMemory() {
+    Template template = synth(Map.of());
+
+    template.hasResourceProperties("AWS::EC2::Instance", Map.of(
+        "UserData", Match.objectLike(Map.of(
+            "Fn::Base64", Match.stringLikeRegexp(
+                "yum install -y amazon-cloudwatch-agent[\\s\\S]*"
+                    + "\"append_dimensions\":\\{\"InstanceId\":\"\\$\\{aws:InstanceId\\}\"\\}.*mem_used_percent"
+                    + "[\\s\\S]*-a fetch-config")))));
+  }
+
+  /**
+   * Test that the web log groups stream through Firehose into Parquet in a
+   * KMS-encrypted, tiered bucket.
+   */
+  @Test
+  public void testLogPipeline() {
+    Template template = synth(Map.of(
+        "enableLogPipeline", "true",
+        "logGroupRetentionDays", "3",
+        "logBufferIntervalSeconds", "600"));
+
+    template.resourceCountIs("AWS::Logs::LogGroup", 2);
+    template.hasResourceProperties("AWS::Logs::LogGroup", Map.of(
+        "LogGroupName", "/webapp-prod-web/application",
+        "RetentionInDays", 3));
+    template.resourceCountIs("AWS::Logs::SubscriptionFilter", 2);
+    template.hasResourceProperties("AWS::KinesisFirehose::DeliveryStream", Map.of(
+        "DeliveryStreamName", "webapp-prod-web-logs",
+        "ExtendedS3DestinationConfiguration", Match.objectLike(Map.of(
+            "Prefix", "logs/!{timestamp:yyyy/MM/dd}/",
+            "BufferingHints", Map.of("IntervalInSeconds", 600, "SizeInMBs", 128),
+            "CompressionFormat", "UNCOMPRESSED",
+            "ProcessingConfiguration", Match.objectLike(Map.of(
+                "Processors", List.of(Match.objectLike(Map.of("Type", "Decompression"))))),
+            "DataFormatConversionConfiguration", Match.objectLike(Map.of(
+                "OutputFormatConfiguration", Map.of("Serializer", Map.of(
+                    "ParquetSerDe", Map.of("Compression", "SNAPPY"))),
+                "SchemaConfiguration", Match.objectLike(Map.of(
+                    "DatabaseName", "webapp_prod_web_logs",
+                    "TableName", "web_logs"))))))));
+    template.hasResourceProperties("AWS::S3::Bucket", Map.of(
+        "BucketName", "webapp-prod-web-log-archive",
+        "BucketEncryption", Match.objectLike(Map.of(
+            "ServerSideEncryptionConfiguration", List.of(Match.objectLike(Map.of(
+                "ServerSideEncryptionByDefault", Match.objectLike(Map.of(
+                    "SSEAlgorithm", "aws:kms"))))))),
+        "LifecycleConfiguration", Map.of("Rules", Match.arrayWith(List.of(
+            Match.objectLike(Map.of(
+                "Id", "TierAndExpireLogs",
+                "ExpirationInDays", 365,
+                "Transitions", List.of(
+                    Map.of("StorageClass", "STANDARD_IA", "TransitionInDays", 30),
+                    Map.of("StorageClass", "GLACIER_IR", "TransitionInDays", 90)))))))));
+    // Log collection is appended to the agent's memory metrics config
+    template.hasResourceProperties("AWS::EC2::Instance", Map.of(
+        "UserData", Match.objectLike(Map.of(
+            "Fn::Base64", Match.stringLikeRegexp(
+                "memory-metrics\\.json[\\s\\S]*/var/log/webapp/\\*\\.log[\\s\\S]*-a append-config")))));
+
+    assertThatThrownBy(() -> synth(Map.of("logGroupRetentionDays", "4")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("logGroupRetentionDays must be one of");
+  }
+
+  /**
+   * Test that the FIS templates cover failover, network, AZ and CPU faults
+   * and stop on the stack's alarms.
+   */
+  @Test
+  public void testFaultInjectionExperiments() {
+    Template template = synth(Map.of(
+        "enableFaultInjection", "true",
+        "detectionMode", "fast",
+        "fisPacketLossPercent", "25"));
+
+    template.resourceCountIs("AWS::FIS::ExperimentTemplate", 5);
+    // Failover and AZ drills stop on either tier's composite alarm
+    template.hasResourceProperties("AWS::FIS::ExperimentTemplate", Map.of(
+        "Tags", Map.of("Name", "webapp-prod-db-failover"),
+        "Actions", Map.of("DbFailover", Match.objectLike(Map.of(
+            "ActionId", "aws:rds:reboot-db-instances",
+            "Parameters", Map.of("forceFailover", "true")))),
+        "StopConditions", List.of(
+            Map.of("Source", "aws:cloudwatch:alarm", "Value", Match.anyValue()),
+            Map.of("Source", "aws:cloudwatch:alarm", "Value", Match.anyValue()))));
+    template.hasResourceProperties("AWS::FIS::ExperimentTemplate", Map.of(
+        "Tags", Map.of("Name", "webapp-prod-az-impairment"),
+        "Targets", Map.of("Subnet", Match.objectLike(Map.of(
+            "ResourceType", "aws:ec2:subnet")))));
+    template.hasResourceProperties("AWS::FIS::ExperimentTemplate", Map.of(
+        "Tags", Map.of("Name", "webapp-prod-web-packet-loss"),
+        "Actions", Map.of("WebPacketLoss", Match.objectLike(Map.of(
+            "ActionId", "aws:ssm:send-command",
+            "Parameters", Match.objectLike(Map.of(
+                "documentParameters", Match.stringLikeRegexp(".*\"LossPercent\":\"25\".*"),
+                "duration", "PT5M"))))),
+        "Targets", Map.of("WebInstances", Match.objectLike(Map.of(
+            "ResourceTags", Map.of("Project", "webapp", "Environment", "prod", "Tier", "web")))),
+        "StopConditions", List.of(Map.of(
+            "Source", "aws:cloudwatch:alarm",
+            "Value", Match.objectLike(Map.of("Fn::Join", Match.arrayWith(List.of(Match.arrayWith(List.of(
+                Match.stringLikeRegexp(".*:alarm:webapp-prod-web-tier")))))))))));
+    template.hasOutput("FisTemplateDbFailoverId", Map.of(
+        "Export", Map.of("Name", "webapp-prod-fis-db-failover-template-id")));
+
+    // Standard mode has no data tier alarm to stop a failover drill
+    assertThatThrownBy(() -> synth(Map.of("enableFaultInjection", "true")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("enableFaultInjection requires detectionMode=fast");
+  }
+
+  /**
+   * Test that Fargate mode replaces the instances with an auto-scaled ECS
+   * service behind the ALB, in either layout, and rejects invalid task sizes
+   * and a missing ALB.
+   */
+  @Test
+  public void testFargateWebTier() {
+    Template template = synth(Map.of(
+        "webComputeMode", "fargate",
+        "enableLoadBalancer", "true",
+        "webContainerImage", "ecr:webapp:1.4.2",
+        "webTaskCpu", "1024",
+        "webTaskMemoryMib", "2048",
+        "fargateSpotWeight", "3"));
+
+    template.resourceCountIs("AWS::EC2::Instance", 0);
+    template.hasResourceProperties("AWS::ECS::TaskDefinition", Map.of(
+        "Cpu", "1024",
+        "Memory", "2048",
+        "RequiresCompatibilities", List.of("FARGATE")));
+    template.hasResourceProperties("AWS::ECS::Service", Map.of(
+        "ServiceName", "webapp-prod-web",
+        "CapacityProviderStrategy", List.of(
+            Map.of("CapacityProvider", "FARGATE", "Base", 1, "Weight", 1),
+            Map.of("CapacityProvider", "FARGATE_SPOT", "Weight", 3)),
+        "NetworkConfiguration", Map.of("AwsvpcConfiguration", Match.objectLike(Map.of(
+            "AssignPublicIp", "DISABLED"))),
+        "LoadBalancers", List.of(Match.objectLike(Map.of(
+            "ContainerName", "Web",
+            "ContainerPort", 80)))));
+    template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalableTarget", Map.of(
+        "MinCapacity", 2,
+        "MaxCapacity", 10));
+    template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+        "TargetTrackingScalingPolicyConfiguration", Match.objectLike(Map.of(
+            "PredefinedMetricSpecification", Map.of(
+                "PredefinedMetricType", "ECSServiceAverageCPUUtilization"),
+            "TargetValue", 60))));
+    template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+        "TargetTrackingScalingPolicyConfiguration", Match.objectLike(Map.of(
+            "PredefinedMetricSpecification", Match.objectLike(Map.of(
+                "PredefinedMetricType", "ALBRequestCountPerTarget")),
+            "TargetValue", 1000))));
+    // Tasks use the shared web role
+    template.hasResourceProperties("AWS::IAM::Role", Map.of(
+        "RoleName", "webapp-prod-ec2-instance-role",
+        "AssumeRolePolicyDocument", Map.of("Statement", Match.arrayWith(List.of(
+            Match.objectLike(Map.of(
+                "Principal", Map.of("Service", "ecs-tasks.amazonaws.com"))))))));
+    template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+        "AlarmName", "webapp-prod-high-cpu-service",
+        "Namespace", "AWS/ECS"));
+    // Only the drills that do not need instances
+    synth(Map.of(
+        "webComputeMode", "fargate",
+        "enableLoadBalancer", "true",
+        "detectionMode", "fast",
+        "enableFaultInjection", "true"))
+        .resourceCountIs("AWS::FIS::ExperimentTemplate", 2);
+    template.hasOutput("EcsServiceName", Map.of(
+        "Export", Map.of("Name", "webapp-prod-ecs-service-name")));
+    assertThat(template.findOutputs("WebInstanceType", Map.of())).isEmpty();
+
+    // Split layout: the service lives in the web stack without editing the network stack's security group
+    TierStacks stacks = tierStacks(Map.of(
+        "webComputeMode", "fargate",
+        "enableLoadBalancer", "true"));
+    Template.fromStack(stacks.getWebStack()).resourceCountIs("AWS::ECS::Service", 1);
+    Template.fromStack(stacks.getNetworkStack()).resourceCountIs("AWS::EC2::SecurityGroupIngress", 0);
+
+    assertThatThrownBy(() -> synth(Map.of(
+        "webComputeMode", "fargate",
+        "webTaskCpu", "256",
+        "webTaskMemoryMib", "4096")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("webTaskMemoryMib");
+    // Memory must also be on the size's step, not just inside its range
+    assertThatThrownBy(() -> WebFargateService.validateTaskSize(256, 1536))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("must be 512 or 1024 to 2048 in steps of 1024: 1536");
+    assertThatThrownBy(() -> WebFargateService.validateTaskSize(8192, 18432))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("16384 to 61440 in steps of 4096");
+    WebFargateService.validateTaskSize(8192, 20480);
+    WebFargateService.validateTaskSize(256, 512);
+
+    // Without the ALB tasks would only be reachable from the office CIDRs
+    assertThatThrownBy(() -> synth(Map.of("webComputeMode", "fargate")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("webComputeMode=fargate requires enableLoadBalancer");
+  }
+
+  /** Single-stack layout synthesized with the given context. */
+  private static Template synth(Map<String, ?> context) {
+    return Template.fromStack(tapStack(context));
+  }
+
+  private static TapStack tapStack(Map<String, ?> context) {
+    App app = new App();
+    context.forEach(app.getNode()::setContext);
+    return new TapStack(app, "TestStack", props());
+  }
+
+  /** Split layout synthesized with the given context. */
+  private static TierStacks tierStacks(Map<String, ?> context) {
+    App app = new App();
+    app.getNode().setContext("stackLayout", "split");
+    context.forEach(app.getNode()::setContext);
+    TierStacks stacks = new TierStacks(app, "TestSplit", props());
+    app.synth();
+    return stacks;
+  }
+
+  /** With an account, as Main sets it, so CDK resolves more than two AZs. */
+  private static StackProps props() {
+    return StackProps.builder()
+        .env(Environment.builder()
+            .account("123456789012")
+            .region("us-east-2")
+            .build())
+        .build();
+  }
+}
@@ -0,0 +1,78 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Backup and maintenance window placement around peak hours.
+ */
+public class MaintenanceWindowPlannerTest {
+
+  @Test
+  public void testWindowsFollowThePeak() {
+    List<MaintenanceWindowPlanner.Window> peaks = peaks("12:00-22:00");
+
+    assertThat(MaintenanceWindowPlanner.backupWindow(peaks)).isEqualTo("22:30-23:30");
+    assertThat(MaintenanceWindowPlanner.maintenanceWindow(peaks, "sun")).isEqualTo("sun:00:00-sun:01:00");
+  }
+
+  @Test
+  public void testLongestGapWinsAcrossMidnight() {
+    // 10:00-16:00 is 6 hours, 23:00-07:00 is 8
+    List<MaintenanceWindowPlanner.Window> peaks = peaks("07:00-10:00", "16:00-23:00");
+
+    assertThat(MaintenanceWindowPlanner.offPeak(peaks).toString()).isEqualTo("23:00-07:00");
+    assertThat(MaintenanceWindowPlanner.backupWindow(peaks)).isEqualTo("23:30-00:30");
+    assertThat(MaintenanceWindowPlanner.maintenanceWindow(peaks, "Wed")).isEqualTo("wed:01:00-wed:02:00");
+  }
+
+  @Test
+  public void testWrappingPeak() {
+    List<MaintenanceWindowPlanner.Window> peaks = peaks("20:00-02:00");
+
+    assertThat(MaintenanceWindowPlanner.backupWindow(peaks)).isEqualTo("02:30-03:30");
+    assertThat(MaintenanceWindowPlanner.maintenanceWindow(peaks, "sat")).isEqualTo("sat:04:00-sat:05:00");
+  }
+
+  @Test
+  public void testRejectsProfilesWithoutRoom() {
+    assertThatThrownBy(() -> MaintenanceWindowPlanner.backupWindow(peaks("00:00-22:00")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("is 120 minutes");
+    assertThatThrownBy(() -> MaintenanceWindowPlanner.offPeak(peaks("00:00-12:00", "12:00-00:00")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("cover the whole day");
+    assertThatThrownBy(() -> peaks("9:00-17:00"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("HH:MM");
+  }
+
+  @Test
+  public void testValidateExplicitWindows() {
+    List<MaintenanceWindowPlanner.Window> peaks = peaks("12:00-22:00");
+
+    MaintenanceWindowPlanner.validate("03:00-03:30", "mon:04:00-mon:05:00", peaks);
+    MaintenanceWindowPlanner.validate(null, null, peaks);
+
+    assertThatThrownBy(() -> MaintenanceWindowPlanner.validate("21:30-22:30", "sat:03:00-sat:04:00", peaks))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Backup window 21:30-22:30 overlaps peak hours 12:00-22:00");
+    // Backups run daily, so a Monday maintenance window at the same time collides
+    assertThatThrownBy(() -> MaintenanceWindowPlanner.validate("03:00-04:00", "mon:03:30-mon:04:30", peaks))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("overlaps maintenance window");
+    assertThatThrownBy(() -> MaintenanceWindowPlanner.validate("03:00-03:15", "sun:23:30-mon:13:00", peaks))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("at least 30 minutes")
+        .hasMessageContaining("Maintenance window sun:23:30-mon:13:00 overlaps peak hours");
+  }
+
+  private static List<MaintenanceWindowPlanner.Window> peaks(String... ranges) {
+    return MaintenanceWindowPlanner.parsePeakHours(Arrays.asList(ranges));
+  }
+}
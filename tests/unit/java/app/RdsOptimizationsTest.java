@@ -0,0 +1,79 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the RDS Optimized Reads/Writes synth-time checks.
+ */
+public class RdsOptimizationsTest {
+
+  /**
+   * Test that an NVMe Graviton class on a recent 8.0 minor supports both features.
+   */
+  @Test
+  public void testSupportedCombination() {
+    assertThatCode(() -> RdsOptimizations.validate("r6gd.large", "8.0.36", true, true))
+        .doesNotThrowAnyException();
+    assertThatCode(() -> RdsOptimizations.validate("db.r6g.xlarge", "8.0.30", false, true))
+        .doesNotThrowAnyException();
+  }
+
+  /**
+   * Test that nothing is checked when neither feature is requested.
+   */
+  @Test
+  public void testDisabledSkipsChecks() {
+    assertThatCode(() -> RdsOptimizations.validate("t3.micro", "8.0", false, false))
+        .doesNotThrowAnyException();
+  }
+
+  /**
+   * Test that classes without local NVMe storage cannot use Optimized Reads.
+   */
+  @Test
+  public void testOptimizedReadsNeedsLocalStorage() {
+    assertThatThrownBy(() -> RdsOptimizations.validate("r6g.large", "8.0.36", true, false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Optimized Reads needs an instance class with local NVMe storage");
+  }
+
+  /**
+   * Test that versions below the feature minimums, and unpinned versions, are rejected.
+   */
+  @Test
+  public void testEngineVersionChecks() {
+    assertThatThrownBy(() -> RdsOptimizations.validate("r6gd.large", "8.0.28", true, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Optimized Writes needs MySQL 8.0.30 or later, got 8.0.28")
+        .hasMessageNotContaining("Optimized Reads");
+    assertThatThrownBy(() -> RdsOptimizations.validate("r6gd.large", "8.0", true, false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("pinned engine version");
+  }
+
+  /**
+   * Test that every problem is reported at once.
+   */
+  @Test
+  public void testReportsAllProblems() {
+    assertThatThrownBy(() -> RdsOptimizations.validate("t3.micro", "8.0.25", true, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Optimized Reads needs an instance class")
+        .hasMessageContaining("Optimized Reads needs MySQL 8.0.28")
+        .hasMessageContaining("Optimized Writes needs one of the instance families")
+        .hasMessageContaining("Optimized Writes needs MySQL 8.0.30");
+  }
+
+  @Test
+  public void testHelpers() {
+    assertThat(RdsOptimizations.family("db.x2iedn.2xlarge")).isEqualTo("x2iedn");
+    assertThat(RdsOptimizations.compareVersions("8.0.9", "8.0.28")).isNegative();
+    assertThat(RdsOptimizations.compareVersions("8.0.30", "8.0.30")).isZero();
+    assertThat(RdsOptimizations.parameters(true)).containsEntry("rds.optimized_writes", "AUTO");
+    assertThat(RdsOptimizations.parameters(false)).isEmpty();
+  }
+}
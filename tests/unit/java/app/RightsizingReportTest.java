@@ -0,0 +1,133 @@
+package app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Rightsizing recommendations computed from recorded metrics; no AWS access.
+ */
+public class RightsizingReportTest {
+  private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-15T00:00:00Z"), ZoneOffset.UTC);
+
+  @Test
+  public void testRecommendationsFromRecordedMetrics() throws Exception {
+    RightsizingReport report = new RightsizingReport(outputs(),
+        FixtureMetricSource.fromFile(resource("rightsizing/metrics.json")), CLOCK, 14);
+
+    RightsizingReport.Result result = report.analyze();
+
+    // Idle web tier steps down, CPU-bound burstable DB steps up, nearly full gp2 volume grows and moves to gp3
+    assertThat(result.getOverrides())
+        .containsEntry("webInstanceType", "t3.small")
+        .containsEntry("dbInstanceType", "t3.small")
+        .containsEntry("dbAllocatedStorage", 30)
+        .containsEntry("dbMaxAllocatedStorage", 60)
+        .containsEntry("dbStorageType", "gp3")
+        .doesNotContainKey("dbIops");
+    assertThat(result.getFindings()).anyMatch(f -> f.startsWith("db: peak connections 50"));
+    assertThat(new ObjectMapper().readTree(result.toJson()).get("webInstanceType").asText()).isEqualTo("t3.small");
+  }
+
+  @Test
+  public void testQueriesResolveIdsFromOutputs() throws Exception {
+    RightsizingReport report = new RightsizingReport(outputs(), new FixtureMetricSource(Map.of()), CLOCK, 14);
+
+    List<MetricSource.Query> queries = report.queries();
+
+    assertThat(report.webInstanceIds()).containsExactly("i-0aaaaaaaaaaaaaaa1", "i-0bbbbbbbbbbbbbbb2");
+    assertThat(queries).extracting(MetricSource.Query::getId)
+        .contains("web0_cpu", "web1_memory", "db_cpu", "db_read_iops", "db_free_storage");
+    assertThat(queries).filteredOn(q -> q.getId().startsWith("db_"))
+        .allMatch(q -> "webapp-prod-mysql-db-2".equals(q.getDimensionValue()));
+    assertThat(queries).allMatch(q -> q.getPeriodSeconds() == RightsizingReport.PERIOD_SECONDS);
+  }
+
+  @Test
+  public void testSustainedIopsAboveGp3BaselineProvisionsIops() throws Exception {
+    Map<String, List<Double>> recorded = new HashMap<>();
+    recorded.put("web0_cpu", series(45.0));
+    recorded.put("db_cpu", series(40.0));
+    recorded.put("db_freeable_memory", series(512.0 * 1024 * 1024));
+    recorded.put("db_cpu_credits", series(100.0));
+    recorded.put("db_read_iops", series(3500.0));
+    recorded.put("db_write_iops", series(1500.0));
+
+    RightsizingReport.Result result = new RightsizingReport(outputs(), new FixtureMetricSource(recorded), CLOCK, 14)
+        .analyze();
+
+    assertThat(result.getOverrides())
+        .containsEntry("webInstanceType", "t3.medium")
+        .containsEntry("dbInstanceType", "t3.micro")
+        .containsEntry("dbStorageType", "gp3")
+        // 6000 IOPS fits the 12000 IOPS baseline of a 400 GiB gp3 volume
+        .containsEntry("dbAllocatedStorage", RightsizingReport.GP3_PROVISIONED_IOPS_MIN_STORAGE)
+        .doesNotContainKey("dbIops");
+
+    recorded.put("db_read_iops", series(9000.0));
+    result = new RightsizingReport(outputs(), new FixtureMetricSource(recorded), CLOCK, 14).analyze();
+
+    // 10500 x 1.2 rounds up to 13000, above the large-volume baseline
+    assertThat(result.getOverrides())
+        .containsEntry("dbIops", 13000)
+        .containsEntry("dbAllocatedStorage", RightsizingReport.GP3_PROVISIONED_IOPS_MIN_STORAGE);
+  }
+
+  @Test
+  public void testIdleWebWithoutMemoryDataIsKept() throws Exception {
+    Map<String, List<Double>> recorded = new HashMap<>();
+    recorded.put("web0_cpu", series(5.0));
+    recorded.put("web1_cpu", series(8.0));
+
+    RightsizingReport.Result result = new RightsizingReport(outputs(), new FixtureMetricSource(recorded), CLOCK, 14)
+        .analyze();
+
+    assertThat(result.getOverrides()).containsEntry("webInstanceType", "t3.medium");
+    assertThat(result.getFindings()).anyMatch(f -> f.startsWith("web: p95 CPU 8.0%, no memory data"));
+
+    recorded.put("web0_memory", series(30.0));
+    result = new RightsizingReport(outputs(), new FixtureMetricSource(recorded), CLOCK, 14).analyze();
+
+    assertThat(result.getOverrides()).containsEntry("webInstanceType", "t3.small");
+  }
+
+  @Test
+  public void testResizeStaysWithinFamilyAndLadder() {
+    assertThat(RightsizingReport.resize("t3.medium", 1)).isEqualTo("t3.large");
+    assertThat(RightsizingReport.resize("m6g.xlarge", -1)).isEqualTo("m6g.large");
+    assertThat(RightsizingReport.resize("db.r6g.2xlarge", 1)).isEqualTo("db.r6g.4xlarge");
+    assertThat(RightsizingReport.resize("t3.nano", -1)).isEqualTo("t3.nano");
+    assertThatThrownBy(() -> RightsizingReport.resize("t3", 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Map<String, String> outputs() throws IOException, URISyntaxException {
+    return new ObjectMapper().readValue(Files.readString(resource("rightsizing/flat-outputs.json")),
+        new TypeReference<Map<String, String>>() {
+        });
+  }
+
+  private static List<Double> series(double value) {
+    return Collections.nCopies(12, value);
+  }
+
+  private static Path resource(String name) throws URISyntaxException {
+    return Path.of(RightsizingReportTest.class.getClassLoader().getResource(name).toURI());
+  }
+}